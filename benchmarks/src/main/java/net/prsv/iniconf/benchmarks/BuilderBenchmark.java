@@ -0,0 +1,77 @@
+package net.prsv.iniconf.benchmarks;
+
+import net.prsv.iniconf.IniConf;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares assembling a configuration programmatically with {@link IniConf#put(String, String, String)} and with
+ * {@link IniConf.Builder}, for the same sections and properties as {@link CoreOperationsBenchmark}.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class BuilderBenchmark {
+
+    @Param({"100", "5000"})
+    public int sections;
+
+    @Param({"1", "4"})
+    public int depth;
+
+    private String[] paths;
+    private List<Map<String, String>> properties;
+
+    @Setup
+    public void setUp() {
+        paths = new String[sections];
+        properties = new ArrayList<>(sections);
+        for (int section = 0; section < sections; section++) {
+            paths[section] = SyntheticConfig.sectionPath(section, depth);
+            Map<String, String> sectionProperties = new LinkedHashMap<>();
+            for (int key = 0; key < SyntheticConfig.KEYS_PER_SECTION; key++) {
+                sectionProperties.put("Key" + key, "value" + section + '_' + key);
+            }
+            properties.add(sectionProperties);
+        }
+    }
+
+    @Benchmark
+    public IniConf assembleWithPut() {
+        IniConf iniConf = new IniConf();
+        for (int section = 0; section < sections; section++) {
+            for (Map.Entry<String, String> property : properties.get(section).entrySet()) {
+                iniConf.put(paths[section], property.getKey(), property.getValue());
+            }
+        }
+        return iniConf;
+    }
+
+    @Benchmark
+    public IniConf assembleWithBuilder() {
+        IniConf.Builder builder = new IniConf.Builder();
+        for (int section = 0; section < sections; section++) {
+            builder.putAll(paths[section], properties.get(section));
+        }
+        return builder.build();
+    }
+
+}
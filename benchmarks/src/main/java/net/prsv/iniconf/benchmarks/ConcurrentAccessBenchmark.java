@@ -0,0 +1,98 @@
+package net.prsv.iniconf.benchmarks;
+
+import net.prsv.iniconf.ConcurrentIniConf;
+import net.prsv.iniconf.IniConf;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Group;
+import org.openjdk.jmh.annotations.GroupThreads;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares read throughput of {@link ConcurrentIniConf} with an {@link IniConf} guarded by a global lock while one
+ * thread keeps updating values. Each group runs seven readers and one writer.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Group)
+public class ConcurrentAccessBenchmark {
+
+    private static final int SECTIONS = 16;
+    private static final int KEYS = 32;
+
+    private final Object lock = new Object();
+    private IniConf synchronizedConf;
+    private ConcurrentIniConf concurrentConf;
+    private String[] sections;
+    private String[] keys;
+
+    @State(Scope.Thread)
+    public static class Cursor {
+        int next;
+    }
+
+    @Setup
+    public void setUp() {
+        sections = new String[SECTIONS];
+        keys = new String[KEYS];
+        IniConf source = new IniConf();
+        for (int section = 0; section < SECTIONS; section++) {
+            sections[section] = "service" + section + ".endpoint";
+            for (int key = 0; key < KEYS; key++) {
+                keys[key] = "key" + key;
+                source.put(sections[section], keys[key], "value" + key);
+            }
+        }
+        synchronizedConf = source;
+        concurrentConf = new ConcurrentIniConf(source);
+    }
+
+    @Benchmark
+    @Group("synchronized")
+    @GroupThreads(7)
+    public String synchronizedRead(Cursor cursor) {
+        int next = cursor.next++;
+        synchronized (lock) {
+            return synchronizedConf.get(sections[next % SECTIONS], keys[next % KEYS]);
+        }
+    }
+
+    @Benchmark
+    @Group("synchronized")
+    @GroupThreads(1)
+    public String synchronizedWrite(Cursor cursor) {
+        int next = cursor.next++;
+        synchronized (lock) {
+            return synchronizedConf.put(sections[next % SECTIONS], keys[next % KEYS], Integer.toString(next));
+        }
+    }
+
+    @Benchmark
+    @Group("concurrent")
+    @GroupThreads(7)
+    public String concurrentRead(Cursor cursor) {
+        int next = cursor.next++;
+        return concurrentConf.get(sections[next % SECTIONS], keys[next % KEYS]);
+    }
+
+    @Benchmark
+    @Group("concurrent")
+    @GroupThreads(1)
+    public String concurrentWrite(Cursor cursor) {
+        int next = cursor.next++;
+        return concurrentConf.put(sections[next % SECTIONS], keys[next % KEYS], Integer.toString(next));
+    }
+
+}
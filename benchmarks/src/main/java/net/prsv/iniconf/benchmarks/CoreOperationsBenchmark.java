@@ -0,0 +1,127 @@
+package net.prsv.iniconf.benchmarks;
+
+import net.prsv.iniconf.IniConf;
+import net.prsv.iniconf.IniConfReader;
+import net.prsv.iniconf.IniConfWriter;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures the core operations of {@link IniConf} on synthetic configurations of varying size, section depth, and
+ * value shape: parsing, reading a file, lookups, mutation, equality, and serialization. Run it with
+ * {@code -prof gc} to report allocation rates alongside the timings.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class CoreOperationsBenchmark {
+
+    @Param({"100", "5000"})
+    public int sections;
+
+    @Param({"1", "4"})
+    public int depth;
+
+    @Param({"SIMPLE", "ESCAPED"})
+    public SyntheticConfig.ValueShape shape;
+
+    private String input;
+    private Path file;
+    private IniConf iniConf;
+    private IniConf copy;
+    private String section;
+    private String key;
+    private boolean toggle;
+
+    @Setup
+    public void setUp() throws IOException {
+        input = SyntheticConfig.generate(sections, depth, shape);
+        file = Files.createTempFile("core-operations", ".ini");
+        Files.writeString(file, input);
+        iniConf = new IniConf(input);
+        copy = new IniConf(input);
+        section = SyntheticConfig.sectionPath(sections / 2, depth);
+        key = "key" + (SyntheticConfig.KEYS_PER_SECTION / 2);
+    }
+
+    @TearDown
+    public void tearDown() throws IOException {
+        Files.deleteIfExists(file);
+    }
+
+    @Benchmark
+    public IniConf parse() {
+        return new IniConf(input);
+    }
+
+    @Benchmark
+    public Optional<IniConf> read() {
+        return IniConfReader.read(file);
+    }
+
+    @Benchmark
+    public String getRoot() {
+        return iniConf.get(key);
+    }
+
+    @Benchmark
+    public String getNested() {
+        return iniConf.get(section, key);
+    }
+
+    @Benchmark
+    public String put() {
+        toggle = !toggle;
+        return iniConf.put(section, key, toggle ? "changed" : "value");
+    }
+
+    @Benchmark
+    public IniConf addSection() {
+        IniConf added = new IniConf();
+        added.put(key, "value");
+        return iniConf.addSection(section + ".added", added);
+    }
+
+    @Benchmark
+    public boolean equalsCopy() {
+        return iniConf.equals(copy);
+    }
+
+    @Benchmark
+    public int hashCodeAfterPut() {
+        toggle = !toggle;
+        iniConf.put(section, key, toggle ? "changed" : "value");
+        return iniConf.hashCode();
+    }
+
+    @Benchmark
+    public String serialize() {
+        return iniConf.toString();
+    }
+
+    @Benchmark
+    public boolean write() {
+        return IniConfWriter.write(OutputStream.nullOutputStream(), iniConf);
+    }
+
+}
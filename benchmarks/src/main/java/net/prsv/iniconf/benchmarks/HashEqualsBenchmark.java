@@ -0,0 +1,101 @@
+package net.prsv.iniconf.benchmarks;
+
+import net.prsv.iniconf.IniConf;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures {@code hashCode()} and {@code equals()} on large trees. The {@code fresh} benchmarks run on configurations
+ * that have never been hashed and therefore show the cost of a full walk; the others run on configurations whose
+ * subtree hashes are cached.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class HashEqualsBenchmark {
+
+    private static final String DEEP_SECTION = "region3.zone7.service";
+
+    @Param({"2000"})
+    public int sections;
+
+    private String input;
+    private IniConf cached;
+    private IniConf cachedChanged;
+    private boolean toggle;
+
+    @State(Scope.Thread)
+    public static class Fresh {
+
+        IniConf left;
+        IniConf right;
+
+        @Setup(Level.Invocation)
+        public void setUp(HashEqualsBenchmark benchmark) {
+            left = new IniConf(benchmark.input);
+            right = new IniConf(benchmark.input);
+            right.put(DEEP_SECTION, "key7", "changed");
+        }
+    }
+
+    @Setup
+    public void setUp() {
+        StringBuilder builder = new StringBuilder();
+        for (int index = 0; index < sections; index++) {
+            builder.append("[region").append(index % 10).append(".zone").append(index / 10 % 20)
+                    .append(".service").append(index == 73 ? "" : Integer.toString(index)).append("]\n");
+            for (int key = 0; key < 16; key++) {
+                builder.append("key").append(key).append(" = value").append(key).append('\n');
+            }
+        }
+        input = builder.toString();
+        cached = new IniConf(input);
+        cachedChanged = new IniConf(input);
+        cachedChanged.put(DEEP_SECTION, "key7", "changed");
+        cached.hashCode();
+        cachedChanged.hashCode();
+    }
+
+    @Benchmark
+    public int hashFresh(Fresh fresh) {
+        return fresh.left.hashCode();
+    }
+
+    @Benchmark
+    public int hashCached() {
+        return cached.hashCode();
+    }
+
+    @Benchmark
+    public int hashAfterNestedPut() {
+        toggle = !toggle;
+        cached.put(DEEP_SECTION, "key3", toggle ? "value3" : "other");
+        return cached.hashCode();
+    }
+
+    @Benchmark
+    public boolean equalsDifferentFresh(Fresh fresh) {
+        return fresh.left.equals(fresh.right);
+    }
+
+    @Benchmark
+    public boolean equalsDifferentCached() {
+        return cached.equals(cachedChanged);
+    }
+
+}
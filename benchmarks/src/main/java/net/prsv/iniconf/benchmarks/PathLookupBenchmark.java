@@ -0,0 +1,53 @@
+package net.prsv.iniconf.benchmarks;
+
+import net.prsv.iniconf.IniConf;
+import net.prsv.iniconf.IniConfKey;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares a nested lookup by strings with the same lookup through a precompiled {@link IniConfKey}.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class PathLookupBenchmark {
+
+    private static final String SECTION = "mesh.region.zone.cluster.service.endpoint";
+
+    private IniConf iniConf;
+    private IniConfKey handle;
+
+    @Setup
+    public void setUp() {
+        iniConf = new IniConf();
+        for (int index = 0; index < 32; index++) {
+            iniConf.put(SECTION, "key" + index, "value" + index);
+        }
+        handle = IniConf.path(SECTION).key("key17");
+    }
+
+    @Benchmark
+    public String stringLookup() {
+        return iniConf.get(SECTION, "key17");
+    }
+
+    @Benchmark
+    public String handleLookup() {
+        return handle.get(iniConf);
+    }
+
+}
@@ -0,0 +1,75 @@
+package net.prsv.iniconf.benchmarks;
+
+import net.prsv.iniconf.IniConf;
+import net.prsv.iniconf.IniConfCompiler;
+import net.prsv.iniconf.IniConfReader;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares reading a large {@code .ini} file and looking up one value with loading the compiled form of the same
+ * file and looking up the same value.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class StartupBenchmark {
+
+    private Path directory;
+    private Path source;
+    private Path compiled;
+
+    @Setup
+    public void setUp() throws IOException {
+        directory = Files.createTempDirectory("startup-benchmark");
+        source = directory.resolve("large.ini");
+        compiled = directory.resolve("large.inic");
+        StringBuilder input = new StringBuilder();
+        for (int section = 0; section < 5000; section++) {
+            input.append("[service").append(section).append(".http]\n");
+            for (int key = 0; key < 10; key++) {
+                input.append("key").append(key).append(" = \"value ").append(section).append("\"\n");
+            }
+        }
+        Files.writeString(source, input);
+        if (!IniConfCompiler.compile(source, compiled)) {
+            throw new IOException("cannot compile " + source);
+        }
+    }
+
+    @TearDown
+    public void tearDown() throws IOException {
+        Files.deleteIfExists(source);
+        Files.deleteIfExists(compiled);
+        Files.deleteIfExists(directory);
+    }
+
+    @Benchmark
+    public String readSource() {
+        IniConf conf = IniConfReader.read(source).orElseThrow();
+        return conf.get("service4321.http", "key7");
+    }
+
+    @Benchmark
+    public String loadCompiled() {
+        return IniConfCompiler.load(compiled, source).orElseThrow().get("service4321.http", "key7");
+    }
+
+}
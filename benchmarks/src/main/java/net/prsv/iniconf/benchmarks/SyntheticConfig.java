@@ -0,0 +1,64 @@
+package net.prsv.iniconf.benchmarks;
+
+/**
+ * Generates synthetic configurations of a given size, section depth, and value shape for the benchmarks.
+ */
+public final class SyntheticConfig {
+
+    /** Number of properties in every section. */
+    static final int KEYS_PER_SECTION = 8;
+
+    /**
+     * The kind of values to generate, from the cheapest to the most expensive to parse and serialize.
+     */
+    public enum ValueShape {
+        /** Unquoted values without whitespace or escapes, such as {@code value17}. */
+        SIMPLE,
+        /** Quoted values containing whitespace, such as {@code "value number 17"}. */
+        QUOTED,
+        /** Quoted values containing escaped quotes and backslashes. */
+        ESCAPED
+    }
+
+    // do not instantiate
+    private SyntheticConfig() {}
+
+    /**
+     * Returns the INI text of a configuration with {@code sections} sections of {@link #KEYS_PER_SECTION}
+     * properties each. Every section path has {@code depth} components; sections share their leading components, so
+     * deeper configurations have more intermediate sections.
+     */
+    static String generate(int sections, int depth, ValueShape shape) {
+        StringBuilder input = new StringBuilder();
+        for (int section = 0; section < sections; section++) {
+            input.append('[').append(sectionPath(section, depth)).append("]\n");
+            for (int key = 0; key < KEYS_PER_SECTION; key++) {
+                input.append("key").append(key).append(" = ").append(value(section, key, shape)).append('\n');
+            }
+            input.append('\n');
+        }
+        return input.toString();
+    }
+
+    /**
+     * Returns the path of the section with the specified index.
+     */
+    static String sectionPath(int section, int depth) {
+        StringBuilder path = new StringBuilder();
+        int fanOut = 1;
+        for (int level = 0; level < depth - 1; level++) {
+            fanOut *= 8;
+            path.append("level").append(level).append('_').append(section % fanOut).append('.');
+        }
+        return path.append("section").append(section).toString();
+    }
+
+    private static String value(int section, int key, ValueShape shape) {
+        return switch (shape) {
+            case SIMPLE -> "value" + section + '_' + key;
+            case QUOTED -> "\"value number " + section + ' ' + key + '"';
+            case ESCAPED -> "\"say \\\"hello\\\" to C:\\\\data\\\\" + section + ' ' + key + '"';
+        };
+    }
+
+}
@@ -0,0 +1,292 @@
+package net.prsv.iniconf;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayDeque;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * A read-only configuration loaded from a compiled file by {@link IniConfCompiler}. The file stays memory-mapped,
+ * and each section decodes its properties and the names of its subsections the first time one of them is accessed;
+ * sections that are never accessed are never decoded, and strings shared by several sections are decoded once.
+ * Instances can be shared between threads without synchronization. Keys and section paths are normalized in the same
+ * way as by {@link IniConf}.
+ */
+public final class CompiledIniConf {
+
+    /**
+     * The decoded tables of a compiled file shared by all of its sections.
+     */
+    private static final class Data {
+
+        private final ByteBuffer buffer;
+        private final int stringOffsets;
+        private final int stringData;
+        private final int sectionTable;
+        private final int propertyTable;
+        private final String[] strings;
+        private final CompiledIniConf[] sections;
+
+        Data(ByteBuffer buffer) {
+            this.buffer = buffer;
+            int stringCount = buffer.getInt(IniConfCompiler.HEADER_SIZE);
+            stringOffsets = IniConfCompiler.HEADER_SIZE + 4;
+            stringData = stringOffsets + 4 * (stringCount + 1);
+            int sectionCountPosition = stringData + buffer.getInt(stringOffsets + 4 * stringCount);
+            sectionTable = sectionCountPosition + 4;
+            int sectionCount = buffer.getInt(sectionCountPosition);
+            propertyTable = sectionTable + IniConfCompiler.SECTION_ENTRY_SIZE * sectionCount + 4;
+            strings = new String[stringCount];
+            sections = new CompiledIniConf[sectionCount];
+        }
+
+        /**
+         * Decodes a string on first use. Racing threads decode equal strings, so the cache needs no locking.
+         */
+        String string(int index) {
+            String string = strings[index];
+            if (string == null) {
+                int start = buffer.getInt(stringOffsets + 4 * index);
+                byte[] bytes = new byte[buffer.getInt(stringOffsets + 4 * (index + 1)) - start];
+                buffer.get(stringData + start, bytes);
+                string = new String(bytes, StandardCharsets.UTF_8);
+                strings[index] = string;
+            }
+            return string;
+        }
+
+        synchronized CompiledIniConf section(int index) {
+            CompiledIniConf section = sections[index];
+            if (section == null) {
+                section = new CompiledIniConf(this, index);
+                sections[index] = section;
+            }
+            return section;
+        }
+
+        int sectionField(int section, int field) {
+            return buffer.getInt(sectionTable + IniConfCompiler.SECTION_ENTRY_SIZE * section + 4 * field);
+        }
+    }
+
+    /**
+     * The decoded content of a section. Built once and published through a volatile field.
+     */
+    private record Content(Map<String, String> properties, Map<String, Integer> sections) {
+    }
+
+    private final Data data;
+    private final int index;
+    private volatile Content content;
+
+    private CompiledIniConf(Data data, int index) {
+        this.data = data;
+        this.index = index;
+    }
+
+    /**
+     * Returns the root section of a compiled file whose header and checksum have been verified.
+     */
+    static CompiledIniConf root(ByteBuffer buffer) {
+        return new Data(buffer).section(0);
+    }
+
+    private Content content() {
+        Content result = content;
+        if (result == null) {
+            int firstProperty = data.sectionField(index, 1);
+            int propertyCount = data.sectionField(index, 2);
+            int firstChild = data.sectionField(index, 3);
+            int childCount = data.sectionField(index, 4);
+            Map<String, String> properties = new LinkedHashMap<>();
+            for (int property = firstProperty; property < firstProperty + propertyCount; property++) {
+                int position = data.propertyTable + IniConfCompiler.PROPERTY_ENTRY_SIZE * property;
+                String key = data.string(data.buffer.getInt(position));
+                properties.put(key, data.string(data.buffer.getInt(position + 4)));
+            }
+            Map<String, Integer> sections = new LinkedHashMap<>();
+            for (int child = firstChild; child < firstChild + childCount; child++) {
+                sections.put(data.string(data.sectionField(child, 0)), child);
+            }
+            result = new Content(Collections.unmodifiableMap(properties), Collections.unmodifiableMap(sections));
+            content = result;
+        }
+        return result;
+    }
+
+    /**
+     * Checks whether this configuration is empty. This method does not decode the section.
+     * @return {@code true} if this configuration contains no properties and no sections
+     */
+    public boolean isEmpty() {
+        return data.sectionField(index, 2) == 0 && data.sectionField(index, 4) == 0;
+    }
+
+    /**
+     * Returns the value associated with the specified key, or {@code null} if no such value exists.
+     * @param key the key whose associated value is to be returned
+     * @return value associated with the specified key, or {@code null} if no such value exists
+     * @throws NullPointerException if {@code key} is {@code null}
+     */
+    public String get(String key) {
+        if (key == null) {
+            throw new NullPointerException("get(): key cannot be null");
+        }
+        return content().properties().get(IniConf.normalizeIdentifier(key));
+    }
+
+    /**
+     * Returns the value associated with the specified key in the specified subsection, or {@code null} if no such
+     * value exists.
+     * @param subsection path of the subsection containing the key
+     * @param key the key whose associated value is to be returned
+     * @return the value associated with the specified key, or {@code null} if no such value exists
+     * @throws NullPointerException if {@code subsection} or {@code key} is {@code null}
+     * @throws IllegalArgumentException if {@code subsection} is invalid
+     */
+    public String get(String subsection, String key) {
+        if (key == null) {
+            throw new NullPointerException("get(): key cannot be null");
+        }
+        CompiledIniConf section = getSection(subsection);
+        return section == null ? null : section.get(key);
+    }
+
+    /**
+     * Returns the value associated with the specified key, or {@code defaultValue} if no such value exists.
+     * @param key the key whose associated value is to be returned
+     * @param defaultValue the default value to be returned if there is no value associated with the specified key
+     * @return the value associated with the specified key, or {@code defaultValue} if no such value exists
+     * @throws NullPointerException if {@code key} is {@code null}
+     */
+    public String getOrDefault(String key, String defaultValue) {
+        String value = get(key);
+        return value == null ? defaultValue : value;
+    }
+
+    /**
+     * Returns the value associated with the specified key in the specified subsection, or {@code defaultValue} if no
+     * such value exists.
+     * @param subsection path of the subsection containing the key
+     * @param key the key whose associated value is to be returned
+     * @param defaultValue the default value to be returned if there is no value associated with the specified key
+     * @return the value associated with the specified key, or {@code defaultValue} if no such value exists
+     * @throws NullPointerException if {@code subsection} or {@code key} is {@code null}
+     * @throws IllegalArgumentException if {@code subsection} is invalid
+     */
+    public String getOrDefault(String subsection, String key, String defaultValue) {
+        String value = get(subsection, key);
+        return value == null ? defaultValue : value;
+    }
+
+    /**
+     * Checks whether this configuration contains the specified key.
+     * @param key the key to be checked
+     * @return {@code true} if this configuration contains the key, {@code false} otherwise
+     * @throws NullPointerException if {@code key} is {@code null}
+     */
+    public boolean isKey(String key) {
+        return get(key) != null;
+    }
+
+    /**
+     * Checks whether the specified subsection contains the specified key.
+     * @param subsection path of the subsection to be checked
+     * @param key the key to be checked
+     * @return {@code true} if the subsection exists and contains the key, {@code false} otherwise
+     * @throws NullPointerException if {@code subsection} or {@code key} is {@code null}
+     * @throws IllegalArgumentException if {@code subsection} is invalid
+     */
+    public boolean isKey(String subsection, String key) {
+        return get(subsection, key) != null;
+    }
+
+    /**
+     * Checks whether this configuration contains a subsection with the specified name.
+     * @param sectionName section name to be checked
+     * @return {@code true} if the subsection exists, {@code false} otherwise
+     * @throws NullPointerException if {@code sectionName} is {@code null}
+     * @throws IllegalArgumentException if {@code sectionName} is invalid
+     */
+    public boolean isSection(String sectionName) {
+        return getSection(sectionName) != null;
+    }
+
+    /**
+     * Returns the subsection with the specified name, or {@code null} if no such subsection exists. Only the
+     * sections on the path are decoded.
+     * @param name the name of the subsection to be returned
+     * @return the subsection with the specified name, or {@code null} if no such subsection exists
+     * @throws NullPointerException if {@code name} is {@code null}
+     * @throws IllegalArgumentException if {@code name} is invalid
+     */
+    public CompiledIniConf getSection(String name) {
+        CompiledIniConf current = this;
+        for (String component : IniConf.normalizeSectionPath(name)) {
+            Integer child = current.content().sections().get(component);
+            if (child == null) {
+                return null;
+            }
+            current = data.section(child);
+        }
+        return current;
+    }
+
+    /**
+     * Returns an unmodifiable {@link Map} of the properties of this configuration, in the order of the configuration
+     * that was compiled.
+     * @return an unmodifiable Map of the properties
+     */
+    public Map<String, String> getProperties() {
+        return content().properties();
+    }
+
+    /**
+     * Returns an unmodifiable {@link Map} of the subsections of this configuration, in the order of the configuration
+     * that was compiled.
+     * @return an unmodifiable Map of the subsections
+     */
+    public Map<String, CompiledIniConf> getSections() {
+        Map<String, CompiledIniConf> sections = new LinkedHashMap<>();
+        for (Map.Entry<String, Integer> section : content().sections().entrySet()) {
+            sections.put(section.getKey(), data.section(section.getValue()));
+        }
+        return Collections.unmodifiableMap(sections);
+    }
+
+    /**
+     * Returns a mutable copy of this configuration. All sections are decoded.
+     * @return a new IniConf with the same content
+     */
+    public IniConf toIniConf() {
+        IniConf result = new IniConf();
+        Deque<Copy> pending = new ArrayDeque<>();
+        pending.push(new Copy(result, this));
+        while (!pending.isEmpty()) {
+            Copy pair = pending.pop();
+            for (Map.Entry<String, String> property : pair.source().getProperties().entrySet()) {
+                pair.target().putNormalized(property.getKey(), property.getValue());
+            }
+            for (Map.Entry<String, CompiledIniConf> section : pair.source().getSections().entrySet()) {
+                pending.push(new Copy(pair.target().createChild(section.getKey()), section.getValue()));
+            }
+        }
+        return result;
+    }
+
+    private record Copy(IniConf target, CompiledIniConf source) {
+    }
+
+    /**
+     * Returns the INI representation of this configuration. All sections are decoded.
+     * @return a string representation of this configuration
+     */
+    @Override
+    public String toString() {
+        return toIniConf().toString();
+    }
+
+}
@@ -0,0 +1,406 @@
+package net.prsv.iniconf;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.IdentityHashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+
+/**
+ * A thread-safe variant of {@link IniConf} for configurations that are read often and changed rarely.
+ * Every section keeps its properties and subsections in immutable maps that are replaced, not modified, when the
+ * section changes. Reads therefore never lock, and the maps returned by {@link #getProperties()} and
+ * {@link #getSections()} are stable snapshots that can be iterated while other threads write. Writes lock only the
+ * section they change, so writers to different sections do not contend with each other.
+ * Each individual write is atomic, but operations that touch several sections, such as {@link #toIniConf()}, see each
+ * section as of a possibly different moment.
+ * Keys, values, and section paths are validated and normalized in the same way as by {@link IniConf}.
+ */
+public final class ConcurrentIniConf {
+
+    private volatile Map<String, String> properties = Collections.emptyMap();
+    private volatile Map<String, ConcurrentIniConf> subsections = Collections.emptyMap();
+
+    /**
+     * Constructs an empty ConcurrentIniConf object.
+     */
+    public ConcurrentIniConf() {
+    }
+
+    /**
+     * Constructs a ConcurrentIniConf object with the same content as the specified {@link IniConf}. The source is
+     * copied and is not modified.
+     * @param source the configuration to be copied
+     * @throws NullPointerException if {@code source} is {@code null}
+     */
+    public ConcurrentIniConf(IniConf source) {
+        Objects.requireNonNull(source, "source must not be null");
+        copyFrom(source);
+    }
+
+    /**
+     * Parses the input string and creates a new ConcurrentIniConf object.
+     * @param input the {@link String} to be parsed
+     * @throws NullPointerException if {@code input} is {@code null}
+     * @throws IniConfFormatException if the input contains a malformed line, section header, or property value
+     */
+    public ConcurrentIniConf(String input) {
+        this(new IniConf(input));
+    }
+
+    /**
+     * Checks whether this ConcurrentIniConf object is empty.
+     * @return {@code true} if this ConcurrentIniConf contains no properties and no sections
+     */
+    public boolean isEmpty() {
+        return properties.isEmpty() && subsections.isEmpty();
+    }
+
+    /**
+     * Associates the specified value with the specified key in this ConcurrentIniConf. If it previously contained a
+     * mapping for the key, the old value is replaced.
+     * @param key key with which the specified value is to be associated
+     * @param value value to be associated with the specified key; leading and trailing whitespace is removed before
+     *              the value is stored
+     * @return the value previously associated with the specified key, or {@code null} if there was no such value
+     * @throws NullPointerException if {@code key} or {@code value} is {@code null}
+     * @throws IllegalArgumentException if {@code key} is invalid, or if {@code value} contains a line terminator or
+     *                                  the NUL character
+     */
+    public String put(String key, String value) {
+        IniConf.validateKey(key);
+        String normalizedKey = IniConf.normalizeIdentifier(key);
+        String normalizedValue = IniConf.normalizeValue(value);
+        synchronized (this) {
+            Map<String, String> updated = new LinkedHashMap<>(properties);
+            String previous = updated.put(normalizedKey, normalizedValue);
+            properties = Collections.unmodifiableMap(updated);
+            return previous;
+        }
+    }
+
+    /**
+     * Associates the specified value with the specified key in the specified subsection, creating missing
+     * subsections first, as {@link IniConf#put(String, String, String)} does.
+     * @param subsection path of the subsection in which the value is to be associated
+     * @param key key with which the specified value is to be associated
+     * @param value value to be associated with the specified key; leading and trailing whitespace is removed before
+     *              the value is stored
+     * @return the value previously associated with the specified key in the specified subsection, or {@code null} if
+     * there was no such value
+     * @throws NullPointerException if {@code subsection}, {@code key}, or {@code value} is {@code null}
+     * @throws IllegalArgumentException if {@code subsection} or {@code key} is invalid, or if {@code value} contains
+     *                                  a line terminator or the NUL character
+     */
+    public String put(String subsection, String key, String value) {
+        List<String> sectionPath = IniConf.normalizeSectionPath(subsection);
+        return resolveSection(sectionPath, sectionPath.size(), true).put(key, value);
+    }
+
+    /**
+     * Returns the value associated with the specified key, or {@code null} if no such value exists.
+     * @param key the key whose associated value is to be returned
+     * @return value associated with the specified key, or {@code null} if no such value exists
+     * @throws NullPointerException if {@code key} is {@code null}
+     */
+    public String get(String key) {
+        if (key == null) {
+            throw new NullPointerException("get(): key cannot be null");
+        }
+        return properties.get(IniConf.normalizeIdentifier(key));
+    }
+
+    /**
+     * Returns the value associated with the specified key in the specified subsection, or {@code null} if no such
+     * value exists.
+     * @param subsection path of the subsection containing the key
+     * @param key the key whose associated value is to be returned
+     * @return the value associated with the specified key, or {@code null} if no such value exists
+     * @throws NullPointerException if {@code subsection} or {@code key} is {@code null}
+     * @throws IllegalArgumentException if {@code subsection} is invalid
+     */
+    public String get(String subsection, String key) {
+        if (key == null) {
+            throw new NullPointerException("get(): key cannot be null");
+        }
+        ConcurrentIniConf section = getSection(subsection);
+        return section == null ? null : section.get(key);
+    }
+
+    /**
+     * Returns the value associated with the specified key, or {@code defaultValue} if there is no such value.
+     * @param key the key whose associated value is to be returned
+     * @param defaultValue the default value to be returned if there is no value associated with the specified key
+     * @return the value to which the specified key is mapped, or {@code defaultValue} if there is no such value
+     * @throws NullPointerException if {@code key} is {@code null}
+     */
+    public String getOrDefault(String key, String defaultValue) {
+        String value = get(key);
+        return value == null ? defaultValue : value;
+    }
+
+    /**
+     * Returns the value associated with the specified key in the specified section, or {@code defaultValue} if
+     * there is no such value.
+     * @param subsection path of the subsection containing the key
+     * @param key the key whose associated value is to be returned
+     * @param defaultValue the default value to be returned if there is no value associated with the specified key
+     * @return the value to which the specified key in the specified section is mapped, or {@code defaultValue} if
+     * no such value exists
+     * @throws NullPointerException if {@code subsection} or {@code key} is {@code null}
+     * @throws IllegalArgumentException if {@code subsection} is invalid
+     */
+    public String getOrDefault(String subsection, String key, String defaultValue) {
+        String value = get(subsection, key);
+        return value == null ? defaultValue : value;
+    }
+
+    /**
+     * Checks whether this ConcurrentIniConf contains the specified key.
+     * @param key the key to be checked
+     * @return {@code true} if this ConcurrentIniConf contains the specified key, {@code false} otherwise
+     * @throws NullPointerException if {@code key} is {@code null}
+     */
+    public boolean isKey(String key) {
+        return get(key) != null;
+    }
+
+    /**
+     * Checks whether the specified subsection contains the specified key.
+     * @param subsection the subsection to be checked for the specified key
+     * @param key the key to be checked in the specified subsection
+     * @return {@code true} if the specified subsection contains the specified key, {@code false} otherwise
+     * @throws NullPointerException if {@code subsection} or {@code key} is {@code null}
+     * @throws IllegalArgumentException if {@code subsection} is invalid
+     */
+    public boolean isKey(String subsection, String key) {
+        return get(subsection, key) != null;
+    }
+
+    /**
+     * Checks whether this ConcurrentIniConf contains a subsection with the specified path.
+     * @param sectionName section path to be checked
+     * @return {@code true} if this ConcurrentIniConf has a subsection with the specified path, {@code false}
+     * otherwise
+     * @throws NullPointerException if {@code sectionName} is {@code null}
+     * @throws IllegalArgumentException if {@code sectionName} is invalid
+     */
+    public boolean isSection(String sectionName) {
+        return getSection(sectionName) != null;
+    }
+
+    /**
+     * Returns the subsection with the specified path, or {@code null} if no such subsection exists. The returned
+     * section is live: it reflects later writes to it until it is replaced by {@link #addSection}.
+     * @param name the path of the subsection to be returned
+     * @return the subsection with the specified path, or {@code null} if no such subsection exists
+     * @throws NullPointerException if {@code name} is {@code null}
+     * @throws IllegalArgumentException if {@code name} is invalid
+     */
+    public ConcurrentIniConf getSection(String name) {
+        List<String> sectionPath = IniConf.normalizeSectionPath(name);
+        return resolveSection(sectionPath, sectionPath.size(), false);
+    }
+
+    /**
+     * Replaces the subsection with the specified path by a copy of the specified {@link IniConf}, creating missing
+     * parent sections first. The source is copied and is not modified.
+     * @param name the path of the subsection to be added
+     * @param section the configuration to be copied into the subsection
+     * @return the subsection previously associated with the specified path, or {@code null} if there was no such
+     * subsection
+     * @throws NullPointerException if {@code name} or {@code section} is {@code null}
+     * @throws IllegalArgumentException if {@code name} is invalid
+     */
+    public ConcurrentIniConf addSection(String name, IniConf section) {
+        Objects.requireNonNull(section, "section must not be null");
+        List<String> sectionPath = IniConf.normalizeSectionPath(name);
+        ConcurrentIniConf child = new ConcurrentIniConf(section);
+        ConcurrentIniConf parent = resolveSection(sectionPath, sectionPath.size() - 1, true);
+        String childName = sectionPath.get(sectionPath.size() - 1);
+        synchronized (parent) {
+            Map<String, ConcurrentIniConf> updated = new LinkedHashMap<>(parent.subsections);
+            ConcurrentIniConf previous = updated.put(childName, child);
+            parent.subsections = Collections.unmodifiableMap(updated);
+            return previous;
+        }
+    }
+
+    /**
+     * Returns an unmodifiable snapshot of all properties in this ConcurrentIniConf. Later writes are not reflected
+     * in the returned map.
+     * @return an unmodifiable Map of all properties in this ConcurrentIniConf
+     */
+    public Map<String, String> getProperties() {
+        return properties;
+    }
+
+    /**
+     * Returns an unmodifiable snapshot of all subsections in this ConcurrentIniConf. Sections added later are not
+     * reflected in the returned map.
+     * @return an unmodifiable Map of all subsections in this ConcurrentIniConf
+     */
+    public Map<String, ConcurrentIniConf> getSections() {
+        return subsections;
+    }
+
+    /**
+     * Returns a new mutable {@link IniConf} with the current content of this ConcurrentIniConf.
+     * @return a mutable copy of this ConcurrentIniConf
+     */
+    public IniConf toIniConf() {
+        IniConf result = new IniConf();
+        Deque<Map.Entry<IniConf, ConcurrentIniConf>> pending = new ArrayDeque<>();
+        pending.push(Map.entry(result, this));
+        while (!pending.isEmpty()) {
+            Map.Entry<IniConf, ConcurrentIniConf> pair = pending.pop();
+            IniConf target = pair.getKey();
+            for (Map.Entry<String, String> property : pair.getValue().properties.entrySet()) {
+                target.putNormalized(property.getKey(), property.getValue());
+            }
+            for (Map.Entry<String, ConcurrentIniConf> entry : pair.getValue().subsections.entrySet()) {
+                pending.push(Map.entry(target.createChild(entry.getKey()), entry.getValue()));
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Returns an immutable snapshot of the current content of this ConcurrentIniConf.
+     * @return an immutable snapshot of this ConcurrentIniConf
+     */
+    public FrozenIniConf freeze() {
+        return toIniConf().freeze();
+    }
+
+    /**
+     * Returns the INI representation of the current content, as {@link IniConf#toString()} does.
+     * @return a string representation of this ConcurrentIniConf
+     */
+    @Override
+    public String toString() {
+        return toIniConf().toString();
+    }
+
+    /**
+     * Compares this ConcurrentIniConf with another one by content. Like {@link #toIniConf()}, the comparison sees
+     * each section as of a possibly different moment if other threads write concurrently.
+     * @param other the object to be compared
+     * @return {@code true} if {@code other} is a ConcurrentIniConf with the same properties and sections
+     */
+    @Override
+    public boolean equals(Object other) {
+        if (this == other) {
+            return true;
+        }
+        if (!(other instanceof ConcurrentIniConf otherConf)) {
+            return false;
+        }
+        Deque<ConcurrentIniConf> pending = new ArrayDeque<>();
+        pending.push(this);
+        pending.push(otherConf);
+        while (!pending.isEmpty()) {
+            ConcurrentIniConf right = pending.pop();
+            ConcurrentIniConf left = pending.pop();
+            if (left == right) {
+                continue;
+            }
+            Map<String, ConcurrentIniConf> leftSections = left.subsections;
+            Map<String, ConcurrentIniConf> rightSections = right.subsections;
+            if (!left.properties.equals(right.properties) || leftSections.size() != rightSections.size()) {
+                return false;
+            }
+            for (Map.Entry<String, ConcurrentIniConf> section : leftSections.entrySet()) {
+                ConcurrentIniConf rightChild = rightSections.get(section.getKey());
+                if (rightChild == null) {
+                    return false;
+                }
+                pending.push(section.getValue());
+                pending.push(rightChild);
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Returns a hash code computed from the current content, consistent with {@link #equals(Object)}.
+     * @return the hash code of this ConcurrentIniConf
+     */
+    @Override
+    public int hashCode() {
+        // sections are visited before their subsections, so the reversed visiting order hashes children first
+        List<Map.Entry<ConcurrentIniConf, Map<String, ConcurrentIniConf>>> visited = new ArrayList<>();
+        Deque<ConcurrentIniConf> pending = new ArrayDeque<>();
+        pending.push(this);
+        while (!pending.isEmpty()) {
+            ConcurrentIniConf current = pending.pop();
+            Map<String, ConcurrentIniConf> sections = current.subsections;
+            visited.add(Map.entry(current, sections));
+            for (ConcurrentIniConf section : sections.values()) {
+                pending.push(section);
+            }
+        }
+        Map<ConcurrentIniConf, Integer> hashes = new IdentityHashMap<>();
+        for (int index = visited.size() - 1; index >= 0; index--) {
+            ConcurrentIniConf current = visited.get(index).getKey();
+            int result = current.properties.hashCode();
+            for (Map.Entry<String, ConcurrentIniConf> section : visited.get(index).getValue().entrySet()) {
+                result += section.getKey().hashCode() ^ hashes.get(section.getValue());
+            }
+            hashes.put(current, result);
+        }
+        return hashes.get(this);
+    }
+
+    private ConcurrentIniConf resolveSection(List<String> path, int componentCount, boolean create) {
+        ConcurrentIniConf current = this;
+        for (int index = 0; index < componentCount; index++) {
+            String name = path.get(index);
+            ConcurrentIniConf child = current.subsections.get(name);
+            if (child == null) {
+                if (!create) {
+                    return null;
+                }
+                child = current.getOrCreateChild(name);
+            }
+            current = child;
+        }
+        return current;
+    }
+
+    private synchronized ConcurrentIniConf getOrCreateChild(String name) {
+        ConcurrentIniConf child = subsections.get(name);
+        if (child == null) {
+            child = new ConcurrentIniConf();
+            Map<String, ConcurrentIniConf> updated = new LinkedHashMap<>(subsections);
+            updated.put(name, child);
+            subsections = Collections.unmodifiableMap(updated);
+        }
+        return child;
+    }
+
+    /**
+     * Copies the content of {@code source} into this section before it is published to other threads.
+     */
+    private void copyFrom(IniConf source) {
+        Deque<Map.Entry<ConcurrentIniConf, IniConf>> pending = new ArrayDeque<>();
+        pending.push(Map.entry(this, source));
+        while (!pending.isEmpty()) {
+            Map.Entry<ConcurrentIniConf, IniConf> pair = pending.pop();
+            ConcurrentIniConf target = pair.getKey();
+            IniConf donor = pair.getValue();
+            target.properties = Collections.unmodifiableMap(new LinkedHashMap<>(donor.getProperties()));
+            Map<String, ConcurrentIniConf> children = new LinkedHashMap<>();
+            for (Map.Entry<String, IniConf> entry : donor.getSections().entrySet()) {
+                ConcurrentIniConf child = new ConcurrentIniConf();
+                children.put(entry.getKey(), child);
+                pending.push(Map.entry(child, entry.getValue()));
+            }
+            target.subsections = Collections.unmodifiableMap(children);
+        }
+    }
+}
@@ -0,0 +1,360 @@
+package net.prsv.iniconf;
+
+import java.util.AbstractMap;
+import java.util.AbstractSet;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.Iterator;
+import java.util.Locale;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Set;
+
+/**
+ * A deeply immutable snapshot of an {@link IniConf}, created by {@link IniConf#freeze()}.
+ * Keys, values, and subsections are stored in flat arrays in insertion order and indexed by open-addressed hash
+ * tables, which keeps lookups cache-friendly and avoids the per-entry nodes of a {@link java.util.LinkedHashMap}.
+ * All fields are final and never change after construction, so a snapshot can be shared between threads without
+ * synchronization. The hash code is computed once, when the snapshot is created.
+ * Keys and section paths are normalized in the same way as by {@link IniConf}.
+ */
+public final class FrozenIniConf {
+
+    private final ArrayMap<String> properties;
+    private final ArrayMap<FrozenIniConf> subsections;
+    private final int hash;
+
+    FrozenIniConf(String[] keys, String[] values, String[] sectionNames, FrozenIniConf[] sections) {
+        this.properties = new ArrayMap<>(keys, values);
+        this.subsections = new ArrayMap<>(sectionNames, sections);
+        int result = properties.hashCode();
+        for (int index = 0; index < sections.length; index++) {
+            result += sectionNames[index].hashCode() + sections[index].hash;
+        }
+        this.hash = result;
+    }
+
+    /**
+     * Checks whether this snapshot is empty.
+     * @return {@code true} if this snapshot contains no properties and no sections
+     */
+    public boolean isEmpty() {
+        return properties.isEmpty() && subsections.isEmpty();
+    }
+
+    /**
+     * Returns the value associated with the specified key, or {@code null} if no such value exists.
+     * @param key the key whose associated value is to be returned
+     * @return value associated with the specified key, or {@code null} if no such value exists
+     * @throws NullPointerException if {@code key} is {@code null}
+     */
+    public String get(String key) {
+        if (key == null) {
+            throw new NullPointerException("get(): key cannot be null");
+        }
+        return properties.getIgnoreCase(key, 0, key.length());
+    }
+
+    /**
+     * Returns the value associated with the specified key in the specified subsection, or {@code null} if no such
+     * value exists.
+     * @param subsection path of the subsection containing the key
+     * @param key the key whose associated value is to be returned
+     * @return the value associated with the specified key, or {@code null} if no such value exists
+     * @throws NullPointerException if {@code subsection} or {@code key} is {@code null}
+     * @throws IllegalArgumentException if {@code subsection} is invalid
+     */
+    public String get(String subsection, String key) {
+        if (key == null) {
+            throw new NullPointerException("get(): key cannot be null");
+        }
+        FrozenIniConf section = getSection(subsection);
+        return section == null ? null : section.get(key);
+    }
+
+    /**
+     * Returns the value associated with the specified key, or {@code defaultValue} if there is no such value.
+     * @param key the key whose associated value is to be returned
+     * @param defaultValue the default value to be returned if there is no value associated with the specified key
+     * @return the value to which the specified key is mapped, or {@code defaultValue} if there is no such value
+     * @throws NullPointerException if {@code key} is {@code null}
+     */
+    public String getOrDefault(String key, String defaultValue) {
+        String value = get(key);
+        return value == null ? defaultValue : value;
+    }
+
+    /**
+     * Returns the value associated with the specified key in the specified section, or {@code defaultValue} if
+     * there is no such value.
+     * @param subsection path of the subsection containing the key
+     * @param key the key whose associated value is to be returned
+     * @param defaultValue the default value to be returned if there is no value associated with the specified key
+     * @return the value to which the specified key in the specified section is mapped, or {@code defaultValue} if
+     * no such value exists
+     * @throws NullPointerException if {@code subsection} or {@code key} is {@code null}
+     * @throws IllegalArgumentException if {@code subsection} is invalid
+     */
+    public String getOrDefault(String subsection, String key, String defaultValue) {
+        String value = get(subsection, key);
+        return value == null ? defaultValue : value;
+    }
+
+    /**
+     * Checks whether this snapshot contains the specified key.
+     * @param key the key to be checked
+     * @return {@code true} if this snapshot contains the specified key, {@code false} otherwise
+     * @throws NullPointerException if {@code key} is {@code null}
+     */
+    public boolean isKey(String key) {
+        return get(key) != null;
+    }
+
+    /**
+     * Checks whether the specified subsection contains the specified key.
+     * @param subsection the subsection to be checked for the specified key
+     * @param key the key to be checked in the specified subsection
+     * @return {@code true} if the specified subsection contains the specified key, {@code false} otherwise
+     * @throws NullPointerException if {@code subsection} or {@code key} is {@code null}
+     * @throws IllegalArgumentException if {@code subsection} is invalid
+     */
+    public boolean isKey(String subsection, String key) {
+        return get(subsection, key) != null;
+    }
+
+    /**
+     * Checks whether this snapshot contains a subsection with the specified path.
+     * @param sectionName section path to be checked
+     * @return {@code true} if this snapshot has a subsection with the specified path, {@code false} otherwise
+     * @throws NullPointerException if {@code sectionName} is {@code null}
+     * @throws IllegalArgumentException if {@code sectionName} is invalid
+     */
+    public boolean isSection(String sectionName) {
+        return getSection(sectionName) != null;
+    }
+
+    /**
+     * Returns the subsection with the specified path, or {@code null} if no such subsection exists.
+     * @param name the path of the subsection to be returned
+     * @return the subsection with the specified path, or {@code null} if no such subsection exists
+     * @throws NullPointerException if {@code name} is {@code null}
+     * @throws IllegalArgumentException if {@code name} is invalid
+     */
+    public FrozenIniConf getSection(String name) {
+        IniConf.validateSectionPath(name);
+        FrozenIniConf current = this;
+        for (int start = 0; start <= name.length() && current != null; ) {
+            int end = name.indexOf('.', start);
+            if (end < 0) {
+                end = name.length();
+            }
+            current = current.subsections.getIgnoreCase(name, start, end);
+            start = end + 1;
+        }
+        return current;
+    }
+
+    /**
+     * Returns an immutable {@link Map} of all properties in this snapshot, in insertion order.
+     * @return an immutable Map of all properties in this snapshot
+     */
+    public Map<String, String> getProperties() {
+        return properties;
+    }
+
+    /**
+     * Returns an immutable {@link Map} of all subsections in this snapshot, in insertion order.
+     * @return an immutable Map of all subsections in this snapshot
+     */
+    public Map<String, FrozenIniConf> getSections() {
+        return subsections;
+    }
+
+    /**
+     * Returns a new mutable {@link IniConf} with the same content as this snapshot.
+     * @return a mutable copy of this snapshot
+     */
+    public IniConf toIniConf() {
+        IniConf result = new IniConf();
+        result.putAllFrozen(this);
+        return result;
+    }
+
+    /**
+     * Returns the INI representation of this snapshot, as {@link IniConf#toString()} does.
+     * @return a string representation of this snapshot
+     */
+    @Override
+    public String toString() {
+        return toIniConf().toString();
+    }
+
+    @Override
+    public boolean equals(Object other) {
+        if (this == other) {
+            return true;
+        }
+        if (!(other instanceof FrozenIniConf otherConf)) {
+            return false;
+        }
+        Deque<FrozenIniConf> pending = new ArrayDeque<>();
+        pending.push(this);
+        pending.push(otherConf);
+        while (!pending.isEmpty()) {
+            FrozenIniConf right = pending.pop();
+            FrozenIniConf left = pending.pop();
+            if (left == right) {
+                continue;
+            }
+            if (left.hash != right.hash || !left.properties.equals(right.properties)
+                    || left.subsections.size() != right.subsections.size()) {
+                return false;
+            }
+            for (int index = 0; index < left.subsections.keys.length; index++) {
+                FrozenIniConf rightChild = right.subsections.get(left.subsections.keys[index]);
+                if (rightChild == null) {
+                    return false;
+                }
+                pending.push(left.subsections.values[index]);
+                pending.push(rightChild);
+            }
+        }
+        return true;
+    }
+
+    @Override
+    public int hashCode() {
+        return hash;
+    }
+
+    /**
+     * An immutable insertion-ordered map backed by parallel key and value arrays and an open-addressed index.
+     */
+    private static final class ArrayMap<V> extends AbstractMap<String, V> {
+
+        private final String[] keys;
+        private final V[] values;
+        /** Slots hold one plus the index of the entry, or zero if they are empty. */
+        private final int[] table;
+        private final int hash;
+
+        ArrayMap(String[] keys, V[] values) {
+            this.keys = keys;
+            this.values = values;
+            int capacity = Integer.highestOneBit(Math.max(2, keys.length * 2) - 1) << 1;
+            this.table = new int[capacity];
+            int mask = capacity - 1;
+            int result = 0;
+            for (int index = 0; index < keys.length; index++) {
+                int slot = spread(keys[index].hashCode()) & mask;
+                while (table[slot] != 0) {
+                    slot = (slot + 1) & mask;
+                }
+                table[slot] = index + 1;
+                result += keys[index].hashCode() ^ values[index].hashCode();
+            }
+            this.hash = result;
+        }
+
+        private static int spread(int hash) {
+            return hash ^ (hash >>> 16);
+        }
+
+        private int indexOf(Object key) {
+            if (!(key instanceof String)) {
+                return -1;
+            }
+            int mask = table.length - 1;
+            int slot = spread(key.hashCode()) & mask;
+            int entry;
+            while ((entry = table[slot]) != 0) {
+                if (keys[entry - 1].equals(key)) {
+                    return entry - 1;
+                }
+                slot = (slot + 1) & mask;
+            }
+            return -1;
+        }
+
+        @Override
+        public V get(Object key) {
+            int index = indexOf(key);
+            return index < 0 ? null : values[index];
+        }
+
+        /**
+         * Returns the value whose key equals the region of {@code key} between {@code start} and {@code end}
+         * converted to lowercase with {@link Locale#ROOT}, or {@code null}. Regions consisting of ASCII characters
+         * are looked up without allocating, as by {@link IniConfKeyTable#findIgnoreCase(String, int, int)}.
+         */
+        V getIgnoreCase(String key, int start, int end) {
+            int hash = 0;
+            for (int position = start; position < end; position++) {
+                char c = key.charAt(position);
+                if (c >= 0x80) {
+                    return get(key.substring(start, end).toLowerCase(Locale.ROOT));
+                }
+                hash = 31 * hash + IniConfKeyTable.toLowerCase(c);
+            }
+            int mask = table.length - 1;
+            int entry;
+            for (int slot = spread(hash) & mask; (entry = table[slot]) != 0; slot = (slot + 1) & mask) {
+                if (IniConfKeyTable.regionEqualsIgnoreCase(keys[entry - 1], key, start, end)) {
+                    return values[entry - 1];
+                }
+            }
+            return null;
+        }
+
+        @Override
+        public boolean containsKey(Object key) {
+            return indexOf(key) >= 0;
+        }
+
+        @Override
+        public int size() {
+            return keys.length;
+        }
+
+        @Override
+        public boolean isEmpty() {
+            return keys.length == 0;
+        }
+
+        @Override
+        public int hashCode() {
+            return hash;
+        }
+
+        @Override
+        public Set<Entry<String, V>> entrySet() {
+            return new AbstractSet<>() {
+                @Override
+                public Iterator<Entry<String, V>> iterator() {
+                    return new Iterator<>() {
+                        private int next;
+
+                        @Override
+                        public boolean hasNext() {
+                            return next < keys.length;
+                        }
+
+                        @Override
+                        public Entry<String, V> next() {
+                            if (next >= keys.length) {
+                                throw new NoSuchElementException();
+                            }
+                            int index = next++;
+                            return new SimpleImmutableEntry<>(keys[index], values[index]);
+                        }
+                    };
+                }
+
+                @Override
+                public int size() {
+                    return keys.length;
+                }
+            };
+        }
+    }
+}
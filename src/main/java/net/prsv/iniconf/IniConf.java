@@ -1,16 +1,23 @@
 package net.prsv.iniconf;
 
+import java.time.Duration;
+import java.util.AbstractMap;
+import java.util.AbstractSet;
 import java.util.ArrayDeque;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collections;
 import java.util.Deque;
 import java.util.IdentityHashMap;
+import java.util.Iterator;
 import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Locale;
 import java.util.Map;
 import java.util.Objects;
 import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Consumer;
 import java.util.regex.Pattern;
 
 /**
@@ -42,20 +49,47 @@ public final class IniConf {
 
     }
 
-    private enum MissingSectionPolicy {
-        RETURN_NULL,
-        CREATE
+    /** A section containing another section, and the normalized name of the contained section in it. */
+    private record Link(IniConf parent, String name) {
     }
 
-    private final Map<String, String> properties;
-    private final Map<String, IniConf> subsections;
+    private static final Link[] NO_OWNERS = new Link[0];
+
+    /** Values are {@link String}s, or {@link IniConfLazyValue}s for values parsed lazily. */
+    private final IniConfKeyTable<Object> properties;
+    private final IniConfKeyTable<IniConf> subsections;
+    /**
+     * The sections containing this section. Usually there is at most one, but a section may be added to several
+     * configurations, and all of them must see its changes.
+     */
+    private Link[] owners = NO_OWNERS;
+    /** Maps qualified keys of the whole subtree to their values; built on demand and discarded when stale. */
+    private Map<String, String> flatIndex;
+    /** Deduplicates stored keys, values, and section names, or {@code null} if strings are stored as they are. */
+    private IniConfStringPool pool;
+    /**
+     * The cached hash code of the subtree rooted at this section, or {@code 0} if it has not been computed. Reset on
+     * every modification of this section and of all sections containing it. A single field, like
+     * {@link String#hashCode()}, so that threads sharing an unmodified configuration see either no cached hash or
+     * the correct one. Subtrees whose hash code is {@code 0} are recomputed on every call.
+     */
+    private int subtreeHash;
+    /** Incremented whenever this section or one of its subsections is modified. */
+    private int modificationCount;
+    /**
+     * The typed values parsed by typed getters, by normalized key, or {@code null} before the first typed read.
+     * Typed reads add to this map instead of replacing property slots, so threads that share a configuration only
+     * for reading can use typed getters concurrently. Threads racing to create the map may each install one; entries
+     * in the losing map are simply parsed again.
+     */
+    private volatile Map<String, IniConfValue> typedValues;
 
     /**
      * Constructs an empty IniConf object.
      */
     public IniConf() {
-        properties = new LinkedHashMap<>();
-        subsections = new LinkedHashMap<>();
+        properties = new IniConfKeyTable<>();
+        subsections = new IniConfKeyTable<>();
     }
 
     /**
@@ -69,6 +103,212 @@ public final class IniConf {
         IniConfParser.parseInto(input, this);
     }
 
+    /**
+     * Constructs an empty IniConf object that deduplicates its keys, values, and section names through the specified
+     * pool. Sections created in this IniConf, including sections created while parsing, use the same pool.
+     * @param pool the string pool to be used
+     * @throws NullPointerException if {@code pool} is {@code null}
+     */
+    public IniConf(IniConfStringPool pool) {
+        this();
+        this.pool = Objects.requireNonNull(pool, "pool must not be null");
+    }
+
+    /**
+     * Parses the input string and creates a new IniConf object that deduplicates its keys, values, and section names
+     * through the specified pool.
+     * @param input the {@link String} to be parsed
+     * @param pool the string pool to be used
+     * @throws NullPointerException if {@code input} or {@code pool} is {@code null}
+     * @throws IniConfFormatException if the input contains a malformed line, section header, or property value
+     */
+    public IniConf(String input, IniConfStringPool pool) {
+        this(pool);
+        IniConfParser.parseInto(input, this);
+    }
+
+    /**
+     * Assembles an IniConf from many properties and sections. Keys, values, and section paths are validated and
+     * normalized as by {@link IniConf#put(String, String, String)}, but with a single pass over their characters,
+     * and the tree is not observable until {@link #build()} returns it, so no per-entry bookkeeping for caches is
+     * needed. {@code putAll} makes room for all properties of a map at once. The last value put for a key wins.
+     * A builder is not thread-safe.
+     */
+    public static final class Builder {
+
+        private IniConf root = new IniConf();
+        /** The path of the section most recently put into, so that runs of puts resolve it only once. */
+        private String lastPath;
+        private IniConf lastSection;
+
+        /**
+         * Creates an empty builder.
+         */
+        public Builder() {
+        }
+
+        /**
+         * Adds a root property.
+         * @param key the key of the property
+         * @param value the value of the property; leading and trailing whitespace is removed
+         * @return this builder
+         * @throws NullPointerException if {@code key} or {@code value} is {@code null}
+         * @throws IllegalArgumentException if {@code key} is invalid, or if {@code value} contains a line terminator
+         * or the NUL character
+         */
+        public Builder put(String key, String value) {
+            add(root, key, value);
+            return this;
+        }
+
+        /**
+         * Adds a property to the specified section, creating the section and its parents if necessary.
+         * @param section path of the section containing the property
+         * @param key the key of the property
+         * @param value the value of the property; leading and trailing whitespace is removed
+         * @return this builder
+         * @throws NullPointerException if {@code section}, {@code key}, or {@code value} is {@code null}
+         * @throws IllegalArgumentException if {@code section} or {@code key} is invalid, or if {@code value}
+         * contains a line terminator or the NUL character
+         */
+        public Builder put(String section, String key, String value) {
+            add(section(section), key, value);
+            return this;
+        }
+
+        /**
+         * Adds all entries of the specified map as root properties, in the iteration order of the map.
+         * @param properties the properties to be added
+         * @return this builder
+         * @throws NullPointerException if {@code properties} or any of its keys or values is {@code null}
+         * @throws IllegalArgumentException if any key is invalid, or if any value contains a line terminator or the
+         * NUL character
+         */
+        public Builder putAll(Map<String, String> properties) {
+            addAll(root, properties);
+            return this;
+        }
+
+        /**
+         * Adds all entries of the specified map as properties of the specified section, in the iteration order of
+         * the map, creating the section and its parents if necessary.
+         * @param section path of the section containing the properties
+         * @param properties the properties to be added
+         * @return this builder
+         * @throws NullPointerException if {@code section}, {@code properties}, or any of its keys or values is
+         * {@code null}
+         * @throws IllegalArgumentException if {@code section} or any key is invalid, or if any value contains a line
+         * terminator or the NUL character
+         */
+        public Builder putAll(String section, Map<String, String> properties) {
+            addAll(section(section), properties);
+            return this;
+        }
+
+        /**
+         * Adds the specified section and its parents if they do not exist yet.
+         * @param section path of the section
+         * @return this builder
+         * @throws NullPointerException if {@code section} is {@code null}
+         * @throws IllegalArgumentException if {@code section} is invalid
+         */
+        public Builder addSection(String section) {
+            section(section);
+            return this;
+        }
+
+        /**
+         * Returns the assembled IniConf and resets this builder, which can then assemble another one.
+         * @return the assembled IniConf
+         */
+        public IniConf build() {
+            IniConf result = root;
+            root = new IniConf();
+            lastPath = null;
+            lastSection = null;
+            return result;
+        }
+
+        private IniConf section(String path) {
+            if (!path.equals(lastPath)) {
+                lastSection = root.getOrCreateSection(path);
+                lastPath = path;
+            }
+            return lastSection;
+        }
+
+        private static void addAll(IniConf section, Map<String, String> properties) {
+            section.properties.ensureCapacity(properties.size());
+            for (Map.Entry<String, String> property : properties.entrySet()) {
+                add(section, property.getKey(), property.getValue());
+            }
+        }
+
+        private static void add(IniConf section, String key, String value) {
+            validateKey(key);
+            section.properties.put(normalizeIdentifier(key), normalizeValue(value));
+        }
+    }
+
+    /**
+     * Returns a precompiled handle for the specified section path. The path is validated and normalized once, which
+     * makes repeated lookups through the handle cheaper than lookups by string.
+     * @param path the dotted section path
+     * @return a handle for the specified section path
+     * @throws NullPointerException if {@code path} is {@code null}
+     * @throws IllegalArgumentException if {@code path} is invalid
+     */
+    public static IniConfPath path(String path) {
+        return IniConfPath.of(path);
+    }
+
+    /**
+     * Returns a precompiled handle for the specified root property key.
+     * @param key the key
+     * @return a handle for the specified root key
+     * @throws NullPointerException if {@code key} is {@code null}
+     * @throws IllegalArgumentException if {@code key} is invalid
+     */
+    public static IniConfKey key(String key) {
+        return IniConfPath.root().key(key);
+    }
+
+    /**
+     * Parses the input string without decoding property values, and returns the resulting IniConf. Each value is
+     * kept as a reference into {@code input} and decoded the first time it is read, which saves time and memory when
+     * only a few of many values are used. The input string is kept in memory for as long as the IniConf is.
+     * Malformed values are reported when they are read: {@link #get(String)}, and every other method that reads the
+     * value, then throws {@link IniConfFormatException} with the line number of the value. This includes methods
+     * that read all values, such as {@link #toString()}, {@link #getFlatProperties()}, and {@link IniConfWriter}.
+     * Replacing a malformed value with {@link #put(String, String)} succeeds and returns its encoded text, and
+     * {@link #equals(Object)} and {@link #hashCode()} compare and hash malformed values by their encoded text.
+     * @param input the {@link String} to be parsed
+     * @return the resulting IniConf
+     * @throws NullPointerException if {@code input} is {@code null}
+     * @throws IniConfFormatException if the input contains a malformed line or section header
+     */
+    public static IniConf parseLazily(String input) {
+        return parseLazily(input, false);
+    }
+
+    /**
+     * Parses the input string without decoding property values, as {@link #parseLazily(String)} does. If
+     * {@code validate} is {@code true}, values are checked while parsing, without being decoded, so that malformed
+     * values are reported by this method rather than when they are read.
+     * @param input the {@link String} to be parsed
+     * @param validate whether property values are validated while parsing
+     * @return the resulting IniConf
+     * @throws NullPointerException if {@code input} is {@code null}
+     * @throws IniConfFormatException if the input contains a malformed line or section header, or, if
+     * {@code validate} is {@code true}, a malformed property value
+     */
+    public static IniConf parseLazily(String input, boolean validate) {
+        Objects.requireNonNull(input, "input must not be null");
+        IniConf result = new IniConf();
+        IniConfParser.parseLazilyInto(input, result, validate);
+        return result;
+    }
+
     /**
      * Checks whether this IniConf object is empty.
      * @return {@code true} if this IniConf contains no properties and no sections
@@ -89,8 +329,9 @@ public final class IniConf {
      *                                  the NUL character
      */
     public String put(String key, String value) {
-        validateAgainstPattern(IniConfPatterns.KEY_PATTERN, key);
-        return properties.put(normalizeIdentifier(key), normalizeValue(value));
+        validateKey(key);
+        Map.Entry<String, Object> existing = properties.findIgnoreCase(key);
+        return putNormalized(existing == null ? normalizeIdentifier(key) : existing.getKey(), normalizeValue(value));
     }
 
     /**
@@ -113,42 +354,110 @@ public final class IniConf {
         return getOrCreateSection(subsection).put(key, value);
     }
 
-    private static void validateAgainstPattern(Pattern pattern, String str) {
+    static void validateAgainstPattern(Pattern pattern, String str) {
         if (!pattern.matcher(str).matches()) {
             throw new IllegalArgumentException(String.format("String '%s' does not match the provided pattern: '%s'", str, pattern.toString()));
         }
     }
 
-    private static String normalizeValue(String value) {
+    /**
+     * Checks a key against {@link IniConfPatterns#KEY_PATTERN} with a character table, falling back to the pattern
+     * only to report an invalid key.
+     */
+    static void validateKey(String key) {
+        if (!IniConfPatterns.isKey(key)) {
+            validateAgainstPattern(IniConfPatterns.KEY_PATTERN, key);
+        }
+    }
+
+    /**
+     * Checks a section path against {@link IniConfPatterns#SECTION_NAME_PATTERN} with a character table, falling
+     * back to the pattern only to report an invalid path.
+     */
+    static void validateSectionPath(String path) {
+        int start = 0;
+        for (int position = 0; position <= path.length(); position++) {
+            if (position == path.length() || path.charAt(position) == '.') {
+                if (position == start) {
+                    validateAgainstPattern(IniConfPatterns.SECTION_NAME_PATTERN, path);
+                }
+                start = position + 1;
+            } else if (!IniConfPatterns.isWordCharacter(path.charAt(position))) {
+                validateAgainstPattern(IniConfPatterns.SECTION_NAME_PATTERN, path);
+            }
+        }
+    }
+
+    static String normalizeValue(String value) {
         Objects.requireNonNull(value, "value must not be null");
-        if (IniConfPatterns.LINE_TERMINATOR_PATTERN.matcher(value).find()) {
-            throw new IllegalArgumentException("value must not contain line terminators");
+        boolean containsNul = false;
+        for (int index = 0; index < value.length(); index++) {
+            char c = value.charAt(index);
+            if (IniConfParser.isLineTerminator(c)) {
+                throw new IllegalArgumentException("value must not contain line terminators");
+            }
+            containsNul |= c == '\0';
         }
-        if (value.indexOf('\0') >= 0) {
+        if (containsNul) {
             throw new IllegalArgumentException("value must not contain the NUL character");
         }
         return value.strip();
     }
 
-    private static String normalizeIdentifier(String identifier) {
+    static String normalizeIdentifier(String identifier) {
         return identifier.toLowerCase(Locale.ROOT);
     }
 
-    private static List<String> normalizeSectionPath(String path) {
-        validateAgainstPattern(IniConfPatterns.SECTION_NAME_PATTERN, path);
+    static List<String> normalizeSectionPath(String path) {
+        validateSectionPath(path);
         return List.of(IniConfPatterns.SECTION_PATH_SEPARATOR_PATTERN.split(normalizeIdentifier(path)));
     }
 
-    private IniConf resolveSection(List<String> path, int componentCount, MissingSectionPolicy policy) {
+    /**
+     * Returns the section at the specified path, or {@code null} if it does not exist and {@code create} is
+     * {@code false}. The whole path is validated before any section is created, and its components are looked up in
+     * place, so that querying an existing or a missing section does not allocate.
+     */
+    private IniConf findSection(String path, boolean create) {
+        validateSectionPath(path);
+        IniConf current = this;
+        for (int start = 0; start <= path.length(); ) {
+            int end = path.indexOf('.', start);
+            if (end < 0) {
+                end = path.length();
+            }
+            Map.Entry<String, IniConf> child = current.subsections.findIgnoreCase(path, start, end);
+            if (child != null) {
+                current = child.getValue();
+            } else if (create) {
+                current = current.createChild(normalizeIdentifier(path.substring(start, end)));
+            } else {
+                return null;
+            }
+            start = end + 1;
+        }
+        return current;
+    }
+
+    /**
+     * Returns the value slot of the specified key, or {@code null} if there is no such key.
+     */
+    private Object slot(String key) {
+        Map.Entry<String, Object> entry = properties.findIgnoreCase(key);
+        return entry == null ? null : entry.getValue();
+    }
+
+    /**
+     * Returns the section at the first {@code componentCount} components of a normalized path, creating missing
+     * sections.
+     */
+    private IniConf resolveSection(List<String> path, int componentCount) {
         IniConf current = this;
         for (int index = 0; index < componentCount; index++) {
             String name = path.get(index);
             IniConf child = current.getChild(name);
             if (child == null) {
-                if (policy == MissingSectionPolicy.RETURN_NULL) {
-                    return null;
-                }
-                child = new IniConf();
+                child = current.newChild();
                 current.addChild(name, child);
             }
             current = child;
@@ -157,8 +466,7 @@ public final class IniConf {
     }
 
     IniConf getOrCreateSection(String path) {
-        List<String> sectionPath = normalizeSectionPath(path);
-        return resolveSection(sectionPath, sectionPath.size(), MissingSectionPolicy.CREATE);
+        return findSection(path, true);
     }
 
     /**
@@ -171,7 +479,9 @@ public final class IniConf {
         if (key == null) {
             throw new NullPointerException("get(): key cannot be null");
         }
-        return properties.get(normalizeIdentifier(key));
+        Object slot = slot(key);
+        IniConfInstrumentation.lookup(slot);
+        return text(slot);
     }
 
     /**
@@ -187,9 +497,10 @@ public final class IniConf {
         if (key == null) {
             throw new NullPointerException("get(): key cannot be null");
         }
-        List<String> sectionPath = normalizeSectionPath(subsection);
-        IniConf section = resolveSection(sectionPath, sectionPath.size(), MissingSectionPolicy.RETURN_NULL);
-        return section == null ? null : section.get(key);
+        IniConf section = findSection(subsection, false);
+        String value = section == null ? null : text(section.slot(key));
+        IniConfInstrumentation.lookup(value);
+        return value;
     }
 
     /**
@@ -201,7 +512,9 @@ public final class IniConf {
      * @throws NullPointerException if {@code key} is {@code null}
      */
     public String getOrDefault(String key, String defaultValue) {
-        return properties.getOrDefault(normalizeIdentifier(key), defaultValue);
+        Object slot = slot(key);
+        IniConfInstrumentation.lookup(slot);
+        return slot == null ? defaultValue : text(slot);
     }
 
     /**
@@ -219,9 +532,236 @@ public final class IniConf {
         if (key == null) {
             throw new NullPointerException("getOrDefault(): key cannot be null");
         }
-        List<String> sectionPath = normalizeSectionPath(subsection);
-        IniConf section = resolveSection(sectionPath, sectionPath.size(), MissingSectionPolicy.RETURN_NULL);
-        return section == null ? defaultValue : section.getOrDefault(key, defaultValue);
+        IniConf section = findSection(subsection, false);
+        String value = section == null ? null : text(section.slot(key));
+        IniConfInstrumentation.lookup(value);
+        return value == null ? defaultValue : value;
+    }
+
+    /**
+     * Returns the value associated with the specified key parsed as an {@code int}, or {@code defaultValue} if there is
+     * no such value. The parsed value is cached until a new value is stored for the key.
+     * @param key the key whose associated value is to be returned
+     * @param defaultValue the value to be returned if there is no value associated with the specified key
+     * @return the parsed value, or {@code defaultValue} if there is no such value
+     * @throws NullPointerException if {@code key} is {@code null}
+     * @throws IllegalArgumentException if the value is not a valid {@code int}
+     */
+    public int getInt(String key, int defaultValue) {
+        IniConfValue value = typedValue(key, "getInt");
+        return value == null ? defaultValue : value.asInt(key);
+    }
+
+    /**
+     * Returns the value associated with the specified key in the specified subsection parsed as an {@code int}, as
+     * {@link #getInt(String, int)} does, or {@code defaultValue} if there is no such value.
+     * @param subsection path of the subsection containing the key
+     * @param key the key whose associated value is to be returned
+     * @param defaultValue the value to be returned if there is no value associated with the specified key
+     * @return the parsed value, or {@code defaultValue} if there is no such value
+     * @throws NullPointerException if {@code subsection} or {@code key} is {@code null}
+     * @throws IllegalArgumentException if {@code subsection} is invalid, or if the value is not a valid {@code int}
+     */
+    public int getInt(String subsection, String key, int defaultValue) {
+        IniConf section = getSection(subsection);
+        return section == null ? defaultValue : section.getInt(key, defaultValue);
+    }
+
+    /**
+     * Returns the value associated with the specified key parsed as a {@code long}, or {@code defaultValue} if there is
+     * no such value. The parsed value is cached until a new value is stored for the key.
+     * @param key the key whose associated value is to be returned
+     * @param defaultValue the value to be returned if there is no value associated with the specified key
+     * @return the parsed value, or {@code defaultValue} if there is no such value
+     * @throws NullPointerException if {@code key} is {@code null}
+     * @throws IllegalArgumentException if the value is not a valid {@code long}
+     */
+    public long getLong(String key, long defaultValue) {
+        IniConfValue value = typedValue(key, "getLong");
+        return value == null ? defaultValue : value.asLong(key);
+    }
+
+    /**
+     * Returns the value associated with the specified key in the specified subsection parsed as a {@code long}, as
+     * {@link #getLong(String, long)} does, or {@code defaultValue} if there is no such value.
+     * @param subsection path of the subsection containing the key
+     * @param key the key whose associated value is to be returned
+     * @param defaultValue the value to be returned if there is no value associated with the specified key
+     * @return the parsed value, or {@code defaultValue} if there is no such value
+     * @throws NullPointerException if {@code subsection} or {@code key} is {@code null}
+     * @throws IllegalArgumentException if {@code subsection} is invalid, or if the value is not a valid {@code long}
+     */
+    public long getLong(String subsection, String key, long defaultValue) {
+        IniConf section = getSection(subsection);
+        return section == null ? defaultValue : section.getLong(key, defaultValue);
+    }
+
+    /**
+     * Returns the value associated with the specified key parsed as a {@code double}, or {@code defaultValue} if there
+     * is no such value. The parsed value is cached until a new value is stored for the key.
+     * @param key the key whose associated value is to be returned
+     * @param defaultValue the value to be returned if there is no value associated with the specified key
+     * @return the parsed value, or {@code defaultValue} if there is no such value
+     * @throws NullPointerException if {@code key} is {@code null}
+     * @throws IllegalArgumentException if the value is not a valid {@code double}
+     */
+    public double getDouble(String key, double defaultValue) {
+        IniConfValue value = typedValue(key, "getDouble");
+        return value == null ? defaultValue : value.asDouble(key);
+    }
+
+    /**
+     * Returns the value associated with the specified key in the specified subsection parsed as a {@code double}, as
+     * {@link #getDouble(String, double)} does, or {@code defaultValue} if there is no such value.
+     * @param subsection path of the subsection containing the key
+     * @param key the key whose associated value is to be returned
+     * @param defaultValue the value to be returned if there is no value associated with the specified key
+     * @return the parsed value, or {@code defaultValue} if there is no such value
+     * @throws NullPointerException if {@code subsection} or {@code key} is {@code null}
+     * @throws IllegalArgumentException if {@code subsection} is invalid, or if the value is not a valid {@code double}
+     */
+    public double getDouble(String subsection, String key, double defaultValue) {
+        IniConf section = getSection(subsection);
+        return section == null ? defaultValue : section.getDouble(key, defaultValue);
+    }
+
+    /**
+     * Returns the value associated with the specified key parsed as a boolean, or {@code defaultValue} if there is no
+     * such value. The values {@code true}, {@code yes}, {@code on}, and {@code 1} are {@code true}, and {@code false},
+     * {@code no}, {@code off}, and {@code 0} are {@code false}, ignoring case. The parsed value is cached until a new
+     * value is stored for the key.
+     * @param key the key whose associated value is to be returned
+     * @param defaultValue the value to be returned if there is no value associated with the specified key
+     * @return the parsed value, or {@code defaultValue} if there is no such value
+     * @throws NullPointerException if {@code key} is {@code null}
+     * @throws IllegalArgumentException if the value is not a valid boolean
+     */
+    public boolean getBoolean(String key, boolean defaultValue) {
+        IniConfValue value = typedValue(key, "getBoolean");
+        return value == null ? defaultValue : value.asBoolean(key);
+    }
+
+    /**
+     * Returns the value associated with the specified key in the specified subsection parsed as a boolean, as {@link
+     * #getBoolean(String, boolean)} does, or {@code defaultValue} if there is no such value.
+     * @param subsection path of the subsection containing the key
+     * @param key the key whose associated value is to be returned
+     * @param defaultValue the value to be returned if there is no value associated with the specified key
+     * @return the parsed value, or {@code defaultValue} if there is no such value
+     * @throws NullPointerException if {@code subsection} or {@code key} is {@code null}
+     * @throws IllegalArgumentException if {@code subsection} is invalid, or if the value is not a valid boolean
+     */
+    public boolean getBoolean(String subsection, String key, boolean defaultValue) {
+        IniConf section = getSection(subsection);
+        return section == null ? defaultValue : section.getBoolean(key, defaultValue);
+    }
+
+    /**
+     * Returns the value associated with the specified key parsed as a {@link Duration}, or {@code defaultValue} if
+     * there is no such value. The value is either an ISO-8601 duration such as {@code PT1M30S}, or an integer followed
+     * by one of the units {@code ns}, {@code us}, {@code ms}, {@code s}, {@code m}, {@code h}, and {@code d}. The
+     * parsed value is cached until a new value is stored for the key.
+     * @param key the key whose associated value is to be returned
+     * @param defaultValue the value to be returned if there is no value associated with the specified key
+     * @return the parsed value, or {@code defaultValue} if there is no such value
+     * @throws NullPointerException if {@code key} is {@code null}
+     * @throws IllegalArgumentException if the value is not a valid duration
+     */
+    public Duration getDuration(String key, Duration defaultValue) {
+        IniConfValue value = typedValue(key, "getDuration");
+        return value == null ? defaultValue : value.asDuration(key);
+    }
+
+    /**
+     * Returns the value associated with the specified key in the specified subsection parsed as a {@link Duration}, as
+     * {@link #getDuration(String, Duration)} does, or {@code defaultValue} if there is no such value.
+     * @param subsection path of the subsection containing the key
+     * @param key the key whose associated value is to be returned
+     * @param defaultValue the value to be returned if there is no value associated with the specified key
+     * @return the parsed value, or {@code defaultValue} if there is no such value
+     * @throws NullPointerException if {@code subsection} or {@code key} is {@code null}
+     * @throws IllegalArgumentException if {@code subsection} is invalid, or if the value is not a valid duration
+     */
+    public Duration getDuration(String subsection, String key, Duration defaultValue) {
+        IniConf section = getSection(subsection);
+        return section == null ? defaultValue : section.getDuration(key, defaultValue);
+    }
+
+    /**
+     * Returns the value associated with the specified key parsed as a size in bytes, or {@code defaultValue} if there
+     * is no such value. The value is a non-negative integer, optionally followed by one of the case-insensitive units
+     * {@code B}, {@code K}, {@code M}, {@code G}, and {@code T}; the last four may be followed by {@code B} or {@code
+     * iB}, and all of them are powers of 1024. The parsed value is cached until a new value is stored for the key.
+     * @param key the key whose associated value is to be returned
+     * @param defaultValue the value to be returned if there is no value associated with the specified key
+     * @return the parsed value, or {@code defaultValue} if there is no such value
+     * @throws NullPointerException if {@code key} is {@code null}
+     * @throws IllegalArgumentException if the value is not a valid byte size
+     */
+    public long getByteSize(String key, long defaultValue) {
+        IniConfValue value = typedValue(key, "getByteSize");
+        return value == null ? defaultValue : value.asByteSize(key);
+    }
+
+    /**
+     * Returns the value associated with the specified key in the specified subsection parsed as a size in bytes, as
+     * {@link #getByteSize(String, long)} does, or {@code defaultValue} if there is no such value.
+     * @param subsection path of the subsection containing the key
+     * @param key the key whose associated value is to be returned
+     * @param defaultValue the value to be returned if there is no value associated with the specified key
+     * @return the parsed value, or {@code defaultValue} if there is no such value
+     * @throws NullPointerException if {@code subsection} or {@code key} is {@code null}
+     * @throws IllegalArgumentException if {@code subsection} is invalid, or if the value is not a valid byte size
+     */
+    public long getByteSize(String subsection, String key, long defaultValue) {
+        IniConf section = getSection(subsection);
+        return section == null ? defaultValue : section.getByteSize(key, defaultValue);
+    }
+
+    /**
+     * Returns the typed value cache for the specified key, or {@code null} if there is no such key.
+     */
+    private IniConfValue typedValue(String key, String method) {
+        if (key == null) {
+            throw new NullPointerException(method + "(): key cannot be null");
+        }
+        return typedValue(properties.findIgnoreCase(key));
+    }
+
+    /**
+     * Returns the typed value cache for an already normalized key, or {@code null} if there is no such key.
+     */
+    IniConfValue typedValueNormalized(String key) {
+        return typedValue(properties.find(key));
+    }
+
+    /**
+     * Returns the cached typed value of a property, creating it if the property has none or if its slot has been
+     * replaced since the cached one was created. The property map itself is never modified.
+     */
+    private IniConfValue typedValue(Map.Entry<String, Object> entry) {
+        if (entry == null) {
+            return null;
+        }
+        Object slot = entry.getValue();
+        Map<String, IniConfValue> cache = typedValues;
+        IniConfValue value = cache == null ? null : cache.get(entry.getKey());
+        if (value == null || !value.isFor(slot)) {
+            value = new IniConfValue(slot, text(slot));
+            if (cache == null) {
+                cache = new ConcurrentHashMap<>();
+                typedValues = cache;
+            }
+            cache.put(entry.getKey(), value);
+        }
+        return value;
+    }
+
+    private void discardTypedValue(String key) {
+        Map<String, IniConfValue> cache = typedValues;
+        if (cache != null) {
+            cache.remove(key);
+        }
     }
 
     /**
@@ -231,7 +771,7 @@ public final class IniConf {
      * @throws NullPointerException if {@code key} is {@code null}
      */
     public boolean isKey(String key) {
-        return properties.containsKey(normalizeIdentifier(key));
+        return properties.findIgnoreCase(key) != null;
     }
     /**
      * Checks whether the specified subsection contains the specified key.
@@ -245,8 +785,7 @@ public final class IniConf {
         if (key == null) {
             throw new NullPointerException("isKey(): key cannot be null");
         }
-        List<String> sectionPath = normalizeSectionPath(subsection);
-        IniConf section = resolveSection(sectionPath, sectionPath.size(), MissingSectionPolicy.RETURN_NULL);
+        IniConf section = findSection(subsection, false);
         return section != null && section.isKey(key);
     }
 
@@ -258,8 +797,7 @@ public final class IniConf {
      * @throws IllegalArgumentException if {@code sectionName} is invalid
      */
     public boolean isSection(String sectionName) {
-        List<String> sectionPath = normalizeSectionPath(sectionName);
-        return resolveSection(sectionPath, sectionPath.size(), MissingSectionPolicy.RETURN_NULL) != null;
+        return findSection(sectionName, false) != null;
     }
 
     /**
@@ -272,16 +810,156 @@ public final class IniConf {
      * @throws IllegalArgumentException if {@code name} is invalid
      */
     public IniConf getSection(String name) {
-        List<String> sectionPath = normalizeSectionPath(name);
-        return resolveSection(sectionPath, sectionPath.size(), MissingSectionPolicy.RETURN_NULL);
+        return findSection(name, false);
     }
 
-    private IniConf getChild(String name) {
+    IniConf getChild(String name) {
         return subsections.get(name);
     }
 
     private IniConf addChild(String name, IniConf section) {
-        return subsections.put(normalizeIdentifier(name), section);
+        return attachChild(normalizeIdentifier(name), section);
+    }
+
+    /**
+     * Adds or replaces a child section with an already normalized name and updates the parent links.
+     */
+    private IniConf attachChild(String name, IniConf section) {
+        if (pool != null) {
+            name = pool.intern(name);
+        }
+        markModified();
+        IniConf previous = subsections.put(name, section);
+        if (previous != null) {
+            previous.removeOwner(this);
+        }
+        section.addOwner(this, name);
+        if (previous != null || !section.isEmpty()) {
+            discardFlatIndexes();
+        }
+        return previous;
+    }
+
+    /**
+     * Removes the child section with an already normalized name and clears its parent link.
+     */
+    IniConf detachChild(String name) {
+        IniConf previous = subsections.remove(name);
+        if (previous != null) {
+            markModified();
+            discardFlatIndexes();
+            previous.removeOwner(this);
+        }
+        return previous;
+    }
+
+    private void addOwner(IniConf parent, String name) {
+        Link[] grown = Arrays.copyOf(owners, owners.length + 1);
+        grown[owners.length] = new Link(parent, name);
+        owners = grown;
+    }
+
+    private void removeOwner(IniConf parent) {
+        for (int index = 0; index < owners.length; index++) {
+            if (owners[index].parent == parent) {
+                Link[] shrunk = Arrays.copyOf(owners, owners.length - 1);
+                System.arraycopy(owners, index + 1, shrunk, index, owners.length - index - 1);
+                owners = shrunk;
+                return;
+            }
+        }
+    }
+
+    /**
+     * Stores an already validated and normalized property.
+     */
+    String putNormalized(String key, String value) {
+        if (pool != null) {
+            value = pool.intern(value);
+        }
+        return textOrEncoded(putSlot(key, value));
+    }
+
+    /**
+     * Stores a value slot, a {@link String} or an {@link IniConfLazyValue}, for an already validated and normalized
+     * key, and returns the previous slot.
+     */
+    Object putSlot(String key, Object slot) {
+        if (pool != null) {
+            key = pool.intern(key);
+        }
+        Object previous = properties.put(key, slot);
+        discardTypedValue(key);
+        markModified();
+        for (IniConf ancestor = this; ; ancestor = ancestor.owners[0].parent) {
+            if (ancestor.flatIndex != null) {
+                if (previous == null || !(slot instanceof String)) {
+                    // a new key would be appended out of order, and a lazy value would have to be decoded now
+                    ancestor.flatIndex = null;
+                } else {
+                    ancestor.flatIndex.put(qualifiedKey(ancestor, key), text(slot));
+                }
+            }
+            if (ancestor.owners.length != 1) {
+                // a shared section has a different qualified key in each owner, so their indexes are rebuilt
+                for (Link owner : ancestor.owners) {
+                    owner.parent.discardFlatIndexes();
+                }
+                break;
+            }
+        }
+        return previous;
+    }
+
+    /**
+     * Removes the property with an already normalized key and returns its value.
+     */
+    String removeNormalized(String key) {
+        Object previous = properties.remove(key);
+        if (previous != null) {
+            discardTypedValue(key);
+            markModified();
+            discardFlatIndexes();
+        }
+        return textOrEncoded(previous);
+    }
+
+    /**
+     * Returns the string held by a property slot.
+     * @throws IniConfFormatException if the slot holds a malformed lazily parsed value
+     */
+    private static String text(Object slot) {
+        return slot instanceof IniConfLazyValue lazy ? lazy.text() : (String) slot;
+    }
+
+    /**
+     * Returns the string held by a property slot, or the encoded text of a malformed lazily parsed value, for methods
+     * that must not fail because of such a value.
+     */
+    private static String textOrEncoded(Object slot) {
+        return slot instanceof IniConfLazyValue lazy ? lazy.textOrEncoded() : text(slot);
+    }
+
+    /**
+     * Returns the value of an already normalized key.
+     */
+    String getNormalized(String key) {
+        return text(properties.get(key));
+    }
+
+    /**
+     * Creates and returns an empty child section with an already normalized name.
+     */
+    IniConf createChild(String name) {
+        IniConf child = newChild();
+        attachChild(name, child);
+        return child;
+    }
+
+    private IniConf newChild() {
+        IniConf child = new IniConf();
+        child.pool = pool;
+        return child;
     }
 
     /**
@@ -301,39 +979,389 @@ public final class IniConf {
         if (section == this) {
             throw new IllegalArgumentException("addSection(): a section cannot contain itself.");
         }
-        ensureDisjointRegularGraphs(this, section);
-        IniConf parent = resolveSection(
-                sectionPath, sectionPath.size() - 1, MissingSectionPolicy.CREATE);
+        ensureDisjointRegularGraphs(section);
+        IniConf parent = resolveSection(sectionPath, sectionPath.size() - 1);
         return parent.addChild(sectionPath.get(sectionPath.size() - 1), section);
     }
 
-    private void ensureDisjointRegularGraphs(IniConf root, IniConf section) {
-        Set<IniConf> currentGraph = collateRegularGraph(root);
-        Set<IniConf> sectionGraph = collateRegularGraph(section);
-        for (IniConf candidate : sectionGraph) {
-            if (currentGraph.contains(candidate)) {
+    /**
+     * Rejects a section whose graph repeats a section or shares one with the graph of this IniConf. A section is in
+     * the graph of this IniConf exactly if this IniConf is among its ancestors, so the check follows the parent
+     * links up from the sections of {@code section} instead of collecting the graph of this IniConf.
+     */
+    private void ensureDisjointRegularGraphs(IniConf section) {
+        Set<IniConf> visited = Collections.newSetFromMap(new IdentityHashMap<>());
+        Deque<IniConf> pending = new ArrayDeque<>();
+        pending.push(section);
+        while (!pending.isEmpty()) {
+            IniConf current = pending.pop();
+            if (!visited.add(current)) {
+                throw new IllegalArgumentException("addSection(): section graph contains a repeated section.");
+            }
+            if (current.isWithin(this)) {
                 throw new IllegalArgumentException("addSection(): section is already part of this section graph.");
             }
+            for (IniConf child : current.subsections.values()) {
+                pending.push(child);
+            }
+        }
+    }
+
+    /**
+     * Checks whether this section is {@code ancestor} or contained in it, directly or indirectly.
+     */
+    private boolean isWithin(IniConf ancestor) {
+        IniConf current = this;
+        while (current != ancestor) {
+            if (current.owners.length != 1) {
+                for (Link owner : current.owners) {
+                    if (owner.parent.isWithin(ancestor)) {
+                        return true;
+                    }
+                }
+                return false;
+            }
+            current = current.owners[0].parent;
+        }
+        return true;
+    }
+
+    /**
+     * Moves the content of {@code source} into this IniConf, with the same result as putting its properties and
+     * creating its sections after the existing content. Sections that do not exist in this IniConf are adopted
+     * rather than copied, so {@code source} must not be used afterwards.
+     */
+    void mergeFrom(IniConf source) {
+        Deque<Tuple<IniConf, IniConf>> pending = new ArrayDeque<>();
+        pending.push(new Tuple<>(this, source));
+        while (!pending.isEmpty()) {
+            Tuple<IniConf, IniConf> pair = pending.pop();
+            IniConf target = pair.getKey();
+            IniConf donor = pair.getValue();
+            target.properties.putAll(donor.properties);
+            target.discardFlatIndexes();
+            target.markModified();
+            for (Map.Entry<String, IniConf> entry : donor.subsections.entrySet()) {
+                IniConf existing = target.subsections.get(entry.getKey());
+                if (existing == null) {
+                    entry.getValue().removeOwner(donor);
+                    target.attachChild(entry.getKey(), entry.getValue());
+                } else {
+                    pending.push(new Tuple<>(existing, entry.getValue()));
+                }
+            }
+        }
+    }
+
+    /**
+     * Copies the content of {@code source} into this IniConf, with the same result as putting its properties and
+     * creating its sections after the existing content. Unlike {@link #mergeFrom(IniConf)}, {@code source} is left
+     * unchanged.
+     */
+    void copyFrom(IniConf source) {
+        Deque<Tuple<IniConf, IniConf>> pending = new ArrayDeque<>();
+        pending.push(new Tuple<>(this, source));
+        while (!pending.isEmpty()) {
+            Tuple<IniConf, IniConf> pair = pending.pop();
+            IniConf target = pair.getKey();
+            for (Map.Entry<String, Object> property : pair.getValue().properties.entrySet()) {
+                target.putNormalized(property.getKey(), text(property.getValue()));
+            }
+            for (Map.Entry<String, IniConf> entry : pair.getValue().subsections.entrySet()) {
+                IniConf existing = target.subsections.get(entry.getKey());
+                pending.push(new Tuple<>(existing == null ? target.createChild(entry.getKey()) : existing,
+                        entry.getValue()));
+            }
+        }
+    }
+
+    /**
+     * Returns the value associated with the specified qualified key, which consists of the dotted path of a section
+     * followed by a dot and the key, or of the key alone for properties of this IniConf. For example,
+     * {@code getQualified("a.b.port")} returns the same value as {@code get("a.b", "port")}. The lookup uses the flat
+     * index described in {@link #getFlatProperties()}, so it costs a single hash lookup regardless of the nesting
+     * depth once the index has been built. Strings that are not valid qualified keys are not found.
+     * @param qualifiedKey the qualified key whose associated value is to be returned
+     * @return the value associated with the qualified key, or {@code null} if no such value exists
+     * @throws NullPointerException if {@code qualifiedKey} is {@code null}
+     */
+    public String getQualified(String qualifiedKey) {
+        if (qualifiedKey == null) {
+            throw new NullPointerException("getQualified(): key cannot be null");
+        }
+        String value = flatIndex().get(normalizeIdentifier(qualifiedKey));
+        IniConfInstrumentation.lookup(value);
+        return value;
+    }
+
+    /**
+     * Returns a read-only {@link Map} view of all properties in this IniConf and its subsections, keyed by qualified
+     * key as accepted by {@link #getQualified(String)}. Entries are ordered as in the serialized configuration.
+     * The view is backed by an index that is built on first use. Changing the value of an existing key updates the
+     * index in place; adding keys or sections discards it, and it is rebuilt on the next access. The view always
+     * reflects the current content of this IniConf.
+     * @return a read-only view of all properties, keyed by qualified key
+     */
+    public Map<String, String> getFlatProperties() {
+        return new FlatView();
+    }
+
+    private Map<String, String> flatIndex() {
+        if (flatIndex == null) {
+            Map<String, String> index = new LinkedHashMap<>();
+            Deque<Tuple<IniConf, String>> pending = new ArrayDeque<>();
+            pending.push(new Tuple<>(this, ""));
+            while (!pending.isEmpty()) {
+                Tuple<IniConf, String> entry = pending.pop();
+                String prefix = entry.getValue();
+                for (Map.Entry<String, Object> property : entry.getKey().properties.entrySet()) {
+                    index.put(prefix + property.getKey(), text(property.getValue()));
+                }
+                List<Tuple<IniConf, String>> children = new ArrayList<>();
+                for (Map.Entry<String, IniConf> child : entry.getKey().subsections.entrySet()) {
+                    children.add(new Tuple<>(child.getValue(), prefix + child.getKey() + '.'));
+                }
+                for (int position = children.size() - 1; position >= 0; position--) {
+                    pending.push(children.get(position));
+                }
+            }
+            flatIndex = index;
+        }
+        return flatIndex;
+    }
+
+    /**
+     * Discards the flat indexes of this section and all sections containing it.
+     */
+    private void discardFlatIndexes() {
+        forEachAncestor(section -> section.flatIndex = null);
+    }
+
+    /**
+     * Records a modification of this section in the modification counts of this section and all sections containing
+     * it, and marks their cached hash codes as stale.
+     */
+    private void markModified() {
+        forEachAncestor(section -> {
+            section.modificationCount++;
+            section.subtreeHash = 0;
+        });
+    }
+
+    /**
+     * Applies the action to this section and to all sections containing it, directly or indirectly. A section that
+     * is reachable through several shared sections may be visited more than once.
+     */
+    private void forEachAncestor(Consumer<IniConf> action) {
+        IniConf current = this;
+        while (true) {
+            action.accept(current);
+            if (current.owners.length != 1) {
+                for (Link owner : current.owners) {
+                    owner.parent.forEachAncestor(action);
+                }
+                return;
+            }
+            current = current.owners[0].parent;
         }
     }
 
-    private static Set<IniConf> collateRegularGraph(IniConf root) {
-        Set<IniConf> sections = Collections.newSetFromMap(new IdentityHashMap<>());
+    /**
+     * Returns the number of modifications made to this section and its subsections while they were part of it.
+     * Replacing a value with an equal one counts as a modification; caching parsed values does not.
+     */
+    int modificationCount() {
+        return modificationCount;
+    }
+
+    /**
+     * Returns the key qualified with the path of this section relative to {@code ancestor}.
+     */
+    private String qualifiedKey(IniConf ancestor, String key) {
+        StringBuilder qualified = new StringBuilder(key);
+        for (IniConf current = this; current != ancestor; current = current.owners[0].parent) {
+            qualified.insert(0, '.').insert(0, current.owners[0].name);
+        }
+        return qualified.toString();
+    }
+
+    /**
+     * Presents the property slots as plain strings.
+     */
+    private final class PropertiesView extends AbstractMap<String, String> {
+
+        @Override
+        public String get(Object key) {
+            return text(properties.get(key));
+        }
+
+        @Override
+        public boolean containsKey(Object key) {
+            return properties.containsKey(key);
+        }
+
+        @Override
+        public int size() {
+            return properties.size();
+        }
+
+        @Override
+        public Set<Entry<String, String>> entrySet() {
+            return new AbstractSet<>() {
+                @Override
+                public Iterator<Entry<String, String>> iterator() {
+                    Iterator<Entry<String, Object>> slots = properties.entrySet().iterator();
+                    return new Iterator<>() {
+                        @Override
+                        public boolean hasNext() {
+                            return slots.hasNext();
+                        }
+
+                        @Override
+                        public Entry<String, String> next() {
+                            Entry<String, Object> slot = slots.next();
+                            return new SimpleImmutableEntry<>(slot.getKey(), text(slot.getValue()));
+                        }
+                    };
+                }
+
+                @Override
+                public int size() {
+                    return properties.size();
+                }
+            };
+        }
+    }
+
+    private final class FlatView extends AbstractMap<String, String> {
+
+        @Override
+        public String get(Object key) {
+            return flatIndex().get(key);
+        }
+
+        @Override
+        public boolean containsKey(Object key) {
+            return flatIndex().containsKey(key);
+        }
+
+        @Override
+        public int size() {
+            return flatIndex().size();
+        }
+
+        @Override
+        public Set<Entry<String, String>> entrySet() {
+            return new AbstractSet<>() {
+                @Override
+                public Iterator<Entry<String, String>> iterator() {
+                    return Collections.unmodifiableMap(flatIndex()).entrySet().iterator();
+                }
+
+                @Override
+                public int size() {
+                    return flatIndex().size();
+                }
+            };
+        }
+    }
+
+    /**
+     * Returns a deeply immutable snapshot of this IniConf. The snapshot stores its content in compact arrays and can
+     * be shared between threads without synchronization. Later changes to this IniConf do not affect the snapshot.
+     * @return an immutable snapshot of the current content of this IniConf
+     */
+    public FrozenIniConf freeze() {
+        List<IniConf> preOrder = new ArrayList<>();
         Deque<IniConf> pending = new ArrayDeque<>();
-        pending.push(root);
+        pending.push(this);
         while (!pending.isEmpty()) {
             IniConf current = pending.pop();
-            if (!sections.add(current)) {
-                throw new IllegalArgumentException("addSection(): section graph contains a repeated section.");
-            }
+            preOrder.add(current);
             for (IniConf child : current.subsections.values()) {
-                if (child == null) {
-                    throw new IllegalArgumentException("addSection(): section graph contains a null section.");
-                }
                 pending.push(child);
             }
         }
-        return sections;
+        // children are frozen before their parents
+        Map<IniConf, FrozenIniConf> frozen = new IdentityHashMap<>();
+        for (int index = preOrder.size() - 1; index >= 0; index--) {
+            IniConf current = preOrder.get(index);
+            String[] keys = current.properties.keySet().toArray(new String[0]);
+            String[] values = new String[keys.length];
+            int valueCount = 0;
+            for (Object slot : current.properties.values()) {
+                values[valueCount++] = text(slot);
+            }
+            String[] sectionNames = current.subsections.keySet().toArray(new String[0]);
+            FrozenIniConf[] sections = new FrozenIniConf[sectionNames.length];
+            int position = 0;
+            for (IniConf child : current.subsections.values()) {
+                sections[position++] = frozen.get(child);
+            }
+            frozen.put(current, new FrozenIniConf(keys, values, sectionNames, sections));
+        }
+        return frozen.get(this);
+    }
+
+    /**
+     * Copies the content of a frozen snapshot into this IniConf, which must be empty.
+     */
+    void putAllFrozen(FrozenIniConf source) {
+        Deque<Tuple<IniConf, FrozenIniConf>> pending = new ArrayDeque<>();
+        pending.push(new Tuple<>(this, source));
+        while (!pending.isEmpty()) {
+            Tuple<IniConf, FrozenIniConf> pair = pending.pop();
+            IniConf target = pair.getKey();
+            target.properties.putAll(pair.getValue().getProperties());
+            target.discardFlatIndexes();
+            target.markModified();
+            for (Map.Entry<String, FrozenIniConf> entry : pair.getValue().getSections().entrySet()) {
+                pending.push(new Tuple<>(target.createChild(entry.getKey()), entry.getValue()));
+            }
+        }
+    }
+
+    /**
+     * Returns the changes that turn this IniConf into {@code other}: the properties and sections that were added or
+     * removed and the properties whose values differ. Sections are compared by their cached hash codes first:
+     * sections whose hash codes differ are compared property by property without an {@code equals} walk, sections
+     * with equal hash codes are confirmed with {@link #equals(Object)} before they are skipped as a whole, and
+     * sections shared by both configurations are not visited at all.
+     * @param other the configuration to compare this IniConf with
+     * @return the changes from this IniConf to {@code other}
+     * @throws NullPointerException if {@code other} is {@code null}
+     */
+    public IniConfDiff diff(IniConf other) {
+        Objects.requireNonNull(other, "other must not be null");
+        return IniConfDiff.compute(this, other, false);
+    }
+
+    /**
+     * Returns the changes that turn this IniConf into {@code other} like {@link #diff(IniConf)}, but takes sections
+     * with equal hash codes as unchanged without comparing their contents. The cost of the diff then depends on the
+     * number of changed sections rather than on the size of the configurations, but a change is missed whenever a
+     * changed section happens to keep its hash code, as when {@code Aa} is replaced by {@code BB}. Use it only where
+     * such a miss is acceptable, for example to find candidates for a full comparison.
+     * @param other the configuration to compare this IniConf with
+     * @return the changes from this IniConf to {@code other}, possibly incomplete
+     * @throws NullPointerException if {@code other} is {@code null}
+     */
+    public IniConfDiff diffTrustingHashCodes(IniConf other) {
+        Objects.requireNonNull(other, "other must not be null");
+        return IniConfDiff.compute(this, other, true);
+    }
+
+    /**
+     * Replays the changes of a diff onto this IniConf. Applying {@code a.diff(b)} to a configuration equal to
+     * {@code a} makes it equal to {@code b}. Added properties and changed values are stored as by {@code put},
+     * creating missing sections; removals of properties or sections that do not exist are ignored. Old values are not
+     * checked, so a diff can also be applied to a configuration that has diverged from {@code a}.
+     * @param diff the changes to be applied
+     * @throws NullPointerException if {@code diff} is {@code null}
+     */
+    public void apply(IniConfDiff diff) {
+        Objects.requireNonNull(diff, "diff must not be null");
+        diff.applyTo(this);
     }
 
     /**
@@ -341,7 +1369,7 @@ public final class IniConf {
      * @return an unmodifiable Map view of all properties in this IniConf object
      */
     public Map<String, String> getProperties() {
-        return Collections.unmodifiableMap(properties);
+        return new PropertiesView();
     }
 
     /**
@@ -358,7 +1386,7 @@ public final class IniConf {
      */
     @Override
     public String toString() {
-        return flatten();
+        return IniConfWriter.serialize(this);
     }
 
     @Override
@@ -378,7 +1406,12 @@ public final class IniConf {
             IniConf left = pair.getKey();
             IniConf right = pair.getValue();
 
-            if (!left.properties.equals(right.properties)) {
+            int leftHash = left.subtreeHash;
+            int rightHash = right.subtreeHash;
+            if (leftHash != 0 && rightHash != 0 && leftHash != rightHash) {
+                return false;
+            }
+            if (!propertiesEqual(left.properties, right.properties)) {
                 return false;
             }
             if (left.subsections.size() != right.subsections.size()) {
@@ -397,59 +1430,69 @@ public final class IniConf {
         return true;
     }
 
-    @Override
-    public int hashCode() {
-        int result = 0;
-        Deque<IniConf> pending = new ArrayDeque<>();
-        pending.push(this);
-        while (!pending.isEmpty()) {
-            IniConf current = pending.pop();
-            result += Objects.hashCode(current.properties);
-            if (!subsections.isEmpty()) {
-                result += Objects.hashCode(current.subsections.keySet());
-            }
-            for (IniConf section : current.subsections.values()) {
-                pending.push(section);
+    private static boolean propertiesEqual(Map<String, Object> left, Map<String, Object> right) {
+        if (left.size() != right.size()) {
+            return false;
+        }
+        for (Map.Entry<String, Object> entry : left.entrySet()) {
+            Object other = right.get(entry.getKey());
+            if (other == null || !textOrEncoded(entry.getValue()).equals(textOrEncoded(other))) {
+                return false;
             }
         }
-        return result;
+        return true;
     }
 
-    private String flatten() {
-        Deque<Tuple<String, IniConf>> pending = new ArrayDeque<>();
-        pending.push(new Tuple<String, IniConf>(null, this));
-        StringBuilder sb = new StringBuilder();
-
-        while (!pending.isEmpty()) {
-            Tuple<String,IniConf> current = pending.pop();
-            String currentName = current.getKey();
-            IniConf currentSection = current.getValue();
-            Map<String, String> properties = currentSection.getProperties();
-            if (currentName != null) {
-                sb.append('[').append(currentName).append(']').append("\n");
-            }
-            if (!properties.isEmpty()) {
-                for (String key : properties.keySet()) {
-                    sb.append(key).append(" = ").append(serializeValue(properties.get(key))).append("\n");
+    /**
+     * Returns the hash code of this IniConf, which is the sum of the hash codes of the {@link #getProperties()} and
+     * {@link #getSections()} maps. Hash codes are cached per section and recomputed only for sections that have been
+     * modified since the last call, so repeated calls on an unchanged or slightly changed configuration are cheap.
+     * @return the hash code of this IniConf
+     */
+    @Override
+    public int hashCode() {
+        int result = subtreeHash;
+        if (result == 0) {
+            // children are pushed after their parents, so the reversed visiting order computes them first
+            List<IniConf> stale = new ArrayList<>();
+            Deque<IniConf> pending = new ArrayDeque<>();
+            pending.push(this);
+            while (!pending.isEmpty()) {
+                IniConf current = pending.pop();
+                stale.add(current);
+                for (IniConf section : current.subsections.values()) {
+                    if (section.subtreeHash == 0) {
+                        pending.push(section);
+                    }
                 }
-                sb.append("\n");
             }
-            List<String> sectionNames = new ArrayList<>(currentSection.getSections().keySet());
-            Collections.reverse(sectionNames);
-            for (String name : sectionNames) {
-                String subSectionName = currentName == null ? name : currentName + '.' + name;
-                pending.push(new Tuple<String, IniConf>(subSectionName, currentSection.getSection(name)));
+            for (int index = stale.size() - 1; index > 0; index--) {
+                stale.get(index).computeHash();
             }
+            result = computeHash();
         }
-
-        return sb.toString();
+        return result;
     }
 
-    private static String serializeValue(String value) {
-        boolean requiresQuotes = value.isEmpty()
-                || value.codePoints().anyMatch(Character::isWhitespace);
-        String encodedValue = value.replace("\\", "\\\\").replace("\"", "\\\"");
-        return requiresQuotes ? '"' + encodedValue + '"' : encodedValue;
+    /**
+     * Computes and caches the hash code of this section from its properties and the cached hash codes of its
+     * subsections. Each cached hash code is read once; a subsection whose hash code reads as {@code 0}, because it
+     * is not cached or because another thread's write is not visible yet, is computed again.
+     */
+    private int computeHash() {
+        int result = 0;
+        for (Map.Entry<String, Object> property : properties.entrySet()) {
+            result += property.getKey().hashCode() ^ textOrEncoded(property.getValue()).hashCode();
+        }
+        for (Map.Entry<String, IniConf> section : subsections.entrySet()) {
+            int childHash = section.getValue().subtreeHash;
+            if (childHash == 0) {
+                childHash = section.getValue().hashCode();
+            }
+            result += section.getKey().hashCode() ^ childHash;
+        }
+        subtreeHash = result;
+        return result;
     }
 
 }
@@ -0,0 +1,382 @@
+package net.prsv.iniconf;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.Constructor;
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+import java.lang.reflect.ParameterizedType;
+import java.lang.reflect.Proxy;
+import java.lang.reflect.RecordComponent;
+import java.lang.reflect.Type;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+
+/**
+ * Binds sections of an {@link IniConf} to instances of a record class or an interface.
+ * The target type is inspected once, when the binder is created, and turned into a plan that lists the key, the
+ * conversion, and the constructor argument or accessor of every property. Binding a section then only looks up and
+ * converts the values. A record is created by calling its canonical constructor through a {@link MethodHandle}, and
+ * its accessors are plain field reads. An interface is implemented with a {@link Proxy} whose accessor methods return
+ * values converted at bind time; each call goes through an invocation handler that finds the value by its
+ * {@link Method}, so records are the better choice for values read on hot paths. An accessor that a subinterface
+ * overrides with a narrower return type is bound once, with the narrowest type.
+ * <p>
+ * Each record component or interface accessor is bound to the key with the same name, compared case-insensitively.
+ * If there is no such key, the name converted to snake case is tried, so that {@code maxConnections} also matches
+ * {@code max_connections}. The prefixes {@code get} and {@code is} are removed from the names of interface accessors.
+ * Supported types are {@link String}, {@code int}, {@code long}, {@code double}, {@code boolean} and their wrapper
+ * classes, {@link Duration}, nested record classes and interfaces, which are bound to the subsection with the name of
+ * the property, and {@link Optional} of any of these. Numbers, booleans, and durations are parsed as by the typed
+ * getters of {@link IniConf}. A property is required unless its type is {@code Optional}.
+ * @param <T> the type of the bound objects
+ */
+public final class IniConfBinder<T> {
+
+    private enum Conversion {
+        STRING, INT, LONG, DOUBLE, BOOLEAN, DURATION, SECTION
+    }
+
+    private record Property(String name, String key, String alternativeKey, Conversion conversion, boolean optional,
+                            IniConfBinder<?> nested) {
+    }
+
+    private final Class<T> type;
+    private final Property[] properties;
+    /** The canonical constructor of a record class, adapted to take its arguments as an {@code Object[]}. */
+    private final MethodHandle constructor;
+    /** The index of the value returned by each accessor of an interface. */
+    private final Map<Method, Integer> accessors;
+    /** The implementations of the default methods of an interface, taking the receiver as their first argument. */
+    private final Map<Method, MethodHandle> defaultMethods;
+
+    private IniConfBinder(Class<T> type, Property[] properties, MethodHandle constructor,
+                          Map<Method, Integer> accessors, Map<Method, MethodHandle> defaultMethods) {
+        this.type = type;
+        this.properties = properties;
+        this.constructor = constructor;
+        this.accessors = accessors;
+        this.defaultMethods = defaultMethods;
+    }
+
+    /**
+     * Creates a binder for the specified record class or interface.
+     * @param type the record class or interface
+     * @param <T> the type of the bound objects
+     * @return a binder for {@code type}
+     * @throws NullPointerException if {@code type} is {@code null}
+     * @throws IllegalArgumentException if {@code type} is neither a record class nor an interface, if one of its
+     * properties has an unsupported type, or if its canonical constructor is not accessible
+     */
+    public static <T> IniConfBinder<T> of(Class<T> type) {
+        Objects.requireNonNull(type, "type must not be null");
+        return compile(type, new ArrayList<>());
+    }
+
+    private static <T> IniConfBinder<T> compile(Class<T> type, List<Class<?>> enclosing) {
+        if (enclosing.contains(type)) {
+            throw new IllegalArgumentException("Recursive binding of type " + type.getName());
+        }
+        enclosing.add(type);
+        try {
+            if (type.isRecord()) {
+                return compileRecord(type, enclosing);
+            }
+            if (type.isInterface()) {
+                return compileInterface(type, enclosing);
+            }
+            throw new IllegalArgumentException(type.getName() + " is neither a record class nor an interface");
+        } finally {
+            enclosing.remove(enclosing.size() - 1);
+        }
+    }
+
+    private static <T> IniConfBinder<T> compileRecord(Class<T> type, List<Class<?>> enclosing) {
+        RecordComponent[] components = type.getRecordComponents();
+        Property[] properties = new Property[components.length];
+        Class<?>[] parameterTypes = new Class<?>[components.length];
+        for (int index = 0; index < components.length; index++) {
+            RecordComponent component = components[index];
+            properties[index] = property(type, component.getName(), component.getGenericType(), enclosing);
+            parameterTypes[index] = component.getType();
+        }
+        MethodHandle constructor;
+        try {
+            Constructor<T> canonical = type.getDeclaredConstructor(parameterTypes);
+            canonical.setAccessible(true);
+            constructor = MethodHandles.lookup().unreflectConstructor(canonical);
+        } catch (ReflectiveOperationException | RuntimeException e) {
+            throw new IllegalArgumentException("Cannot access the canonical constructor of " + type.getName(), e);
+        }
+        constructor = constructor.asType(constructor.type().changeReturnType(Object.class))
+                .asSpreader(Object[].class, components.length)
+                .asType(MethodType.methodType(Object.class, Object[].class));
+        return new IniConfBinder<>(type, properties, constructor, null, null);
+    }
+
+    private static <T> IniConfBinder<T> compileInterface(Class<T> type, List<Class<?>> enclosing) {
+        List<Property> properties = new ArrayList<>();
+        Map<Method, Integer> accessors = new HashMap<>();
+        Map<Method, MethodHandle> defaultMethods = new HashMap<>();
+        Map<String, List<Method>> overloads = new LinkedHashMap<>();
+        for (Method method : type.getMethods()) {
+            if (Modifier.isStatic(method.getModifiers())) {
+                continue;
+            }
+            if (method.isDefault()) {
+                try {
+                    MethodHandles.Lookup lookup = MethodHandles.privateLookupIn(method.getDeclaringClass(),
+                            MethodHandles.lookup());
+                    defaultMethods.put(method, lookup.unreflectSpecial(method, method.getDeclaringClass()));
+                } catch (ReflectiveOperationException | RuntimeException e) {
+                    throw new IllegalArgumentException("Cannot access the default method " + method.getName()
+                            + " of " + type.getName(), e);
+                }
+                continue;
+            }
+            if (method.getParameterCount() != 0 || method.getReturnType() == void.class) {
+                throw new IllegalArgumentException("Method " + method.getName() + " of " + type.getName()
+                        + " is not an accessor");
+            }
+            overloads.computeIfAbsent(method.getName(), name -> new ArrayList<>()).add(method);
+        }
+        for (List<Method> methods : overloads.values()) {
+            Method narrowest = narrowest(type, methods);
+            for (Method method : methods) {
+                accessors.put(method, properties.size());
+            }
+            properties.add(property(type, accessorName(narrowest.getName()), narrowest.getGenericReturnType(),
+                    enclosing));
+        }
+        return new IniConfBinder<>(type, properties.toArray(new Property[0]), null, accessors, defaultMethods);
+    }
+
+    /**
+     * Returns the method whose return type can be assigned to the return types of all the specified methods, which
+     * are declarations of the same accessor inherited from several interfaces.
+     */
+    private static Method narrowest(Class<?> type, List<Method> methods) {
+        for (Method candidate : methods) {
+            boolean narrowest = true;
+            for (Method method : methods) {
+                narrowest &= method.getReturnType().isAssignableFrom(candidate.getReturnType());
+            }
+            if (narrowest) {
+                return candidate;
+            }
+        }
+        throw new IllegalArgumentException("Method " + methods.get(0).getName() + " of " + type.getName()
+                + " is declared with unrelated return types");
+    }
+
+    private static Property property(Class<?> owner, String name, Type type, List<Class<?>> enclosing) {
+        boolean optional = false;
+        if (type instanceof ParameterizedType parameterized && parameterized.getRawType() == Optional.class) {
+            optional = true;
+            type = parameterized.getActualTypeArguments()[0];
+        }
+        if (!(type instanceof Class<?> valueType) || (optional && valueType.isPrimitive())) {
+            throw unsupported(owner, name, type);
+        }
+        String key = IniConf.normalizeIdentifier(name);
+        String alternativeKey = snakeCase(name);
+        if (!IniConfPatterns.isKey(key)) {
+            throw new IllegalArgumentException("Property " + name + " of " + owner.getName()
+                    + " is not a valid key");
+        }
+        Conversion conversion;
+        IniConfBinder<?> nested = null;
+        if (valueType == String.class) {
+            conversion = Conversion.STRING;
+        } else if (valueType == int.class || valueType == Integer.class) {
+            conversion = Conversion.INT;
+        } else if (valueType == long.class || valueType == Long.class) {
+            conversion = Conversion.LONG;
+        } else if (valueType == double.class || valueType == Double.class) {
+            conversion = Conversion.DOUBLE;
+        } else if (valueType == boolean.class || valueType == Boolean.class) {
+            conversion = Conversion.BOOLEAN;
+        } else if (valueType == Duration.class) {
+            conversion = Conversion.DURATION;
+        } else if (valueType.isRecord() || valueType.isInterface()) {
+            conversion = Conversion.SECTION;
+            nested = compile(valueType, enclosing);
+        } else {
+            throw unsupported(owner, name, type);
+        }
+        return new Property(name, key, alternativeKey, conversion, optional, nested);
+    }
+
+    private static IllegalArgumentException unsupported(Class<?> owner, String name, Type type) {
+        return new IllegalArgumentException("Property " + name + " of " + owner.getName()
+                + " has the unsupported type " + type.getTypeName());
+    }
+
+    private static String accessorName(String name) {
+        for (String prefix : new String[] {"get", "is"}) {
+            if (name.length() > prefix.length() && name.startsWith(prefix)
+                    && Character.isUpperCase(name.charAt(prefix.length()))) {
+                return Character.toLowerCase(name.charAt(prefix.length())) + name.substring(prefix.length() + 1);
+            }
+        }
+        return name;
+    }
+
+    private static String snakeCase(String name) {
+        StringBuilder result = new StringBuilder(name.length() + 4);
+        for (int index = 0; index < name.length(); index++) {
+            char current = name.charAt(index);
+            if (index > 0 && Character.isUpperCase(current) && name.charAt(index - 1) != '_') {
+                result.append('_');
+            }
+            result.append(current);
+        }
+        return result.toString().toLowerCase(Locale.ROOT);
+    }
+
+    /**
+     * Returns the type bound by this binder.
+     * @return the record class or interface bound by this binder
+     */
+    public Class<T> type() {
+        return type;
+    }
+
+    /**
+     * Binds the specified section to a new instance of the target type. All properties are converted before the
+     * instance is created, so a returned instance never fails later because of the configuration.
+     * @param section the section to be bound
+     * @return a new instance of the target type
+     * @throws NullPointerException if {@code section} is {@code null}
+     * @throws IllegalArgumentException if required keys or subsections are missing or values cannot be converted;
+     * the message lists every problem
+     */
+    public T bind(IniConf section) {
+        Objects.requireNonNull(section, "section must not be null");
+        List<String> errors = new ArrayList<>();
+        T result = bind(section, "", errors);
+        if (!errors.isEmpty()) {
+            throw new IllegalArgumentException("Cannot bind " + type.getName() + ": " + String.join("; ", errors));
+        }
+        return result;
+    }
+
+    private T bind(IniConf section, String prefix, List<String> errors) {
+        Object[] values = new Object[properties.length];
+        int errorCount = errors.size();
+        for (int index = 0; index < properties.length; index++) {
+            values[index] = read(section, properties[index], prefix, errors);
+        }
+        if (errors.size() != errorCount) {
+            return null;
+        }
+        if (constructor != null) {
+            try {
+                return type.cast(constructor.invokeExact(values));
+            } catch (RuntimeException | Error e) {
+                throw e;
+            } catch (Throwable e) {
+                throw new IllegalStateException("Cannot create an instance of " + type.getName(), e);
+            }
+        }
+        return type.cast(Proxy.newProxyInstance(type.getClassLoader(), new Class<?>[] {type},
+                new Handler(type, accessors, defaultMethods, properties, values)));
+    }
+
+    private static Object read(IniConf section, Property property, String prefix, List<String> errors) {
+        String key = property.key;
+        Object value;
+        if (property.conversion == Conversion.SECTION) {
+            IniConf child = section.getChild(key);
+            if (child == null && !key.equals(property.alternativeKey)) {
+                key = property.alternativeKey;
+                child = section.getChild(key);
+            }
+            value = child == null ? null : property.nested.bind(child, prefix + key + ".", errors);
+            if (child == null && !property.optional) {
+                errors.add("missing section '" + prefix + property.key + "'");
+            }
+        } else {
+            IniConfValue slot = section.typedValueNormalized(key);
+            if (slot == null && !key.equals(property.alternativeKey)) {
+                key = property.alternativeKey;
+                slot = section.typedValueNormalized(key);
+            }
+            if (slot == null) {
+                if (!property.optional) {
+                    errors.add("missing key '" + prefix + property.key + "'");
+                }
+                value = null;
+            } else {
+                try {
+                    value = convert(slot, property.conversion, prefix + key);
+                } catch (IllegalArgumentException e) {
+                    errors.add(e.getMessage());
+                    value = null;
+                }
+            }
+        }
+        return property.optional ? Optional.ofNullable(value) : value;
+    }
+
+    private static Object convert(IniConfValue value, Conversion conversion, String key) {
+        return switch (conversion) {
+            case STRING -> value.text();
+            case INT -> value.asInt(key);
+            case LONG -> value.asLong(key);
+            case DOUBLE -> value.asDouble(key);
+            case BOOLEAN -> value.asBoolean(key);
+            case DURATION -> value.asDuration(key);
+            case SECTION -> throw new IllegalStateException("sections are not converted");
+        };
+    }
+
+    /**
+     * Implements a bound interface by returning the values converted at bind time.
+     */
+    private record Handler(Class<?> type, Map<Method, Integer> accessors, Map<Method, MethodHandle> defaultMethods,
+                           Property[] properties, Object[] values) implements InvocationHandler {
+
+        @Override
+        public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+            Integer index = accessors.get(method);
+            if (index != null) {
+                return values[index];
+            }
+            MethodHandle defaultMethod = defaultMethods.get(method);
+            if (defaultMethod != null) {
+                Object[] arguments = new Object[method.getParameterCount() + 1];
+                arguments[0] = proxy;
+                if (args != null) {
+                    System.arraycopy(args, 0, arguments, 1, args.length);
+                }
+                return defaultMethod.invokeWithArguments(arguments);
+            }
+            // the only other methods dispatched to a proxy are equals, hashCode and toString of Object
+            if (args != null) {
+                return proxy == args[0];
+            }
+            return method.getName().equals("hashCode") ? System.identityHashCode(proxy) : describe();
+        }
+
+        private String describe() {
+            StringBuilder result = new StringBuilder(type.getSimpleName()).append('[');
+            for (int index = 0; index < properties.length; index++) {
+                if (index > 0) {
+                    result.append(", ");
+                }
+                result.append(properties[index].name).append('=').append(values[index]);
+            }
+            return result.append(']').toString();
+        }
+    }
+}
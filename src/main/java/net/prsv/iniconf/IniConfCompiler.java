@@ -0,0 +1,315 @@
+package net.prsv.iniconf;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.CharacterCodingException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.Queue;
+import java.util.zip.CRC32C;
+
+/**
+ * Compiles configurations into a binary format that can be loaded without parsing, and loads compiled files as
+ * {@link CompiledIniConf}s.
+ * <p>
+ * A compiled file starts with a 32-byte header: the magic number {@code JICF}, the format version, the size and
+ * modification time of the {@code .ini} file it was compiled from (or {@code -1} if it was compiled from an
+ * {@code IniConf}), the CRC-32C checksum of the rest of the file, and the length of the rest of the file. The body
+ * consists of a string table holding every distinct key, value, and section name once, a section table listing the
+ * sections in breadth-first order, so that the subsections of a section are adjacent, and a property table holding
+ * the key and value string indexes of the properties of each section, again adjacent. All integers are big-endian.
+ * <p>
+ * Files are loaded by memory-mapping them and verifying the header and the checksum. Nothing else is decoded up
+ * front; each section decodes its own entries on first access.
+ */
+public final class IniConfCompiler {
+
+    static final int MAGIC = 0x4A494346;
+    static final int VERSION = 1;
+    static final int HEADER_SIZE = 32;
+    /** Size of a section table entry: name, first property, property count, first subsection, subsection count. */
+    static final int SECTION_ENTRY_SIZE = 20;
+    /** Size of a property table entry: key and value. */
+    static final int PROPERTY_ENTRY_SIZE = 8;
+    /** Name index of the root section, which has no name. */
+    static final int NO_NAME = -1;
+
+    private static final int CHECKSUM_OFFSET = 24;
+    private static final int LENGTH_OFFSET = 28;
+    private static final int NO_SOURCE = -1;
+
+    // do not instantiate
+    private IniConfCompiler() {}
+
+    /**
+     * Compiles the specified configuration into a file.
+     * @param dict the configuration to be compiled
+     * @param target path of the compiled file
+     * @return {@code true} if the file was written successfully, or {@code false} if an I/O error occurred or a
+     * string cannot be encoded as UTF-8
+     * @throws NullPointerException if {@code dict} or {@code target} is {@code null}
+     */
+    public static boolean compile(IniConf dict, Path target) {
+        Objects.requireNonNull(dict, "dict must not be null");
+        Objects.requireNonNull(target, "target must not be null");
+        try {
+            return write(target, encode(dict, NO_SOURCE, NO_SOURCE));
+        } catch (CharacterCodingException e) {
+            return false;
+        }
+    }
+
+    /**
+     * Reads a UTF-8 encoded {@code .ini} file and compiles it into a file. The size and modification time of the
+     * source are recorded, so that {@link #load(Path, Path)} can detect when the compiled file is out of date.
+     * @param source path of the {@code .ini} file
+     * @param target path of the compiled file
+     * @return {@code true} if the file was compiled successfully, or {@code false} if an I/O error occurred
+     * @throws NullPointerException if {@code source} or {@code target} is {@code null}
+     * @throws IniConfFormatException if the source contains a malformed line, section header, or property value
+     */
+    public static boolean compile(Path source, Path target) {
+        Objects.requireNonNull(target, "target must not be null");
+        Optional<byte[]> compiled = compileSource(source);
+        return compiled.isPresent() && write(target, compiled.get());
+    }
+
+    /**
+     * Loads a compiled file. The file is memory-mapped, and its header and checksum are verified.
+     * @param compiled path of the compiled file
+     * @return the resulting {@code Optional<CompiledIniConf>}, or {@code Optional.empty()} if the file cannot be read,
+     * is not a compiled configuration, was written by an incompatible version, or is corrupt
+     * @throws NullPointerException if {@code compiled} is {@code null}
+     */
+    public static Optional<CompiledIniConf> load(Path compiled) {
+        Objects.requireNonNull(compiled, "compiled must not be null");
+        return map(compiled).filter(IniConfCompiler::isValid).map(CompiledIniConf::root);
+    }
+
+    /**
+     * Loads a compiled file, falling back to its {@code .ini} source if the compiled file is missing, corrupt, or
+     * out of date. A compiled file is out of date if the size or modification time of the source differs from the
+     * values recorded when it was compiled. On fallback, the source is compiled again and the compiled file is
+     * replaced; if it cannot be written, the configuration is still returned.
+     * @param compiled path of the compiled file
+     * @param source path of the {@code .ini} file it is compiled from
+     * @return the resulting {@code Optional<CompiledIniConf>}, or {@code Optional.empty()} if neither a valid compiled
+     * file nor the source can be read
+     * @throws NullPointerException if {@code compiled} or {@code source} is {@code null}
+     * @throws IniConfFormatException if the source has to be parsed and contains a malformed line, section header, or
+     * property value
+     */
+    public static Optional<CompiledIniConf> load(Path compiled, Path source) {
+        Objects.requireNonNull(compiled, "compiled must not be null");
+        Objects.requireNonNull(source, "source must not be null");
+        Optional<ByteBuffer> mapped = map(compiled).filter(IniConfCompiler::isValid);
+        Optional<long[]> stamp = stamp(source);
+        if (mapped.isPresent() && (stamp.isEmpty() || matches(mapped.get(), stamp.get()))) {
+            return mapped.map(CompiledIniConf::root);
+        }
+        Optional<byte[]> recompiled = compileSource(source);
+        recompiled.ifPresent(bytes -> write(compiled, bytes));
+        return recompiled.map(bytes -> CompiledIniConf.root(ByteBuffer.wrap(bytes)));
+    }
+
+    private static Optional<byte[]> compileSource(Path source) {
+        Optional<long[]> stamp = stamp(source);
+        if (stamp.isEmpty()) {
+            return Optional.empty();
+        }
+        Optional<IniConf> dict = IniConfReader.read(source);
+        if (dict.isEmpty()) {
+            return Optional.empty();
+        }
+        try {
+            return Optional.of(encode(dict.get(), stamp.get()[0], stamp.get()[1]));
+        } catch (CharacterCodingException e) {
+            return Optional.empty();
+        }
+    }
+
+    /**
+     * Returns the size and the modification time in milliseconds of a file.
+     */
+    private static Optional<long[]> stamp(Path source) {
+        Objects.requireNonNull(source, "source must not be null");
+        try {
+            BasicFileAttributes attributes = Files.readAttributes(source, BasicFileAttributes.class);
+            return Optional.of(new long[] {attributes.size(), attributes.lastModifiedTime().toMillis()});
+        } catch (IOException e) {
+            return Optional.empty();
+        }
+    }
+
+    private static boolean matches(ByteBuffer buffer, long[] stamp) {
+        return buffer.getLong(8) == stamp[0] && buffer.getLong(16) == stamp[1];
+    }
+
+    /**
+     * Writes a compiled file to a temporary file and renames it, so that configurations still mapping the previous
+     * file keep their content instead of seeing a truncated file.
+     */
+    private static boolean write(Path target, byte[] bytes) {
+        Path absolute = target.toAbsolutePath();
+        Path temporary = null;
+        try {
+            temporary = Files.createTempFile(absolute.getParent(), absolute.getFileName().toString(), ".tmp");
+            Files.write(temporary, bytes);
+            try {
+                Files.move(temporary, absolute, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            } catch (AtomicMoveNotSupportedException e) {
+                Files.move(temporary, absolute, StandardCopyOption.REPLACE_EXISTING);
+            }
+        } catch (IOException e) {
+            if (temporary != null) {
+                try {
+                    Files.deleteIfExists(temporary);
+                } catch (IOException ignored) {
+                    // the write has failed anyway
+                }
+            }
+            return false;
+        }
+        return true;
+    }
+
+    private static Optional<ByteBuffer> map(Path compiled) {
+        try (FileChannel channel = FileChannel.open(compiled, StandardOpenOption.READ)) {
+            long size = channel.size();
+            if (size < HEADER_SIZE || size > Integer.MAX_VALUE) {
+                return Optional.empty();
+            }
+            return Optional.of(channel.map(FileChannel.MapMode.READ_ONLY, 0, size));
+        } catch (IOException e) {
+            return Optional.empty();
+        }
+    }
+
+    private static boolean isValid(ByteBuffer buffer) {
+        if (buffer.getInt(0) != MAGIC || buffer.getInt(4) != VERSION
+                || buffer.getInt(LENGTH_OFFSET) != buffer.capacity() - HEADER_SIZE) {
+            return false;
+        }
+        CRC32C checksum = new CRC32C();
+        checksum.update(buffer.duplicate().position(HEADER_SIZE));
+        return (int) checksum.getValue() == buffer.getInt(CHECKSUM_OFFSET);
+    }
+
+    /**
+     * Encodes a configuration. Sections are numbered in breadth-first order, so the subsections of each section
+     * occupy consecutive section table entries, and properties are numbered in the same order.
+     */
+    static byte[] encode(IniConf dict, long sourceSize, long sourceModified) throws CharacterCodingException {
+        List<IniConf> sections = new ArrayList<>();
+        List<String> names = new ArrayList<>();
+        Queue<IniConf> pending = new ArrayDeque<>();
+        pending.add(dict);
+        names.add(null);
+        while (!pending.isEmpty()) {
+            IniConf current = pending.remove();
+            sections.add(current);
+            for (Map.Entry<String, IniConf> child : current.getSections().entrySet()) {
+                pending.add(child.getValue());
+                names.add(child.getKey());
+            }
+        }
+
+        Map<String, Integer> stringIndexes = new HashMap<>();
+        List<byte[]> strings = new ArrayList<>();
+        ByteArrayOutputStream sectionTable = new ByteArrayOutputStream();
+        ByteArrayOutputStream propertyTable = new ByteArrayOutputStream();
+        try {
+            DataOutputStream sectionOutput = new DataOutputStream(sectionTable);
+            DataOutputStream propertyOutput = new DataOutputStream(propertyTable);
+            int propertyCount = 0;
+            int nextChild = 1;
+            for (int index = 0; index < sections.size(); index++) {
+                IniConf section = sections.get(index);
+                String name = names.get(index);
+                sectionOutput.writeInt(name == null ? NO_NAME : intern(name, stringIndexes, strings));
+                sectionOutput.writeInt(propertyCount);
+                sectionOutput.writeInt(section.getProperties().size());
+                sectionOutput.writeInt(nextChild);
+                sectionOutput.writeInt(section.getSections().size());
+                for (Map.Entry<String, String> property : section.getProperties().entrySet()) {
+                    propertyOutput.writeInt(intern(property.getKey(), stringIndexes, strings));
+                    propertyOutput.writeInt(intern(property.getValue(), stringIndexes, strings));
+                }
+                propertyCount += section.getProperties().size();
+                nextChild += section.getSections().size();
+            }
+
+            ByteArrayOutputStream file = new ByteArrayOutputStream();
+            DataOutputStream output = new DataOutputStream(file);
+            output.writeInt(MAGIC);
+            output.writeInt(VERSION);
+            output.writeLong(sourceSize);
+            output.writeLong(sourceModified);
+            output.writeInt(0);
+            output.writeInt(0);
+            output.writeInt(strings.size());
+            int offset = 0;
+            for (byte[] string : strings) {
+                output.writeInt(offset);
+                offset += string.length;
+            }
+            output.writeInt(offset);
+            for (byte[] string : strings) {
+                output.write(string);
+            }
+            output.writeInt(sections.size());
+            sectionTable.writeTo(output);
+            output.writeInt(propertyCount);
+            propertyTable.writeTo(output);
+            output.flush();
+
+            ByteBuffer buffer = ByteBuffer.wrap(file.toByteArray());
+            CRC32C checksum = new CRC32C();
+            checksum.update(buffer.duplicate().position(HEADER_SIZE));
+            buffer.putInt(CHECKSUM_OFFSET, (int) checksum.getValue());
+            buffer.putInt(LENGTH_OFFSET, buffer.capacity() - HEADER_SIZE);
+            return buffer.array();
+        } catch (CharacterCodingException e) {
+            throw e;
+        } catch (IOException e) {
+            // byte array streams do not throw
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * Returns the string table index of a string, adding it to the table first if necessary. Unlike
+     * {@link String#getBytes(java.nio.charset.Charset)}, the encoder rejects unpaired surrogates.
+     */
+    private static int intern(String string, Map<String, Integer> indexes, List<byte[]> strings)
+            throws CharacterCodingException {
+        Integer index = indexes.get(string);
+        if (index == null) {
+            ByteBuffer encoded = StandardCharsets.UTF_8.newEncoder().encode(CharBuffer.wrap(string));
+            byte[] bytes = new byte[encoded.remaining()];
+            encoded.get(bytes);
+            index = strings.size();
+            strings.add(bytes);
+            indexes.put(string, index);
+        }
+        return index;
+    }
+
+}
@@ -0,0 +1,216 @@
+package net.prsv.iniconf;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+
+/**
+ * The differences between two configurations, created by {@link IniConf#diff(IniConf)}. A diff is an ordered list of
+ * {@link Change}s that turns the first configuration into the second one when it is replayed with
+ * {@link IniConf#apply(IniConfDiff)}. Diffs are immutable and can be shared between threads.
+ * <p>
+ * Changes are listed section by section in the order in which {@link IniConfWriter} writes the sections of the
+ * second configuration; within a section, changed and removed properties come first, followed by added properties
+ * and removed subsections. An added section is reported together with all of its properties and subsections, so that
+ * it can be recreated; a removed section is reported as a single change.
+ */
+public final class IniConfDiff {
+
+    /**
+     * The kind of a {@link Change}.
+     */
+    public enum Kind {
+        /** A property or section exists only in the second configuration. */
+        ADDED,
+        /** A property or section exists only in the first configuration. */
+        REMOVED,
+        /** A property has different values in the two configurations. */
+        CHANGED
+    }
+
+    /**
+     * A single change to a property or a section.
+     * @param kind the kind of the change
+     * @param section the normalized dotted path of the section containing the property, or of the section itself if
+     *                {@code key} is {@code null}; the empty string denotes the root
+     * @param key the normalized key of the property, or {@code null} if the change adds or removes a whole section
+     * @param oldValue the value in the first configuration, or {@code null} if the property was added or the change
+     *                 concerns a section
+     * @param newValue the value in the second configuration, or {@code null} if the property was removed or the
+     *                 change concerns a section
+     */
+    public record Change(Kind kind, String section, String key, String oldValue, String newValue) {
+
+        /**
+         * Checks whether this change adds or removes a whole section rather than a single property.
+         * @return {@code true} if this change concerns a section, {@code false} otherwise
+         */
+        public boolean isSectionChange() {
+            return key == null;
+        }
+
+        @Override
+        public String toString() {
+            if (key == null) {
+                return (kind == Kind.ADDED ? "+ [" : "- [") + section + ']';
+            }
+            String qualifiedKey = section.isEmpty() ? key : section + '.' + key;
+            return switch (kind) {
+                case ADDED -> "+ " + qualifiedKey + " = " + newValue;
+                case REMOVED -> "- " + qualifiedKey + " = " + oldValue;
+                case CHANGED -> "~ " + qualifiedKey + " = " + oldValue + " -> " + newValue;
+            };
+        }
+    }
+
+    /** A pair of sections to be compared; {@code from} is {@code null} for sections that exist only in {@code to}. */
+    private record Frame(IniConf from, IniConf to, String path) {
+    }
+
+    private final List<Change> changes;
+
+    private IniConfDiff(List<Change> changes) {
+        this.changes = Collections.unmodifiableList(changes);
+    }
+
+    /**
+     * Computes the changes that turn {@code from} into {@code to}. Pairs of sections are compared by their cached
+     * hash codes first: sections whose hash codes differ are compared property by property, while sections with
+     * equal hash codes are skipped as a whole, after being confirmed with {@link IniConf#equals(Object)} unless
+     * {@code trustHashCodes} is {@code true}. Identical section objects are skipped without any comparison.
+     */
+    static IniConfDiff compute(IniConf from, IniConf to, boolean trustHashCodes) {
+        List<Change> changes = new ArrayList<>();
+        Deque<Frame> pending = new ArrayDeque<>();
+        pending.push(new Frame(from, to, ""));
+        while (!pending.isEmpty()) {
+            Frame frame = pending.pop();
+            IniConf left = frame.from();
+            IniConf right = frame.to();
+            String path = frame.path();
+            if (left == right || left != null && left.hashCode() == right.hashCode()
+                    && (trustHashCodes || left.equals(right))) {
+                continue;
+            }
+            Map<String, String> rightProperties = right.getProperties();
+            if (left == null) {
+                changes.add(new Change(Kind.ADDED, path, null, null, null));
+                for (Map.Entry<String, String> property : rightProperties.entrySet()) {
+                    changes.add(new Change(Kind.ADDED, path, property.getKey(), null, property.getValue()));
+                }
+            } else {
+                Map<String, String> leftProperties = left.getProperties();
+                for (Map.Entry<String, String> property : leftProperties.entrySet()) {
+                    String newValue = rightProperties.get(property.getKey());
+                    if (newValue == null) {
+                        changes.add(new Change(Kind.REMOVED, path, property.getKey(), property.getValue(), null));
+                    } else if (!newValue.equals(property.getValue())) {
+                        changes.add(new Change(Kind.CHANGED, path, property.getKey(), property.getValue(), newValue));
+                    }
+                }
+                for (Map.Entry<String, String> property : rightProperties.entrySet()) {
+                    if (!leftProperties.containsKey(property.getKey())) {
+                        changes.add(new Change(Kind.ADDED, path, property.getKey(), null, property.getValue()));
+                    }
+                }
+                for (String name : left.getSections().keySet()) {
+                    if (right.getChild(name) == null) {
+                        changes.add(new Change(Kind.REMOVED, childPath(path, name), null, null, null));
+                    }
+                }
+            }
+            List<Frame> children = new ArrayList<>();
+            for (Map.Entry<String, IniConf> section : right.getSections().entrySet()) {
+                IniConf leftChild = left == null ? null : left.getChild(section.getKey());
+                children.add(new Frame(leftChild, section.getValue(), childPath(path, section.getKey())));
+            }
+            for (int index = children.size() - 1; index >= 0; index--) {
+                pending.push(children.get(index));
+            }
+        }
+        return new IniConfDiff(changes);
+    }
+
+    private static String childPath(String path, String name) {
+        return path.isEmpty() ? name : path + '.' + name;
+    }
+
+    /**
+     * Replays the changes onto {@code target} in order. Added properties and changed values are stored with
+     * {@code put}, creating missing sections; removals of properties or sections that do not exist are ignored.
+     * Old values are not checked, so a diff can be applied to any configuration.
+     */
+    void applyTo(IniConf target) {
+        for (Change change : changes) {
+            String path = change.section();
+            if (change.kind() == Kind.REMOVED) {
+                if (change.key() == null) {
+                    int separator = path.lastIndexOf('.');
+                    IniConf parent = separator < 0 ? target : find(target, path.substring(0, separator));
+                    if (parent != null) {
+                        parent.detachChild(path.substring(separator + 1));
+                    }
+                } else {
+                    IniConf section = find(target, path);
+                    if (section != null) {
+                        section.removeNormalized(change.key());
+                    }
+                }
+            } else {
+                IniConf section = path.isEmpty() ? target : target.getOrCreateSection(path);
+                if (change.key() != null) {
+                    section.putNormalized(change.key(), change.newValue());
+                }
+            }
+        }
+    }
+
+    private static IniConf find(IniConf target, String path) {
+        return path.isEmpty() ? target : target.getSection(path);
+    }
+
+    /**
+     * Returns the changes in the order in which they are applied.
+     * @return an unmodifiable list of the changes
+     */
+    public List<Change> changes() {
+        return changes;
+    }
+
+    /**
+     * Checks whether the two configurations were equal.
+     * @return {@code true} if this diff contains no changes
+     */
+    public boolean isEmpty() {
+        return changes.isEmpty();
+    }
+
+    /**
+     * Returns a representation of this diff with one change per line, such as {@code + a.b.key = value} for an
+     * added property, {@code - [a.c]} for a removed section, or {@code ~ key = old -> new} for a changed value.
+     * @return a string representation of this diff
+     */
+    @Override
+    public String toString() {
+        StringBuilder result = new StringBuilder();
+        for (Change change : changes) {
+            result.append(change).append('\n');
+        }
+        return result.toString();
+    }
+
+    @Override
+    public boolean equals(Object other) {
+        return this == other || other instanceof IniConfDiff diff && changes.equals(diff.changes);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hashCode(changes);
+    }
+
+}
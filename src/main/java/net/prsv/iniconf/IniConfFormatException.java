@@ -13,6 +13,9 @@ public final class IniConfFormatException extends IllegalArgumentException {
     /** One-based line number containing the malformed content. */
     private final int lineNumber;
 
+    /** Description of the format error. */
+    private final String detail;
+
     /**
      * Constructs an exception describing malformed INI content at the specified line.
      * @param lineNumber one-based line number containing the malformed content
@@ -24,6 +27,7 @@ public final class IniConfFormatException extends IllegalArgumentException {
             throw new IllegalArgumentException("lineNumber must be positive");
         }
         this.lineNumber = lineNumber;
+        this.detail = detail;
     }
 
     /**
@@ -33,4 +37,12 @@ public final class IniConfFormatException extends IllegalArgumentException {
     public int getLineNumber() {
         return lineNumber;
     }
+
+    /**
+     * Returns an exception describing the same error at a line {@code offset} lines further down. Used when a part
+     * of the input was parsed with line numbers relative to the start of that part.
+     */
+    IniConfFormatException withLineOffset(int offset) {
+        return new IniConfFormatException(lineNumber + offset, detail);
+    }
 }
@@ -0,0 +1,35 @@
+package net.prsv.iniconf;
+
+/**
+ * Receives the content of INI input as a sequence of events, in input order, without building an {@link IniConf}.
+ * Parsing with a handler uses memory independent of the size of the input, which makes it possible to pick out a few
+ * keys or to forward every property to another store.
+ * Keys and section paths are reported in lowercase, and values are reported exactly as {@link IniConf} would store
+ * them: decoded, validated, and stripped of leading and trailing whitespace. All methods do nothing by default.
+ * @see IniConfReader#parse(java.io.Reader, IniConfHandler)
+ */
+public interface IniConfHandler {
+
+    /**
+     * Called for every section header. Subsequent properties belong to this section until the next header.
+     * @param path the full dotted path of the section
+     */
+    default void onSection(String path) {
+    }
+
+    /**
+     * Called for every property, in the section reported by the most recent call to {@link #onSection(String)},
+     * or at the root if no section header precedes it.
+     * @param key the property key
+     * @param value the decoded property value
+     */
+    default void onProperty(String key, String value) {
+    }
+
+    /**
+     * Called for every comment line.
+     * @param comment the text following the {@code ;} or {@code #} comment marker
+     */
+    default void onComment(String comment) {
+    }
+}
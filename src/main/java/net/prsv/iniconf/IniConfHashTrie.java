@@ -0,0 +1,295 @@
+package net.prsv.iniconf;
+
+import java.util.AbstractMap;
+import java.util.AbstractSet;
+import java.util.ArrayDeque;
+import java.util.Arrays;
+import java.util.Deque;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Set;
+
+/**
+ * An immutable hash array mapped trie with {@link String} keys, used by {@link PersistentIniConf}. Every update
+ * returns a new trie that shares all nodes off the path to the updated key with the original, so an update allocates
+ * O(log n) memory. Each node consumes five bits of the key hash; keys whose hashes are equal end up in a collision
+ * node. Iteration order is unspecified.
+ * @param <V> the type of the values
+ */
+final class IniConfHashTrie<V> {
+
+    private static final int BITS = 5;
+    private static final int MASK = (1 << BITS) - 1;
+
+    private static final IniConfHashTrie<?> EMPTY = new IniConfHashTrie<>(new BitmapNode(0, new Object[0]), 0);
+
+    /**
+     * A trie node. Nodes store keys and values in a flat array of pairs; a pair whose key is {@code null} holds a
+     * child node in place of the value.
+     */
+    private abstract static sealed class Node permits BitmapNode, CollisionNode {
+
+        final Object[] array;
+
+        Node(Object[] array) {
+            this.array = array;
+        }
+
+        abstract Object find(int shift, int hash, String key);
+
+        /**
+         * Returns a node containing the mapping, or this node if it already contains it. {@code added[0]} is set if
+         * the key was not present before.
+         */
+        abstract Node put(int shift, int hash, String key, Object value, boolean[] added);
+    }
+
+    private static final class BitmapNode extends Node {
+
+        private final int bitmap;
+
+        BitmapNode(int bitmap, Object[] array) {
+            super(array);
+            this.bitmap = bitmap;
+        }
+
+        @Override
+        Object find(int shift, int hash, String key) {
+            int bit = 1 << ((hash >>> shift) & MASK);
+            if ((bitmap & bit) == 0) {
+                return null;
+            }
+            int index = 2 * Integer.bitCount(bitmap & (bit - 1));
+            Object storedKey = array[index];
+            if (storedKey == null) {
+                return ((Node) array[index + 1]).find(shift + BITS, hash, key);
+            }
+            return key.equals(storedKey) ? array[index + 1] : null;
+        }
+
+        @Override
+        Node put(int shift, int hash, String key, Object value, boolean[] added) {
+            int bit = 1 << ((hash >>> shift) & MASK);
+            int index = 2 * Integer.bitCount(bitmap & (bit - 1));
+            if ((bitmap & bit) == 0) {
+                Object[] copy = new Object[array.length + 2];
+                System.arraycopy(array, 0, copy, 0, index);
+                copy[index] = key;
+                copy[index + 1] = value;
+                System.arraycopy(array, index, copy, index + 2, array.length - index);
+                added[0] = true;
+                return new BitmapNode(bitmap | bit, copy);
+            }
+            Object storedKey = array[index];
+            Object storedValue = array[index + 1];
+            if (storedKey == null) {
+                Node child = ((Node) storedValue).put(shift + BITS, hash, key, value, added);
+                return child == storedValue ? this : replace(index, null, child);
+            }
+            if (key.equals(storedKey)) {
+                return storedValue == value ? this : replace(index, storedKey, value);
+            }
+            added[0] = true;
+            return replace(index, null, pair(shift + BITS, (String) storedKey, storedValue, hash, key, value));
+        }
+
+        private BitmapNode replace(int index, Object key, Object value) {
+            Object[] copy = array.clone();
+            copy[index] = key;
+            copy[index + 1] = value;
+            return new BitmapNode(bitmap, copy);
+        }
+
+        /**
+         * Creates a node holding two different keys. Keys with different hashes are split within the 32 hash bits,
+         * so only keys with equal hashes need a collision node.
+         */
+        private static Node pair(int shift, String firstKey, Object firstValue,
+                                 int secondHash, String secondKey, Object secondValue) {
+            int firstHash = hash(firstKey);
+            if (firstHash == secondHash) {
+                return new CollisionNode(firstHash, new Object[] {firstKey, firstValue, secondKey, secondValue});
+            }
+            boolean[] ignored = new boolean[1];
+            return new BitmapNode(0, new Object[0])
+                    .put(shift, firstHash, firstKey, firstValue, ignored)
+                    .put(shift, secondHash, secondKey, secondValue, ignored);
+        }
+    }
+
+    private static final class CollisionNode extends Node {
+
+        private final int hash;
+
+        CollisionNode(int hash, Object[] array) {
+            super(array);
+            this.hash = hash;
+        }
+
+        @Override
+        Object find(int shift, int hash, String key) {
+            if (hash == this.hash) {
+                for (int index = 0; index < array.length; index += 2) {
+                    if (key.equals(array[index])) {
+                        return array[index + 1];
+                    }
+                }
+            }
+            return null;
+        }
+
+        @Override
+        Node put(int shift, int hash, String key, Object value, boolean[] added) {
+            if (hash != this.hash) {
+                int bit = 1 << ((this.hash >>> shift) & MASK);
+                return new BitmapNode(bit, new Object[] {null, this}).put(shift, hash, key, value, added);
+            }
+            for (int index = 0; index < array.length; index += 2) {
+                if (key.equals(array[index])) {
+                    if (array[index + 1] == value) {
+                        return this;
+                    }
+                    Object[] copy = array.clone();
+                    copy[index + 1] = value;
+                    return new CollisionNode(hash, copy);
+                }
+            }
+            Object[] copy = Arrays.copyOf(array, array.length + 2);
+            copy[array.length] = key;
+            copy[array.length + 1] = value;
+            added[0] = true;
+            return new CollisionNode(hash, copy);
+        }
+    }
+
+    private final Node root;
+    private final int size;
+
+    private IniConfHashTrie(Node root, int size) {
+        this.root = root;
+        this.size = size;
+    }
+
+    @SuppressWarnings("unchecked")
+    static <V> IniConfHashTrie<V> empty() {
+        return (IniConfHashTrie<V>) EMPTY;
+    }
+
+    private static int hash(String key) {
+        int hash = key.hashCode();
+        return hash ^ (hash >>> 16);
+    }
+
+    int size() {
+        return size;
+    }
+
+    boolean isEmpty() {
+        return size == 0;
+    }
+
+    @SuppressWarnings("unchecked")
+    V get(String key) {
+        return (V) root.find(0, hash(key), key);
+    }
+
+    /**
+     * Returns a trie with the specified mapping, or this trie if it already maps the key to the same value object.
+     */
+    IniConfHashTrie<V> put(String key, V value) {
+        boolean[] added = new boolean[1];
+        Node updated = root.put(0, hash(key), key, value, added);
+        return updated == root ? this : new IniConfHashTrie<>(updated, added[0] ? size + 1 : size);
+    }
+
+    /**
+     * Returns an unmodifiable {@link Map} view of this trie.
+     */
+    Map<String, V> asMap() {
+        return new AbstractMap<>() {
+            @Override
+            public V get(Object key) {
+                return key instanceof String string ? IniConfHashTrie.this.get(string) : null;
+            }
+
+            @Override
+            public boolean containsKey(Object key) {
+                return get(key) != null;
+            }
+
+            @Override
+            public int size() {
+                return size;
+            }
+
+            @Override
+            public Set<Entry<String, V>> entrySet() {
+                return new AbstractSet<>() {
+                    @Override
+                    public Iterator<Entry<String, V>> iterator() {
+                        return new EntryIterator<>(root);
+                    }
+
+                    @Override
+                    public int size() {
+                        return size;
+                    }
+                };
+            }
+        };
+    }
+
+    /**
+     * Iterates over the pairs of all nodes depth first, keeping the position in each node on a stack.
+     */
+    private static final class EntryIterator<V> implements Iterator<Map.Entry<String, V>> {
+
+        private final Deque<Node> nodes = new ArrayDeque<>();
+        private final Deque<Integer> positions = new ArrayDeque<>();
+        private Map.Entry<String, V> next;
+
+        EntryIterator(Node root) {
+            nodes.push(root);
+            positions.push(0);
+            advance();
+        }
+
+        @SuppressWarnings("unchecked")
+        private void advance() {
+            next = null;
+            while (next == null && !nodes.isEmpty()) {
+                Node node = nodes.peek();
+                int position = positions.pop();
+                if (position == node.array.length) {
+                    nodes.pop();
+                    continue;
+                }
+                positions.push(position + 2);
+                Object key = node.array[position];
+                if (key == null) {
+                    nodes.push((Node) node.array[position + 1]);
+                    positions.push(0);
+                } else {
+                    next = new AbstractMap.SimpleImmutableEntry<>((String) key, (V) node.array[position + 1]);
+                }
+            }
+        }
+
+        @Override
+        public boolean hasNext() {
+            return next != null;
+        }
+
+        @Override
+        public Map.Entry<String, V> next() {
+            if (next == null) {
+                throw new NoSuchElementException();
+            }
+            Map.Entry<String, V> result = next;
+            advance();
+            return result;
+        }
+    }
+
+}
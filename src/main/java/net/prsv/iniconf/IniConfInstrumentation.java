@@ -0,0 +1,157 @@
+package net.prsv.iniconf;
+
+import jdk.jfr.Category;
+import jdk.jfr.DataAmount;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+import java.nio.file.Path;
+
+/**
+ * JDK Flight Recorder events and the registered {@link IniConfMetrics} listener. Events are only filled in and
+ * committed while a recording enables them, and timestamps for the listener are only taken while a listener is
+ * registered, so instrumented code costs a few field reads when neither is in use.
+ */
+final class IniConfInstrumentation {
+
+    private static final String CATEGORY = "JIniConf";
+
+    /** The registered listener, or {@code null} if there is none. */
+    static volatile IniConfMetrics listener;
+
+    @Name("net.prsv.iniconf.Parse")
+    @Label("INI Parse")
+    @Description("Parsing of INI content held in memory")
+    @Category(CATEGORY)
+    @StackTrace(false)
+    static final class ParseEvent extends Event {
+
+        @Label("Characters")
+        long characters;
+
+        @Label("Lines")
+        int lines;
+
+        @Label("Sections")
+        int sections;
+    }
+
+    @Name("net.prsv.iniconf.Read")
+    @Label("INI Read")
+    @Description("Reading and parsing of an INI file")
+    @Category(CATEGORY)
+    @StackTrace(false)
+    static final class ReadEvent extends Event {
+
+        @Label("Path")
+        String path;
+
+        @Label("Size")
+        @DataAmount
+        long bytes;
+
+        @Label("Lines")
+        int lines;
+
+        @Label("Sections")
+        int sections;
+    }
+
+    @Name("net.prsv.iniconf.Write")
+    @Label("INI Write")
+    @Description("Serialization of a configuration to a file or stream")
+    @Category(CATEGORY)
+    @StackTrace(false)
+    static final class WriteEvent extends Event {
+
+        @Label("Path")
+        String path;
+
+        @Label("Characters")
+        long characters;
+
+        @Label("Sections")
+        int sections;
+    }
+
+    // do not instantiate
+    private IniConfInstrumentation() {}
+
+    /**
+     * Returns the start time of a timed operation, or {@code 0} if no listener is registered.
+     */
+    static long startTime() {
+        return listener == null ? 0 : System.nanoTime();
+    }
+
+    /**
+     * Reports a lookup of {@code value}, which is {@code null} if the key was not found.
+     */
+    static void lookup(Object value) {
+        IniConfMetrics current = listener;
+        if (current != null) {
+            current.onLookup(value != null);
+        }
+    }
+
+    /**
+     * Completes the events of a finished parse of in-memory content.
+     */
+    static void parsed(ParseEvent event, long startTime, long characters, IniConfParser parser) {
+        if (event.shouldCommit()) {
+            event.characters = characters;
+            event.lines = parser.lineNumber();
+            event.sections = parser.sectionCount();
+            event.commit();
+        }
+        IniConfMetrics current = listener;
+        if (current != null && startTime != 0) {
+            current.onParse(null, parser.lineNumber(), parser.sectionCount(), System.nanoTime() - startTime);
+        }
+    }
+
+    /**
+     * Completes the events of a finished file read. {@code bytes} is only queried if the event is recorded.
+     */
+    static void read(ReadEvent event, long startTime, Path path, FileSize bytes, IniConfParser parser) {
+        if (event.shouldCommit()) {
+            event.path = path.toString();
+            event.bytes = bytes.get();
+            event.lines = parser.lineNumber();
+            event.sections = parser.sectionCount();
+            event.commit();
+        }
+        IniConfMetrics current = listener;
+        if (current != null && startTime != 0) {
+            current.onParse(path, parser.lineNumber(), parser.sectionCount(), System.nanoTime() - startTime);
+        }
+    }
+
+    /**
+     * Completes the events of a finished write. {@code path} is {@code null} for streams.
+     */
+    static void written(WriteEvent event, long startTime, Path path, long characters, int sections) {
+        if (event.shouldCommit()) {
+            event.path = path == null ? null : path.toString();
+            event.characters = characters;
+            event.sections = sections;
+            event.commit();
+        }
+        IniConfMetrics current = listener;
+        if (current != null && startTime != 0) {
+            current.onWrite(path, characters, sections, System.nanoTime() - startTime);
+        }
+    }
+
+    /**
+     * Supplies the size of a file that has been read, or {@code -1} if it cannot be determined.
+     */
+    @FunctionalInterface
+    interface FileSize {
+        long get();
+    }
+
+}
@@ -0,0 +1,92 @@
+package net.prsv.iniconf;
+
+import java.util.Objects;
+
+/**
+ * A precompiled property key in a precompiled section path, created by {@link IniConfPath#key(String)} or
+ * {@link IniConf#key(String)}. Lookups through a handle skip validation and normalization, resolve the section through
+ * its precompiled components, and perform a single hash lookup for the key. They allocate nothing.
+ */
+public final class IniConfKey {
+
+    private final IniConfPath path;
+    private final String key;
+
+    IniConfKey(IniConfPath path, String key) {
+        this.path = path;
+        this.key = key;
+    }
+
+    /**
+     * Returns the section path of this key.
+     * @return the section path of this key
+     */
+    public IniConfPath path() {
+        return path;
+    }
+
+    /**
+     * Returns the value of this key in {@code conf}, or {@code null} if no such value exists.
+     * @param conf the configuration to be searched
+     * @return the value of this key, or {@code null} if no such value exists
+     * @throws NullPointerException if {@code conf} is {@code null}
+     */
+    public String get(IniConf conf) {
+        IniConf section = path.getSection(conf);
+        String value = section == null ? null : section.getNormalized(key);
+        IniConfInstrumentation.lookup(value);
+        return value;
+    }
+
+    /**
+     * Returns the value of this key in {@code conf}, or {@code defaultValue} if no such value exists.
+     * @param conf the configuration to be searched
+     * @param defaultValue the value to be returned if there is no value for this key
+     * @return the value of this key, or {@code defaultValue} if no such value exists
+     * @throws NullPointerException if {@code conf} is {@code null}
+     */
+    public String getOrDefault(IniConf conf, String defaultValue) {
+        String value = get(conf);
+        return value == null ? defaultValue : value;
+    }
+
+    /**
+     * Checks whether {@code conf} contains a value for this key.
+     * @param conf the configuration to be checked
+     * @return {@code true} if {@code conf} contains a value for this key, {@code false} otherwise
+     * @throws NullPointerException if {@code conf} is {@code null}
+     */
+    public boolean isKey(IniConf conf) {
+        return get(conf) != null;
+    }
+
+    /**
+     * Associates the specified value with this key in {@code conf}, creating missing sections first, as
+     * {@link IniConf#put(String, String, String)} does.
+     * @param conf the configuration to be modified
+     * @param value value to be associated with this key; leading and trailing whitespace is removed before the
+     *              value is stored
+     * @return the value previously associated with this key, or {@code null} if there was no such value
+     * @throws NullPointerException if {@code conf} or {@code value} is {@code null}
+     * @throws IllegalArgumentException if {@code value} contains a line terminator or the NUL character
+     */
+    public String put(IniConf conf, String value) {
+        Objects.requireNonNull(conf, "conf must not be null");
+        String normalizedValue = IniConf.normalizeValue(value);
+        IniConf section = path.getSection(conf);
+        if (section == null) {
+            section = conf.getOrCreateSection(path.toString());
+        }
+        return section.putNormalized(key, normalizedValue);
+    }
+
+    /**
+     * Returns the normalized key, qualified with its section path if it has one.
+     * @return the qualified key
+     */
+    @Override
+    public String toString() {
+        String section = path.toString();
+        return section.isEmpty() ? key : section + "." + key;
+    }
+}
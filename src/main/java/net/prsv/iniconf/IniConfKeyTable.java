@@ -0,0 +1,369 @@
+package net.prsv.iniconf;
+
+import java.util.AbstractMap;
+import java.util.AbstractSet;
+import java.util.ConcurrentModificationException;
+import java.util.Iterator;
+import java.util.Locale;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Objects;
+import java.util.Set;
+
+/**
+ * An insertion-ordered map with normalized, lowercase {@link String} keys, used by {@link IniConf} for properties and
+ * subsections. Besides the usual exact lookup, a key or a region of a string can be looked up case-insensitively in
+ * place: ASCII queries are hashed and compared with their letters folded to lowercase, so no normalized copy of the
+ * query is allocated. The hash of a folded query equals the {@link String#hashCode()} of its lowercase form, which
+ * lets stored keys use their cached hash codes.
+ * <p>
+ * Entries are kept in an array in insertion order and located through an open-addressing index of positions in that
+ * array. Entries are their own {@link Map.Entry} objects, so iterating allocates only the iterator. Removed entries
+ * leave holes that are compacted when the array grows. Iterators are fail-fast.
+ * @param <V> the type of the values
+ */
+final class IniConfKeyTable<V> extends AbstractMap<String, V> {
+
+    private static final int MIN_CAPACITY = 4;
+
+    private static final class Node<V> implements Map.Entry<String, V> {
+
+        final String key;
+        final int hash;
+        V value;
+
+        Node(String key, int hash, V value) {
+            this.key = key;
+            this.hash = hash;
+            this.value = value;
+        }
+
+        @Override
+        public String getKey() {
+            return key;
+        }
+
+        @Override
+        public V getValue() {
+            return value;
+        }
+
+        @Override
+        public V setValue(V value) {
+            V previous = this.value;
+            this.value = Objects.requireNonNull(value);
+            return previous;
+        }
+
+        @Override
+        public boolean equals(Object other) {
+            return other instanceof Map.Entry<?, ?> entry
+                    && key.equals(entry.getKey()) && value.equals(entry.getValue());
+        }
+
+        @Override
+        public int hashCode() {
+            return hash ^ value.hashCode();
+        }
+
+        @Override
+        public String toString() {
+            return key + "=" + value;
+        }
+    }
+
+    /** Entries in insertion order; {@code null} marks a removed entry. */
+    private Node<V>[] entries;
+    /** Positions in {@link #entries} plus one, or {@code 0} for free slots. Twice as long as {@link #entries}. */
+    private int[] index;
+    /** The number of used positions in {@link #entries}, including holes. */
+    private int used;
+    private int size;
+    private int modCount;
+
+    /**
+     * Returns the entry with the specified key, which must already be normalized, or {@code null}.
+     */
+    Map.Entry<String, V> find(String key) {
+        return findNode(key);
+    }
+
+    private Node<V> findNode(String key) {
+        if (index == null) {
+            return null;
+        }
+        int hash = key.hashCode();
+        int mask = index.length - 1;
+        for (int slot = spread(hash) & mask; ; slot = (slot + 1) & mask) {
+            int position = index[slot];
+            if (position == 0) {
+                return null;
+            }
+            Node<V> node = entries[position - 1];
+            if (node.hash == hash && node.key.equals(key)) {
+                return node;
+            }
+        }
+    }
+
+    /**
+     * Returns the entry whose key equals the specified key converted to lowercase with {@link Locale#ROOT}, or
+     * {@code null}. Keys consisting of ASCII characters are looked up without allocating.
+     */
+    Map.Entry<String, V> findIgnoreCase(String key) {
+        return findIgnoreCase(key, 0, key.length());
+    }
+
+    /**
+     * Looks up the region of {@code key} between {@code start} and {@code end} as {@link #findIgnoreCase(String)}
+     * looks up a whole key.
+     */
+    Map.Entry<String, V> findIgnoreCase(String key, int start, int end) {
+        int hash = 0;
+        for (int position = start; position < end; position++) {
+            char c = key.charAt(position);
+            if (c >= 0x80) {
+                return find(key.substring(start, end).toLowerCase(Locale.ROOT));
+            }
+            hash = 31 * hash + toLowerCase(c);
+        }
+        if (index == null) {
+            return null;
+        }
+        int mask = index.length - 1;
+        for (int slot = spread(hash) & mask; ; slot = (slot + 1) & mask) {
+            int position = index[slot];
+            if (position == 0) {
+                return null;
+            }
+            Node<V> node = entries[position - 1];
+            if (node.hash == hash && regionEqualsIgnoreCase(node.key, key, start, end)) {
+                return node;
+            }
+        }
+    }
+
+    static boolean regionEqualsIgnoreCase(String normalized, String key, int start, int end) {
+        if (normalized.length() != end - start) {
+            return false;
+        }
+        for (int position = start; position < end; position++) {
+            if (normalized.charAt(position - start) != toLowerCase(key.charAt(position))) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    static char toLowerCase(char c) {
+        return c >= 'A' && c <= 'Z' ? (char) (c + ('a' - 'A')) : c;
+    }
+
+    private static int spread(int hash) {
+        return hash ^ (hash >>> 16);
+    }
+
+    @Override
+    public V get(Object key) {
+        Map.Entry<String, V> entry = key instanceof String string ? find(string) : null;
+        return entry == null ? null : entry.getValue();
+    }
+
+    @Override
+    public boolean containsKey(Object key) {
+        return key instanceof String string && find(string) != null;
+    }
+
+    @Override
+    public int size() {
+        return size;
+    }
+
+    @Override
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    @Override
+    public V put(String key, V value) {
+        Objects.requireNonNull(value);
+        Node<V> existing = findNode(key);
+        if (existing != null) {
+            V previous = existing.value;
+            existing.value = value;
+            return previous;
+        }
+        if (entries == null || used == entries.length) {
+            resize(size + 1);
+        }
+        Node<V> node = new Node<>(key, key.hashCode(), value);
+        entries[used++] = node;
+        insert(node.hash, used);
+        size++;
+        modCount++;
+        return null;
+    }
+
+    @Override
+    public V remove(Object key) {
+        if (!(key instanceof String string) || index == null) {
+            return null;
+        }
+        int hash = string.hashCode();
+        int mask = index.length - 1;
+        for (int slot = spread(hash) & mask; ; slot = (slot + 1) & mask) {
+            int position = index[slot];
+            if (position == 0) {
+                return null;
+            }
+            Node<V> node = entries[position - 1];
+            if (node.hash == hash && node.key.equals(string)) {
+                entries[position - 1] = null;
+                deleteSlot(slot);
+                size--;
+                modCount++;
+                return node.value;
+            }
+        }
+    }
+
+    @Override
+    public void clear() {
+        entries = null;
+        index = null;
+        used = 0;
+        size = 0;
+        modCount++;
+    }
+
+    private void insert(int hash, int position) {
+        int mask = index.length - 1;
+        int slot = spread(hash) & mask;
+        while (index[slot] != 0) {
+            slot = (slot + 1) & mask;
+        }
+        index[slot] = position;
+    }
+
+    /**
+     * Frees an index slot, moving later entries of the same probe run back so that lookups need no tombstones.
+     */
+    private void deleteSlot(int slot) {
+        int mask = index.length - 1;
+        int free = slot;
+        for (int next = (free + 1) & mask; index[next] != 0; next = (next + 1) & mask) {
+            int home = spread(entries[index[next] - 1].hash) & mask;
+            // move the entry unless its home slot lies cyclically in (free, next]
+            if (((next - home) & mask) >= ((next - free) & mask)) {
+                index[free] = index[next];
+                free = next;
+            }
+        }
+        index[free] = 0;
+    }
+
+    /**
+     * Makes room for the specified number of additional entries, so that adding them does not resize the table.
+     */
+    void ensureCapacity(int additional) {
+        if (additional > 0 && (entries == null || used + additional > entries.length)) {
+            resize(size + additional);
+        }
+    }
+
+    /**
+     * Compacts the entries into an array with room for at least {@code minimum} entries, then rebuilds the index.
+     */
+    @SuppressWarnings("unchecked")
+    private void resize(int minimum) {
+        int capacity = Math.max(MIN_CAPACITY, Integer.highestOneBit(minimum - 1) << 1);
+        Node<V>[] resized = (Node<V>[]) new Node<?>[capacity];
+        int live = 0;
+        for (int position = 0; position < used; position++) {
+            if (entries[position] != null) {
+                resized[live++] = entries[position];
+            }
+        }
+        entries = resized;
+        used = live;
+        index = new int[2 * capacity];
+        for (int position = 0; position < live; position++) {
+            insert(resized[position].hash, position + 1);
+        }
+    }
+
+    @Override
+    public Set<Map.Entry<String, V>> entrySet() {
+        return new AbstractSet<>() {
+            @Override
+            public Iterator<Map.Entry<String, V>> iterator() {
+                return new EntryIterator();
+            }
+
+            @Override
+            public int size() {
+                return size;
+            }
+        };
+    }
+
+    private final class EntryIterator implements Iterator<Map.Entry<String, V>> {
+
+        private int position;
+        private Node<V> last;
+        private int expectedModCount = modCount;
+
+        EntryIterator() {
+            skipHoles();
+        }
+
+        private void skipHoles() {
+            while (position < used && entries[position] == null) {
+                position++;
+            }
+        }
+
+        @Override
+        public boolean hasNext() {
+            return position < used;
+        }
+
+        @Override
+        public Map.Entry<String, V> next() {
+            if (modCount != expectedModCount) {
+                throw new ConcurrentModificationException();
+            }
+            if (position >= used) {
+                throw new NoSuchElementException();
+            }
+            last = entries[position++];
+            skipHoles();
+            return last;
+        }
+
+        @Override
+        public void remove() {
+            if (last == null) {
+                throw new IllegalStateException();
+            }
+            if (modCount != expectedModCount) {
+                throw new ConcurrentModificationException();
+            }
+            IniConfKeyTable.this.remove(last.key);
+            last = null;
+            expectedModCount = modCount;
+        }
+    }
+
+    @Override
+    public int hashCode() {
+        int result = 0;
+        for (int position = 0; position < used; position++) {
+            if (entries[position] != null) {
+                result += entries[position].hashCode();
+            }
+        }
+        return result;
+    }
+
+}
@@ -0,0 +1,51 @@
+package net.prsv.iniconf;
+
+/**
+ * A property value parsed by {@link IniConf#parseLazily(String)}: a range of the input string that is decoded the
+ * first time its text is needed. An undecoded value holds only the range, which takes less memory than the decoded
+ * string. The range is final, so every thread that sees the value can decode it. The decoded string is immutable
+ * and always the same, so racing readers may both decode it without harm.
+ */
+final class IniConfLazyValue {
+
+    private final String source;
+    private final int start;
+    private final int end;
+    private final int lineNumber;
+    private String text;
+
+    /**
+     * Creates a value that is decoded from {@code source} between {@code start} and {@code end} when it is first
+     * read. Decoding errors are reported for the specified line.
+     */
+    IniConfLazyValue(String source, int start, int end, int lineNumber) {
+        this.source = source;
+        this.start = start;
+        this.end = end;
+        this.lineNumber = lineNumber;
+    }
+
+    /**
+     * Returns the decoded value.
+     * @throws IniConfFormatException if the value is malformed
+     */
+    String text() {
+        String result = text;
+        if (result == null) {
+            result = IniConfParser.decodeValue(source, start, end, lineNumber);
+            text = result;
+        }
+        return result;
+    }
+
+    /**
+     * Returns the decoded value, or the encoded text of the value as it appears in the input if it is malformed.
+     */
+    String textOrEncoded() {
+        try {
+            return text();
+        } catch (IniConfFormatException e) {
+            return source.substring(start, end);
+        }
+    }
+}
@@ -0,0 +1,280 @@
+package net.prsv.iniconf;
+
+import java.io.IOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.MalformedInputException;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Parses memory-mapped UTF-8 encoded INI files without decoding them into Java strings first.
+ * The file is mapped in windows of at most {@value #WINDOW_SIZE} bytes, so files larger than 2 GB can be parsed.
+ * Lines are classified on their bytes, and only section names, keys, and values are decoded. Lines that are not
+ * plain comments, section headers, or properties without escape sequences are decoded as a whole and handed to
+ * {@link IniConfParser}, so accepted input and error reporting are identical to the character-based parser.
+ */
+final class IniConfMappedParser {
+
+    private static final long WINDOW_SIZE = 1L << 30;
+    private static final int BLOCK_SIZE = 65536;
+
+    private final IniConfParser parser;
+    private byte[] block;
+    private int filled;
+    private boolean startOfInput = true;
+
+    private IniConfMappedParser(IniConfParser parser, int blockSize) {
+        this.parser = parser;
+        this.block = new byte[blockSize];
+    }
+
+    static void parse(FileChannel channel, IniConfParser parser) throws IOException {
+        parse(channel, parser, WINDOW_SIZE, BLOCK_SIZE);
+    }
+
+    static void parse(FileChannel channel, IniConfParser parser, long windowSize, int blockSize)
+            throws IOException {
+        IniConfMappedParser mappedParser = new IniConfMappedParser(parser, blockSize);
+        long size = channel.size();
+        for (long position = 0; position < size; position += windowSize) {
+            long length = Math.min(windowSize, size - position);
+            mappedParser.consume(channel.map(FileChannel.MapMode.READ_ONLY, position, length));
+        }
+        mappedParser.parseLines(true);
+    }
+
+    /**
+     * Copies the window into the block buffer one block at a time and parses every complete line. Incomplete lines
+     * are kept at the start of the block until the next window supplies the rest.
+     */
+    private void consume(MappedByteBuffer window) throws IOException {
+        while (window.hasRemaining()) {
+            if (filled == block.length) {
+                byte[] grown = new byte[block.length * 2];
+                System.arraycopy(block, 0, grown, 0, filled);
+                block = grown;
+            }
+            int count = Math.min(block.length - filled, window.remaining());
+            window.get(block, filled, count);
+            filled += count;
+            int consumed = parseLines(false);
+            filled -= consumed;
+            System.arraycopy(block, consumed, block, 0, filled);
+        }
+    }
+
+    /**
+     * Parses the complete lines in the block and returns the number of bytes consumed. Unless the end of the input
+     * has been reached, a line is complete only if its terminator is known to be complete.
+     */
+    private int parseLines(boolean endOfInput) throws IOException {
+        int lineStart = 0;
+        if (startOfInput) {
+            if (filled < 3 && !endOfInput) {
+                return 0;
+            }
+            startOfInput = false;
+            if (filled >= 3 && block[0] == (byte) 0xef && block[1] == (byte) 0xbb && block[2] == (byte) 0xbf) {
+                lineStart = 3;
+            }
+        }
+        while (true) {
+            int terminator = findTerminator(lineStart);
+            if (!endOfInput && (terminator == filled || (block[terminator] == '\r' && terminator == filled - 1))) {
+                return lineStart;
+            }
+            parseLine(lineStart, terminator);
+            if (terminator == filled) {
+                return filled;
+            }
+            lineStart = terminator + terminatorLength(terminator);
+            parser.nextLine();
+        }
+    }
+
+    /**
+     * Returns the index of the first line terminator at or after {@code from}, or {@code filled} if there is none.
+     * The accepted terminators are the UTF-8 encodings of those matched by {@code \R}.
+     */
+    private int findTerminator(int from) {
+        for (int index = from; index < filled; index++) {
+            byte current = block[index];
+            if (current >= '\n' && current <= '\r') {
+                return index;
+            }
+            if (current == (byte) 0xc2 && index + 1 < filled && block[index + 1] == (byte) 0x85) {
+                return index;
+            }
+            if (current == (byte) 0xe2 && index + 2 < filled && block[index + 1] == (byte) 0x80
+                    && (block[index + 2] == (byte) 0xa8 || block[index + 2] == (byte) 0xa9)) {
+                return index;
+            }
+        }
+        return filled;
+    }
+
+    private int terminatorLength(int index) {
+        byte current = block[index];
+        if (current == (byte) 0xc2) {
+            return 2;
+        }
+        if (current == (byte) 0xe2) {
+            return 3;
+        }
+        return current == '\r' && index + 1 < filled && block[index + 1] == '\n' ? 2 : 1;
+    }
+
+    private void parseLine(int start, int end) throws IOException {
+        if (!isValidUtf8(start, end)) {
+            throw new MalformedInputException(end - start);
+        }
+        int position = skipSpacesAndTabs(start, end);
+        if (position == end) {
+            return;
+        }
+        byte first = block[position];
+        if (first == ';' || first == '#') {
+            if (parser.reportsComments()) {
+                parser.comment(new String(block, position + 1, end - position - 1, StandardCharsets.UTF_8));
+            }
+            return;
+        }
+        if (first == '[' && parseSection(position, end)) {
+            return;
+        }
+        if (isWordByte(first) && parseProperty(position, end)) {
+            return;
+        }
+        String line = new String(block, start, end - start, StandardCharsets.UTF_8);
+        parser.parseLine(line, 0, line.length());
+    }
+
+    /**
+     * Parses a well-formed section header. Returns {@code false} without side effects if the header is malformed.
+     */
+    private boolean parseSection(int bracket, int end) {
+        int nameStart = bracket + 1;
+        int position = nameStart;
+        while (true) {
+            int componentEnd = skipWordBytes(position, end);
+            if (componentEnd == position) {
+                return false;
+            }
+            position = componentEnd;
+            if (position < end && block[position] == '.') {
+                position++;
+                continue;
+            }
+            break;
+        }
+        if (position == end || block[position] != ']' || skipSpacesAndTabs(position + 1, end) != end) {
+            return false;
+        }
+        parser.section(new String(block, nameStart, position - nameStart, StandardCharsets.ISO_8859_1));
+        return true;
+    }
+
+    /**
+     * Parses a well-formed property whose value contains no escape sequences. Returns {@code false} without side
+     * effects for any other line.
+     */
+    private boolean parseProperty(int keyStart, int end) {
+        int keyEnd = skipWordBytes(keyStart, end);
+        int position = skipSpacesAndTabs(keyEnd, end);
+        if (position == end || block[position] != '=') {
+            return false;
+        }
+        int valueStart = skipSpacesAndTabs(position + 1, end);
+        int valueEnd = end;
+        while (valueEnd > valueStart && isSpaceOrTab(block[valueEnd - 1])) {
+            valueEnd--;
+        }
+        boolean quoted = valueStart < valueEnd && block[valueStart] == '"';
+        int contentStart = quoted ? valueStart + 1 : valueStart;
+        int contentEnd = quoted ? valueEnd - 1 : valueEnd;
+        if (quoted && (contentEnd < contentStart || block[contentEnd] != '"')) {
+            return false;
+        }
+        for (int index = contentStart; index < contentEnd; index++) {
+            if (block[index] == '"' || block[index] == '\\') {
+                return false;
+            }
+        }
+        String key = new String(block, keyStart, keyEnd - keyStart, StandardCharsets.ISO_8859_1);
+        parser.property(key, new String(block, contentStart, contentEnd - contentStart, StandardCharsets.UTF_8));
+        return true;
+    }
+
+    /**
+     * Checks whether the range is well-formed UTF-8, rejecting overlong encodings, surrogates, and code points
+     * above U+10FFFF in the same way as the JDK decoder.
+     */
+    private boolean isValidUtf8(int start, int end) {
+        int index = start;
+        while (index < end) {
+            int lead = block[index] & 0xff;
+            if (lead < 0x80) {
+                index++;
+                continue;
+            }
+            int length;
+            int secondMin = 0x80;
+            int secondMax = 0xbf;
+            if (lead >= 0xc2 && lead <= 0xdf) {
+                length = 2;
+            } else if (lead >= 0xe0 && lead <= 0xef) {
+                length = 3;
+                if (lead == 0xe0) {
+                    secondMin = 0xa0;
+                } else if (lead == 0xed) {
+                    secondMax = 0x9f;
+                }
+            } else if (lead >= 0xf0 && lead <= 0xf4) {
+                length = 4;
+                if (lead == 0xf0) {
+                    secondMin = 0x90;
+                } else if (lead == 0xf4) {
+                    secondMax = 0x8f;
+                }
+            } else {
+                return false;
+            }
+            if (index + length > end) {
+                return false;
+            }
+            int second = block[index + 1] & 0xff;
+            if (second < secondMin || second > secondMax) {
+                return false;
+            }
+            for (int offset = 2; offset < length; offset++) {
+                if ((block[index + offset] & 0xc0) != 0x80) {
+                    return false;
+                }
+            }
+            index += length;
+        }
+        return true;
+    }
+
+    private static boolean isWordByte(byte b) {
+        return b >= 0 && IniConfPatterns.isWordCharacter((char) b);
+    }
+
+    private static boolean isSpaceOrTab(byte b) {
+        return b == ' ' || b == '\t';
+    }
+
+    private int skipSpacesAndTabs(int index, int end) {
+        while (index < end && isSpaceOrTab(block[index])) {
+            index++;
+        }
+        return index;
+    }
+
+    private int skipWordBytes(int index, int end) {
+        while (index < end && isWordByte(block[index])) {
+            index++;
+        }
+        return index;
+    }
+}
@@ -0,0 +1,64 @@
+package net.prsv.iniconf;
+
+import java.nio.file.Path;
+import java.util.Objects;
+
+/**
+ * Receives lookup counts and parse and write latencies, for example to forward them to a metrics library. At most
+ * one listener is registered at a time, with {@link #register(IniConfMetrics)}; while none is registered, the library
+ * neither calls listeners nor reads the clock. All methods have empty default implementations, so a listener only
+ * overrides what it records. Methods are called on the thread performing the operation and must be thread-safe and
+ * fast.
+ * <p>
+ * The same operations are also recorded as JDK Flight Recorder events named {@code net.prsv.iniconf.Parse},
+ * {@code net.prsv.iniconf.Read}, and {@code net.prsv.iniconf.Write}, which do not require a listener.
+ */
+public interface IniConfMetrics {
+
+    /**
+     * Called for each lookup made with {@link IniConf#get}, {@link IniConf#getOrDefault},
+     * {@link IniConf#getQualified(String)}, and {@link IniConfKey#get(IniConf)}.
+     * @param found {@code true} if the key was found, {@code false} for a miss
+     */
+    default void onLookup(boolean found) {
+    }
+
+    /**
+     * Called after INI content has been parsed into a configuration from a string or read from a file with
+     * {@link IniConfReader#read(Path)}, {@link IniConfReader#readMapped(Path)}, or the {@code parse} methods of
+     * {@link IniConfReader} that take a path.
+     * @param path the file that was read, or {@code null} if the content was parsed from a string
+     * @param lines the number of the last line of the content
+     * @param sections the number of section headers
+     * @param nanos the duration in nanoseconds
+     */
+    default void onParse(Path path, int lines, int sections, long nanos) {
+    }
+
+    /**
+     * Called after a configuration has been written by {@link IniConfWriter}.
+     * @param path the file that was written, or {@code null} if the configuration was written to a stream
+     * @param characters the number of characters written
+     * @param sections the number of sections written, including the root
+     * @param nanos the duration in nanoseconds
+     */
+    default void onWrite(Path path, long characters, int sections, long nanos) {
+    }
+
+    /**
+     * Registers the specified listener, replacing the one registered before.
+     * @param listener the listener to be registered
+     * @throws NullPointerException if {@code listener} is {@code null}
+     */
+    static void register(IniConfMetrics listener) {
+        IniConfInstrumentation.listener = Objects.requireNonNull(listener, "listener must not be null");
+    }
+
+    /**
+     * Removes the registered listener, if any.
+     */
+    static void unregister() {
+        IniConfInstrumentation.listener = null;
+    }
+
+}
@@ -0,0 +1,258 @@
+package net.prsv.iniconf;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * A read-only view of several stacked configurations, for example defaults, a site file, a host file, and runtime
+ * overrides. A lookup returns the value from the highest layer that defines the key; the layers are neither copied
+ * nor merged.
+ * <p>
+ * Results are cached per normalized section path and key, up to a fixed number of lookups. Each layer counts its
+ * modifications, including those of its subsections, and the cache is replaced as soon as any layer has been
+ * modified, so lookups always reflect the current content of the layers. Several threads may read an overlay at once
+ * as long as none of them modifies a layer, the same condition under which they may read the layers themselves.
+ */
+public final class IniConfOverlay {
+
+    /** Cached result of a lookup for a key that no layer defines; compared by identity. */
+    @SuppressWarnings("StringOperationCanBeSimplified")
+    private static final String MISSING = new String("");
+
+    /** The number of lookups cached at most; further results are resolved on every call. */
+    private static final int CACHE_CAPACITY = 4096;
+
+    /**
+     * The lookup results cached while every layer has the recorded modification count. A stale cache is replaced
+     * rather than cleared, so that a thread never clears a map that another thread is reading.
+     */
+    private static final class Cache {
+
+        private final int[] modificationCounts;
+        /** Cached values of root properties by normalized key. */
+        private final Map<String, String> root = new ConcurrentHashMap<>();
+        /** Cached values of section properties by normalized section path and key. */
+        private final Map<String, Map<String, String>> sections = new ConcurrentHashMap<>();
+        private final AtomicInteger size = new AtomicInteger();
+
+        private Cache(IniConf[] layers) {
+            modificationCounts = new int[layers.length];
+            for (int index = 0; index < layers.length; index++) {
+                modificationCounts[index] = layers[index].modificationCount();
+            }
+        }
+
+        private boolean isCurrent(IniConf[] layers) {
+            for (int index = 0; index < layers.length; index++) {
+                if (layers[index].modificationCount() != modificationCounts[index]) {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        private void put(Map<String, String> target, String key, String value) {
+            if (size.get() < CACHE_CAPACITY && target.putIfAbsent(key, value) == null) {
+                size.incrementAndGet();
+            }
+        }
+    }
+
+    private final IniConf[] layers;
+    private volatile Cache cache;
+
+    /**
+     * Creates an overlay of the specified layers.
+     * @param layers the layers, from the lowest to the highest priority
+     * @throws NullPointerException if {@code layers} or any of its elements is {@code null}
+     */
+    public IniConfOverlay(IniConf... layers) {
+        this(List.of(layers));
+    }
+
+    /**
+     * Creates an overlay of the specified layers.
+     * @param layers the layers, from the lowest to the highest priority
+     * @throws NullPointerException if {@code layers} or any of its elements is {@code null}
+     */
+    public IniConfOverlay(List<IniConf> layers) {
+        this.layers = layers.toArray(new IniConf[0]);
+        for (IniConf layer : this.layers) {
+            Objects.requireNonNull(layer, "layers must not contain null");
+        }
+        this.cache = new Cache(this.layers);
+    }
+
+    /**
+     * Returns the layers of this overlay.
+     * @return an unmodifiable list of the layers, from the lowest to the highest priority
+     */
+    public List<IniConf> getLayers() {
+        return List.of(layers);
+    }
+
+    /**
+     * Returns the value of the specified root key in the highest layer that defines it, or {@code null} if no layer
+     * defines it.
+     * @param key the key whose associated value is to be returned
+     * @return the value associated with the specified key, or {@code null} if no such value exists
+     * @throws NullPointerException if {@code key} is {@code null}
+     */
+    public String get(String key) {
+        if (key == null) {
+            throw new NullPointerException("get(): key cannot be null");
+        }
+        return lookup(null, key);
+    }
+
+    /**
+     * Returns the value of the specified key in the specified subsection of the highest layer that defines it, or
+     * {@code null} if no layer defines it.
+     * @param subsection path of the subsection containing the key
+     * @param key the key whose associated value is to be returned
+     * @return the value associated with the specified key, or {@code null} if no such value exists
+     * @throws NullPointerException if {@code subsection} or {@code key} is {@code null}
+     * @throws IllegalArgumentException if {@code subsection} is invalid
+     */
+    public String get(String subsection, String key) {
+        if (key == null) {
+            throw new NullPointerException("get(): key cannot be null");
+        }
+        if (subsection == null) {
+            throw new NullPointerException("get(): subsection cannot be null");
+        }
+        return lookup(subsection, key);
+    }
+
+    /**
+     * Returns the value of the specified root key in the highest layer that defines it, or {@code defaultValue} if
+     * no layer defines it.
+     * @param key the key whose associated value is to be returned
+     * @param defaultValue the value to be returned if no layer defines the key
+     * @return the value associated with the specified key, or {@code defaultValue} if no such value exists
+     * @throws NullPointerException if {@code key} is {@code null}
+     */
+    public String getOrDefault(String key, String defaultValue) {
+        String value = get(key);
+        return value == null ? defaultValue : value;
+    }
+
+    /**
+     * Returns the value of the specified key in the specified subsection of the highest layer that defines it, or
+     * {@code defaultValue} if no layer defines it.
+     * @param subsection path of the subsection containing the key
+     * @param key the key whose associated value is to be returned
+     * @param defaultValue the value to be returned if no layer defines the key
+     * @return the value associated with the specified key, or {@code defaultValue} if no such value exists
+     * @throws NullPointerException if {@code subsection} or {@code key} is {@code null}
+     * @throws IllegalArgumentException if {@code subsection} is invalid
+     */
+    public String getOrDefault(String subsection, String key, String defaultValue) {
+        String value = get(subsection, key);
+        return value == null ? defaultValue : value;
+    }
+
+    /**
+     * Checks whether any layer defines the specified root key.
+     * @param key the key to be checked
+     * @return {@code true} if a layer defines the key, {@code false} otherwise
+     * @throws NullPointerException if {@code key} is {@code null}
+     */
+    public boolean isKey(String key) {
+        return get(key) != null;
+    }
+
+    /**
+     * Checks whether any layer defines the specified key in the specified subsection.
+     * @param subsection path of the subsection containing the key
+     * @param key the key to be checked
+     * @return {@code true} if a layer defines the key, {@code false} otherwise
+     * @throws NullPointerException if {@code subsection} or {@code key} is {@code null}
+     * @throws IllegalArgumentException if {@code subsection} is invalid
+     */
+    public boolean isKey(String subsection, String key) {
+        return get(subsection, key) != null;
+    }
+
+    /**
+     * Checks whether any layer contains a section with the specified name.
+     * @param sectionName section name to be checked
+     * @return {@code true} if a layer has a section with the specified name, {@code false} otherwise
+     * @throws NullPointerException if {@code sectionName} is {@code null}
+     * @throws IllegalArgumentException if {@code sectionName} is invalid
+     */
+    public boolean isSection(String sectionName) {
+        IniConfPath path = IniConfPath.of(sectionName);
+        for (IniConf layer : layers) {
+            if (path.getSection(layer) != null) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Returns a new {@link IniConf} containing the content of all layers, with values of higher layers replacing
+     * those of lower layers. The result is independent of the layers.
+     * @return a flattened copy of this overlay
+     */
+    public IniConf materialize() {
+        IniConf result = new IniConf();
+        for (IniConf layer : layers) {
+            result.copyFrom(layer);
+        }
+        return result;
+    }
+
+    /**
+     * Returns the cached value of the key in the specified section, or in the root if {@code subsection} is
+     * {@code null}, resolving and caching it first if necessary.
+     */
+    private String lookup(String subsection, String key) {
+        Cache current = cache;
+        if (!current.isCurrent(layers)) {
+            current = new Cache(layers);
+            cache = current;
+        }
+        String normalizedKey = IniConf.normalizeIdentifier(key);
+        String normalizedPath = subsection == null ? null : IniConf.normalizeIdentifier(subsection);
+        Map<String, String> cached = subsection == null ? current.root : current.sections.get(normalizedPath);
+        String value = cached == null ? null : cached.get(normalizedKey);
+        if (value == null) {
+            IniConfPath path = subsection == null ? IniConfPath.root() : IniConfPath.of(subsection);
+            value = resolve(path, normalizedKey);
+            if (cached == null) {
+                cached = current.sections.computeIfAbsent(normalizedPath, ignored -> new ConcurrentHashMap<>());
+            }
+            current.put(cached, normalizedKey, value);
+        }
+        return value == MISSING ? null : value;
+    }
+
+    /**
+     * Looks the key up in the layers, starting with the highest one, and returns {@link #MISSING} if none defines it.
+     */
+    private String resolve(IniConfPath path, String key) {
+        for (int index = layers.length - 1; index >= 0; index--) {
+            IniConf section = path.getSection(layers[index]);
+            String value = section == null ? null : section.getNormalized(key);
+            if (value != null) {
+                return value;
+            }
+        }
+        return MISSING;
+    }
+
+    /**
+     * Returns the materialized content of this overlay in INI format.
+     * @return a string representation of this overlay
+     */
+    @Override
+    public String toString() {
+        return materialize().toString();
+    }
+
+}
@@ -0,0 +1,125 @@
+package net.prsv.iniconf;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+
+/**
+ * Parses large INI strings in parallel.
+ * The input is split into chunks at section headers, each chunk is parsed into its own tree on the supplied
+ * executor, and the trees are merged in input order. Because every chunk after the first starts with a section
+ * header, the merged result is the same as that of a sequential parse, including the last-wins handling of repeated
+ * keys. Format errors are reported with line numbers relative to the whole input; if several chunks are malformed,
+ * the error closest to the start of the input is reported.
+ */
+final class IniConfParallelParser {
+
+    static final int MIN_CHUNK_LENGTH = 1 << 18;
+
+    private IniConfParallelParser() {
+    }
+
+    private record Chunk(IniConf root, int lineCount) {
+    }
+
+    static void parseInto(String input, IniConf destination, Executor executor, int parallelism) {
+        parseInto(input, destination, executor, parallelism, MIN_CHUNK_LENGTH);
+    }
+
+    static void parseInto(String input, IniConf destination, Executor executor, int parallelism,
+                          int minChunkLength) {
+        List<Integer> boundaries = findChunkBoundaries(input, parallelism, minChunkLength);
+        if (boundaries.size() <= 2) {
+            IniConfParser.parseInto(input, destination);
+            return;
+        }
+
+        List<CompletableFuture<Chunk>> chunks = new ArrayList<>(boundaries.size() - 1);
+        for (int index = 0; index < boundaries.size() - 1; index++) {
+            int start = boundaries.get(index);
+            int end = boundaries.get(index + 1);
+            boolean last = index == boundaries.size() - 2;
+            chunks.add(CompletableFuture.supplyAsync(() -> parseChunk(input, start, end, last), executor));
+        }
+
+        int lineOffset = 0;
+        for (CompletableFuture<Chunk> future : chunks) {
+            Chunk chunk;
+            try {
+                chunk = future.join();
+            } catch (CompletionException exception) {
+                Throwable cause = exception.getCause();
+                if (cause instanceof IniConfFormatException formatException) {
+                    throw formatException.withLineOffset(lineOffset);
+                }
+                if (cause instanceof RuntimeException runtimeException) {
+                    throw runtimeException;
+                }
+                if (cause instanceof Error error) {
+                    throw error;
+                }
+                throw exception;
+            }
+            destination.mergeFrom(chunk.root());
+            lineOffset += chunk.lineCount();
+        }
+    }
+
+    private static Chunk parseChunk(String input, int start, int end, boolean last) {
+        IniConf root = new IniConf();
+        IniConfParser parser = IniConfParser.into(root);
+        parser.parse(input, start, end, last);
+        return new Chunk(root, parser.lineNumber() - 1);
+    }
+
+    /**
+     * Returns the chunk boundaries, starting with zero and ending with the input length. Every inner boundary is
+     * the start of a line whose first character after spaces and tabs is {@code [}.
+     */
+    private static List<Integer> findChunkBoundaries(String input, int parallelism, int minChunkLength) {
+        int length = input.length();
+        int chunkCount = (int) Math.min(4L * parallelism, length / minChunkLength);
+        List<Integer> boundaries = new ArrayList<>();
+        boundaries.add(0);
+        int previous = 0;
+        for (int index = 1; index < chunkCount; index++) {
+            int target = (int) ((long) index * length / chunkCount);
+            int boundary = findSectionLineStart(input, Math.max(target, previous + 1));
+            if (boundary >= length) {
+                break;
+            }
+            boundaries.add(boundary);
+            previous = boundary;
+        }
+        boundaries.add(length);
+        return boundaries;
+    }
+
+    /**
+     * Returns the start of the first section header line that begins after {@code from}, or the input length if
+     * there is none.
+     */
+    private static int findSectionLineStart(String input, int from) {
+        int length = input.length();
+        int index = from;
+        while (index < length) {
+            while (index < length && !IniConfParser.isLineTerminator(input.charAt(index))) {
+                index++;
+            }
+            if (index == length) {
+                break;
+            }
+            index += IniConfParser.terminatorLength(input, index, length);
+            int position = index;
+            while (position < length && IniConfParser.isSpaceOrTab(input.charAt(position))) {
+                position++;
+            }
+            if (position < length && input.charAt(position) == '[') {
+                return index;
+            }
+        }
+        return length;
+    }
+}
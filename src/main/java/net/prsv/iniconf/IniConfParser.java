@@ -1,83 +1,420 @@
 package net.prsv.iniconf;
 
-import java.util.regex.Matcher;
+import java.io.IOException;
+import java.io.Reader;
+import java.util.Locale;
 
 /**
- * Parses INI-formatted strings into {@link IniConf} instances.
+ * Parses INI-formatted input and reports its content to an {@link IniConfHandler}.
+ * The input is scanned once, character by character. Each line is classified by its first character after leading
+ * spaces and tabs, and section names, keys, and values are taken from the input as substrings.
+ * Character streams are parsed incrementally: only complete lines are taken from a bounded buffer, so memory use
+ * depends on the length of the longest line rather than on the size of the input.
  */
 final class IniConfParser {
 
-    private IniConfParser() {
+    private static final int BUFFER_SIZE = 16384;
+
+    private final IniConfHandler handler;
+    private final boolean reportComments;
+    /** Receives undecoded values in lazy mode, or {@code null} if values are decoded while parsing. */
+    private IniConfTreeBuilder lazyValues;
+    /** Whether values are validated while parsing in lazy mode. */
+    private boolean validateLazyValues;
+    private int lineNumber = 1;
+    private int sectionCount;
+
+    /**
+     * Creates a parser reporting to the specified handler. Comment text is only extracted if
+     * {@code reportComments} is {@code true}.
+     */
+    IniConfParser(IniConfHandler handler, boolean reportComments) {
+        this.handler = handler;
+        this.reportComments = reportComments;
+    }
+
+    /**
+     * Creates a parser that adds the parsed content to the specified configuration.
+     */
+    static IniConfParser into(IniConf destination) {
+        return new IniConfParser(new IniConfTreeBuilder(destination), false);
     }
 
     static void parseInto(String input, IniConf destination) {
-        String[] lines = IniConfPatterns.LINE_TERMINATOR_PATTERN.split(input);
-        IniConf currentSection = destination;
-
-        for (int lineIndex = 0; lineIndex < lines.length; lineIndex++) {
-            String line = lines[lineIndex];
-            int lineNumber = lineIndex + 1;
-            Matcher commentMatcher = IniConfPatterns.COMMENT_PATTERN.matcher(line);
-            Matcher sectionMatcher = IniConfPatterns.SECTION_PATTERN.matcher(line);
-            Matcher propertyMatcher = IniConfPatterns.PROPERTY_PATTERN.matcher(line);
-            if (line.isBlank() || commentMatcher.matches()) {
-                continue;
+        parseInstrumented(input, into(destination));
+    }
+
+    /**
+     * Parses the input into the specified configuration without decoding values. Each value is stored as a range of
+     * {@code input} and decoded when it is first read. If {@code validate} is {@code true}, values are checked for
+     * format errors while parsing, so that later decoding cannot fail.
+     */
+    static void parseLazilyInto(String input, IniConf destination, boolean validate) {
+        IniConfTreeBuilder builder = new IniConfTreeBuilder(destination);
+        IniConfParser parser = new IniConfParser(builder, false);
+        parser.lazyValues = builder;
+        parser.validateLazyValues = validate;
+        parseInstrumented(input, parser);
+    }
+
+    private static void parseInstrumented(String input, IniConfParser parser) {
+        IniConfInstrumentation.ParseEvent event = new IniConfInstrumentation.ParseEvent();
+        event.begin();
+        long startTime = IniConfInstrumentation.startTime();
+        parser.parse(input);
+        IniConfInstrumentation.parsed(event, startTime, input.length(), parser);
+    }
+
+    void parse(String input) {
+        parseLines(input, 0, input.length(), true);
+    }
+
+    /**
+     * Parses the complete lines between {@code start} and {@code end}. Unless {@code end} is the end of the
+     * document, the range must end with a line terminator.
+     */
+    void parse(String input, int start, int end, boolean endOfInput) {
+        parseLines(input, start, end, endOfInput);
+    }
+
+    /**
+     * Returns the number of the line the parser is positioned at.
+     */
+    int lineNumber() {
+        return lineNumber;
+    }
+
+    /**
+     * Returns the number of section headers parsed so far.
+     */
+    int sectionCount() {
+        return sectionCount;
+    }
+
+    void parse(Reader reader) throws IOException {
+        char[] buffer = new char[BUFFER_SIZE];
+        int filled = 0;
+        while (true) {
+            if (filled == buffer.length) {
+                char[] grown = new char[buffer.length * 2];
+                System.arraycopy(buffer, 0, grown, 0, filled);
+                buffer = grown;
             }
-            if (sectionMatcher.matches()) {
-                currentSection = destination.getOrCreateSection(sectionMatcher.group(1));
-                continue;
+            int read = reader.read(buffer, filled, buffer.length - filled);
+            if (read < 0) {
+                parseLines(new String(buffer, 0, filled), 0, filled, true);
+                return;
+            }
+            filled += read;
+            int completeLength = completeLinesLength(buffer, filled);
+            if (completeLength > 0) {
+                parseLines(new String(buffer, 0, completeLength), 0, completeLength, false);
+                filled -= completeLength;
+                System.arraycopy(buffer, completeLength, buffer, 0, filled);
+            }
+        }
+    }
+
+    /**
+     * Returns the length of the longest buffer prefix ending with a complete line terminator, or zero if the buffer
+     * contains no complete line. A trailing carriage return is not complete because a line feed may follow it.
+     */
+    private static int completeLinesLength(char[] buffer, int filled) {
+        for (int index = filled - 1; index >= 0; index--) {
+            char current = buffer[index];
+            if (isLineTerminator(current) && !(current == '\r' && index == filled - 1)) {
+                return index + 1;
+            }
+        }
+        return 0;
+    }
+
+    /**
+     * Parses the lines of {@code input}. Unless the input is the end of the document, it must end with a line
+     * terminator, and the empty remainder after that terminator is left for the next call.
+     */
+    private void parseLines(String input, int start, int end, boolean endOfInput) {
+        int lineStart = start;
+        while (true) {
+            int lineEnd = lineStart;
+            while (lineEnd < end && !isLineTerminator(input.charAt(lineEnd))) {
+                lineEnd++;
+            }
+            if (lineEnd == end && !endOfInput) {
+                return;
             }
-            if (line.stripLeading().startsWith("[")) {
-                throw new IniConfFormatException(lineNumber, "Invalid section header: " + line);
+            parseLine(input, lineStart, lineEnd);
+            if (lineEnd == end) {
+                return;
+            }
+            lineStart = lineEnd + terminatorLength(input, lineEnd, end);
+            nextLine();
+        }
+    }
+
+    /**
+     * Parses the line between {@code start} and {@code end} as the current line.
+     */
+    void parseLine(String input, int start, int end) {
+        int position = skipSpacesAndTabs(input, start, end);
+        if (position == end) {
+            return;
+        }
+        char first = input.charAt(position);
+        if (first == ';' || first == '#') {
+            if (reportComments) {
+                comment(input.substring(position + 1, end));
+            }
+            return;
+        }
+        if (first == '[') {
+            section(parseSectionName(input, position, start, end, lineNumber));
+            return;
+        }
+        if (IniConfPatterns.isWordCharacter(first)) {
+            parseProperty(input, position, start, end);
+            return;
+        }
+        if (isBlank(input, position, end)) {
+            return;
+        }
+        if (input.charAt(skipWhitespace(input, position, end)) == '[') {
+            throw invalidSectionHeader(input, start, end, lineNumber);
+        }
+        throw malformedInput(input, start, end, lineNumber);
+    }
+
+    private static String parseSectionName(String input, int bracket, int start, int end, int lineNumber) {
+        int nameStart = bracket + 1;
+        int position = nameStart;
+        while (true) {
+            int componentEnd = skipWordCharacters(input, position, end);
+            if (componentEnd == position) {
+                throw invalidSectionHeader(input, start, end, lineNumber);
             }
-            if (propertyMatcher.matches()) {
-                String value = deserializeValue(propertyMatcher.group(2), lineNumber);
-                putProperty(currentSection, propertyMatcher.group(1), value, lineNumber);
+            position = componentEnd;
+            if (position < end && input.charAt(position) == '.') {
+                position++;
                 continue;
             }
-            throw new IniConfFormatException(lineNumber, "Malformed input: " + line);
+            break;
         }
+        if (position == end || input.charAt(position) != ']'
+                || skipSpacesAndTabs(input, position + 1, end) != end) {
+            throw invalidSectionHeader(input, start, end, lineNumber);
+        }
+        return input.substring(nameStart, position);
     }
 
-    private static void putProperty(IniConf section, String key, String value, int lineNumber) {
-        try {
-            section.put(key, value);
-        } catch (IllegalArgumentException exception) {
-            throw invalidPropertyValue(lineNumber, exception.getMessage());
+    private void parseProperty(String input, int keyStart, int start, int end) {
+        int keyEnd = skipWordCharacters(input, keyStart, end);
+        int position = skipSpacesAndTabs(input, keyEnd, end);
+        if (position == end || input.charAt(position) != '=') {
+            throw malformedInput(input, start, end, lineNumber);
+        }
+        int valueStart = skipSpacesAndTabs(input, position + 1, end);
+        int valueEnd = end;
+        while (valueEnd > valueStart && isSpaceOrTab(input.charAt(valueEnd - 1))) {
+            valueEnd--;
         }
+        if (lazyValues != null) {
+            if (validateLazyValues) {
+                validateValue(input, valueStart, valueEnd, lineNumber);
+            }
+            lazyValues.onLazyProperty(input.substring(keyStart, keyEnd).toLowerCase(Locale.ROOT),
+                    new IniConfLazyValue(input, valueStart, valueEnd, lineNumber));
+            return;
+        }
+        String value = deserializeValue(input, valueStart, valueEnd, lineNumber);
+        property(input.substring(keyStart, keyEnd), value);
+    }
+
+    /**
+     * Advances to the next input line.
+     */
+    void nextLine() {
+        lineNumber++;
     }
 
-    private static String deserializeValue(String value, int lineNumber) {
-        boolean quoted = value.startsWith("\"");
-        StringBuilder decodedValue = new StringBuilder();
-        for (int index = quoted ? 1 : 0; index < value.length(); index++) {
-            char current = value.charAt(index);
+    boolean reportsComments() {
+        return reportComments;
+    }
+
+    /**
+     * Reports a comment on the current line.
+     */
+    void comment(String text) {
+        handler.onComment(text);
+    }
+
+    /**
+     * Reports a section header with the specified valid path on the current line.
+     */
+    void section(String path) {
+        sectionCount++;
+        handler.onSection(path.toLowerCase(Locale.ROOT));
+    }
+
+    /**
+     * Reports a property on the current line. The key must be valid and the value decoded; the value is validated
+     * and stripped as {@link IniConf#put(String, String)} would do.
+     */
+    void property(String key, String value) {
+        if (value.indexOf('\0') >= 0) {
+            throw invalidPropertyValue(lineNumber, "value must not contain the NUL character");
+        }
+        handler.onProperty(key.toLowerCase(Locale.ROOT), value.strip());
+    }
+
+    /**
+     * Decodes, validates, and strips the encoded value between {@code start} and {@code end}, as parsing a property
+     * with that value would. Used to decode values that were parsed lazily.
+     */
+    static String decodeValue(String input, int start, int end, int lineNumber) {
+        String value = deserializeValue(input, start, end, lineNumber);
+        if (value.indexOf('\0') >= 0) {
+            throw invalidPropertyValue(lineNumber, "value must not contain the NUL character");
+        }
+        return value.strip();
+    }
+
+    /**
+     * Reports the format errors that {@link #decodeValue} would report for the encoded value, without decoding it.
+     */
+    private static void validateValue(String input, int start, int end, int lineNumber) {
+        boolean quoted = start < end && input.charAt(start) == '"';
+        int contentStart = quoted ? start + 1 : start;
+        decodeEscapedValue(input, contentStart, contentStart, end, quoted, lineNumber, null);
+        for (int index = start; index < end; index++) {
+            if (input.charAt(index) == '\0') {
+                throw invalidPropertyValue(lineNumber, "value must not contain the NUL character");
+            }
+        }
+    }
+
+    private static String deserializeValue(String input, int start, int end, int lineNumber) {
+        boolean quoted = start < end && input.charAt(start) == '"';
+        int contentStart = quoted ? start + 1 : start;
+        int index = contentStart;
+        while (index < end) {
+            char current = input.charAt(index);
+            if (current == '\\') {
+                break;
+            }
             if (current == '"') {
                 if (!quoted) {
                     throw invalidPropertyValue(lineNumber, "quotation marks must be encoded");
                 }
-                if (index != value.length() - 1) {
+                if (index != end - 1) {
                     throw invalidPropertyValue(lineNumber, "unexpected characters after closing quote");
                 }
-                return decodedValue.toString();
+                return input.substring(contentStart, index);
+            }
+            index++;
+        }
+        if (index == end) {
+            if (quoted) {
+                throw invalidPropertyValue(lineNumber, "missing closing quote");
+            }
+            return input.substring(contentStart, end);
+        }
+        return decodeEscapedValue(input, contentStart, index, end, quoted, lineNumber,
+                new StringBuilder(end - contentStart));
+    }
+
+    /**
+     * Decodes a value containing at least one escape sequence into {@code decodedValue}. The characters between
+     * {@code contentStart} and {@code firstEscape} are known to be plain and are copied without inspection. If
+     * {@code decodedValue} is {@code null}, the value is only validated and {@code null} is returned.
+     */
+    private static String decodeEscapedValue(String input, int contentStart, int firstEscape, int end,
+                                             boolean quoted, int lineNumber, StringBuilder decodedValue) {
+        if (decodedValue != null) {
+            decodedValue.append(input, contentStart, firstEscape);
+        }
+        for (int index = firstEscape; index < end; index++) {
+            char current = input.charAt(index);
+            if (current == '"') {
+                if (!quoted) {
+                    throw invalidPropertyValue(lineNumber, "quotation marks must be encoded");
+                }
+                if (index != end - 1) {
+                    throw invalidPropertyValue(lineNumber, "unexpected characters after closing quote");
+                }
+                return decodedValue == null ? null : decodedValue.toString();
             }
             if (current == '\\') {
-                if (++index == value.length()) {
+                if (++index == end) {
                     throw invalidPropertyValue(lineNumber, "incomplete escape sequence");
                 }
-                char escaped = value.charAt(index);
+                char escaped = input.charAt(index);
                 if (escaped != '"' && escaped != '\\') {
                     throw invalidPropertyValue(lineNumber, "unknown escape sequence: \\" + escaped);
                 }
-                decodedValue.append(escaped);
-            } else {
+                if (decodedValue != null) {
+                    decodedValue.append(escaped);
+                }
+            } else if (decodedValue != null) {
                 decodedValue.append(current);
             }
         }
         if (quoted) {
             throw invalidPropertyValue(lineNumber, "missing closing quote");
         }
-        return decodedValue.toString();
+        return decodedValue == null ? null : decodedValue.toString();
+    }
+
+    /**
+     * Checks whether the character terminates a line. The accepted terminators are those matched by {@code \R}.
+     */
+    static boolean isLineTerminator(char c) {
+        return c == '\n' || c == '\r' || c == '\u000B' || c == '\f'
+                || c == '\u0085' || c == '\u2028' || c == '\u2029';
+    }
+
+    static int terminatorLength(String input, int index, int end) {
+        return input.charAt(index) == '\r' && index + 1 < end && input.charAt(index + 1) == '\n' ? 2 : 1;
+    }
+
+    static boolean isSpaceOrTab(char c) {
+        return c == ' ' || c == '\t';
+    }
+
+    private static int skipSpacesAndTabs(String input, int index, int end) {
+        while (index < end && isSpaceOrTab(input.charAt(index))) {
+            index++;
+        }
+        return index;
+    }
+
+    private static int skipWordCharacters(String input, int index, int end) {
+        while (index < end && IniConfPatterns.isWordCharacter(input.charAt(index))) {
+            index++;
+        }
+        return index;
+    }
+
+    private static int skipWhitespace(String input, int index, int end) {
+        while (index < end) {
+            int codePoint = input.codePointAt(index);
+            if (!Character.isWhitespace(codePoint)) {
+                break;
+            }
+            index += Character.charCount(codePoint);
+        }
+        return index;
+    }
+
+    private static boolean isBlank(String input, int index, int end) {
+        return skipWhitespace(input, index, end) >= end;
+    }
+
+    private static IniConfFormatException invalidSectionHeader(String input, int start, int end, int lineNumber) {
+        return new IniConfFormatException(lineNumber, "Invalid section header: " + input.substring(start, end));
+    }
+
+    private static IniConfFormatException malformedInput(String input, int start, int end, int lineNumber) {
+        return new IniConfFormatException(lineNumber, "Malformed input: " + input.substring(start, end));
     }
 
     private static IniConfFormatException invalidPropertyValue(int lineNumber, String reason) {
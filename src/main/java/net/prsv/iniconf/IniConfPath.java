@@ -0,0 +1,81 @@
+package net.prsv.iniconf;
+
+import java.util.List;
+import java.util.Objects;
+
+/**
+ * A precompiled section path, created by {@link IniConf#path(String)}.
+ * The path is validated and normalized once, when the handle is created, so resolving it does not run the pattern
+ * checks, split the path, or lowercase its components again: it takes one hash lookup per component and allocates
+ * nothing. Handles keep no reference to the configurations they resolve, so they can be kept in static fields and
+ * used with any number of configurations. Handles are immutable and can be shared between threads.
+ */
+public final class IniConfPath {
+
+    private static final IniConfPath ROOT = new IniConfPath(new String[0], "");
+
+    private final String[] components;
+    private final String name;
+
+    private IniConfPath(String[] components, String name) {
+        this.components = components;
+        this.name = name;
+    }
+
+    static IniConfPath of(String path) {
+        List<String> sectionPath = IniConf.normalizeSectionPath(path);
+        return new IniConfPath(sectionPath.toArray(new String[0]), String.join(".", sectionPath));
+    }
+
+    static IniConfPath root() {
+        return ROOT;
+    }
+
+    /**
+     * Returns a precompiled handle for the specified key in this section.
+     * @param key the key
+     * @return a handle for the key in this section
+     * @throws NullPointerException if {@code key} is {@code null}
+     * @throws IllegalArgumentException if {@code key} is invalid
+     */
+    public IniConfKey key(String key) {
+        Objects.requireNonNull(key, "key must not be null");
+        IniConf.validateKey(key);
+        return new IniConfKey(this, IniConf.normalizeIdentifier(key));
+    }
+
+    /**
+     * Returns the section of {@code conf} at this path, or {@code null} if no such section exists. The root path
+     * resolves to {@code conf} itself.
+     * @param conf the configuration to be searched
+     * @return the section at this path, or {@code null} if no such section exists
+     * @throws NullPointerException if {@code conf} is {@code null}
+     */
+    public IniConf getSection(IniConf conf) {
+        Objects.requireNonNull(conf, "conf must not be null");
+        IniConf current = conf;
+        for (int index = 0; index < components.length && current != null; index++) {
+            current = current.getChild(components[index]);
+        }
+        return current;
+    }
+
+    /**
+     * Checks whether {@code conf} contains a section at this path.
+     * @param conf the configuration to be checked
+     * @return {@code true} if {@code conf} contains a section at this path, {@code false} otherwise
+     * @throws NullPointerException if {@code conf} is {@code null}
+     */
+    public boolean isSection(IniConf conf) {
+        return getSection(conf) != null;
+    }
+
+    /**
+     * Returns the normalized dotted path, or an empty string for the root path.
+     * @return the normalized path
+     */
+    @Override
+    public String toString() {
+        return name;
+    }
+}
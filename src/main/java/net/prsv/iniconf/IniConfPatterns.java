@@ -3,20 +3,53 @@ package net.prsv.iniconf;
 import java.util.regex.Pattern;
 
 /**
- * Regular-expression patterns used by {@link IniConf} and {@link IniConfParser}.
+ * Regular-expression patterns used by {@link IniConf} and {@link IniConfParser}, and table-driven checks equivalent
+ * to the patterns that are applied to every key and value.
  */
 final class IniConfPatterns {
 
     private static final String SECTION_PATH_REGEX = "\\w+(?:\\.\\w+)*";
 
-    static final Pattern COMMENT_PATTERN = Pattern.compile("^\\s*[;#].*$");
-    static final Pattern SECTION_PATTERN = Pattern.compile("^\\s*\\[(" + SECTION_PATH_REGEX + ")]\\s*$");
-    static final Pattern PROPERTY_PATTERN = Pattern.compile("^\\s*(\\w+)\\s*=\\s*(.*?)\\s*$");
     static final Pattern KEY_PATTERN = Pattern.compile("^\\w+$");
     static final Pattern SECTION_NAME_PATTERN = Pattern.compile("^" + SECTION_PATH_REGEX + "$");
     static final Pattern SECTION_PATH_SEPARATOR_PATTERN = Pattern.compile("\\.");
-    static final Pattern LINE_TERMINATOR_PATTERN = Pattern.compile("\\R");
+
+    /** The ASCII word characters matched by {@code \w}, indexed by character. */
+    private static final boolean[] WORD_CHARACTERS = new boolean[128];
+
+    static {
+        for (char c = '0'; c <= '9'; c++) {
+            WORD_CHARACTERS[c] = true;
+        }
+        for (char c = 'a'; c <= 'z'; c++) {
+            WORD_CHARACTERS[c] = true;
+            WORD_CHARACTERS[c - 'a' + 'A'] = true;
+        }
+        WORD_CHARACTERS['_'] = true;
+    }
 
     private IniConfPatterns() {
     }
+
+    /**
+     * Checks whether the character is matched by {@code \w}.
+     */
+    static boolean isWordCharacter(char c) {
+        return c < WORD_CHARACTERS.length && WORD_CHARACTERS[c];
+    }
+
+    /**
+     * Checks whether the string matches {@link #KEY_PATTERN}.
+     */
+    static boolean isKey(String s) {
+        if (s.isEmpty()) {
+            return false;
+        }
+        for (int index = 0; index < s.length(); index++) {
+            if (!isWordCharacter(s.charAt(index))) {
+                return false;
+            }
+        }
+        return true;
+    }
 }
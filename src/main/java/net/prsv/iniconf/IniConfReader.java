@@ -1,13 +1,24 @@
 package net.prsv.iniconf;
 
 import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.PushbackReader;
+import java.io.Reader;
+import java.nio.channels.FileChannel;
 import java.nio.charset.StandardCharsets;
 import java.nio.file.Files;
 import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Objects;
 import java.util.Optional;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ForkJoinPool;
 
 /**
- * Reads UTF-8 encoded INI configuration files.
+ * Reads UTF-8 encoded INI configuration files and streams.
+ * Input is parsed incrementally from a bounded buffer, so the whole file is never held in memory as text.
+ * The {@code parse} methods report the content to an {@link IniConfHandler} instead of building an {@link IniConf}.
  */
 public final class IniConfReader {
 
@@ -25,15 +36,286 @@ public final class IniConfReader {
      * @throws IniConfFormatException if the file contains invalid INI content
      */
     public static Optional<IniConf> read(String filename) {
+        return read(Path.of(filename));
+    }
+
+    /**
+     * Reads the specified UTF-8 encoded file and tries to parse it as an INI file. Returns an
+     * {@code Optional<IniConf>} or {@code Optional.empty()} if an {@link IOException} occurs while reading the file.
+     * @param path path of the UTF-8 encoded input file
+     * @return the resulting {@code Optional<IniConf>} or {@code Optional.empty()}
+     * @throws NullPointerException if {@code path} is {@code null}
+     * @throws IniConfFormatException if the file contains invalid INI content
+     */
+    public static Optional<IniConf> read(Path path) {
+        IniConf result = new IniConf();
+        return parse(path, IniConfParser.into(result)) ? Optional.of(result) : Optional.empty();
+    }
+
+    /**
+     * Reads the specified UTF-8 encoded file as {@link #read(Path)} does, deduplicating keys, values, and section
+     * names through the specified pool. Passing the same pool to several reads shares strings between the resulting
+     * configurations; {@link IniConfStringPool#savedBytes()} reports the memory saved.
+     * @param path path of the UTF-8 encoded input file
+     * @param pool the string pool to be used
+     * @return the resulting {@code Optional<IniConf>} or {@code Optional.empty()}
+     * @throws NullPointerException if {@code path} or {@code pool} is {@code null}
+     * @throws IniConfFormatException if the file contains invalid INI content
+     */
+    public static Optional<IniConf> read(Path path, IniConfStringPool pool) {
+        IniConf result = new IniConf(pool);
+        return parse(path, IniConfParser.into(result)) ? Optional.of(result) : Optional.empty();
+    }
+
+    /**
+     * Memory-maps the specified UTF-8 encoded file and parses its bytes directly. Only section names, keys, and
+     * values are decoded into strings, which makes this method suitable for very large files, including files
+     * larger than 2 GB. The result and the handling of byte-order marks and malformed UTF-8 are the same as for
+     * {@link #read(Path)}.
+     * @param path path of the UTF-8 encoded input file
+     * @return the resulting {@code Optional<IniConf>} or {@code Optional.empty()}
+     * @throws NullPointerException if {@code path} is {@code null}
+     * @throws IniConfFormatException if the file contains invalid INI content
+     */
+    public static Optional<IniConf> readMapped(Path path) {
+        IniConf result = new IniConf();
+        return parseMapped(path, IniConfParser.into(result)) ? Optional.of(result) : Optional.empty();
+    }
+
+    /**
+     * Reads the specified UTF-8 encoded file and parses it in parallel on the common {@link ForkJoinPool}.
+     * The file is split into chunks at section headers, and the chunks are parsed concurrently and merged in file
+     * order. The result, including the last-wins handling of repeated keys and the line numbers reported for
+     * malformed content, is the same as that of {@link #read(Path)}. Unlike {@code read}, the whole file is loaded
+     * into memory before parsing starts; small files are parsed sequentially.
+     * @param path path of the UTF-8 encoded input file
+     * @return the resulting {@code Optional<IniConf>} or {@code Optional.empty()}
+     * @throws NullPointerException if {@code path} is {@code null}
+     * @throws IniConfFormatException if the file contains invalid INI content
+     */
+    public static Optional<IniConf> readParallel(Path path) {
+        return readParallel(path, ForkJoinPool.commonPool(), ForkJoinPool.getCommonPoolParallelism());
+    }
+
+    /**
+     * Reads the specified UTF-8 encoded file and parses it in parallel using the specified executor, as
+     * {@link #readParallel(Path)} does.
+     * @param path path of the UTF-8 encoded input file
+     * @param executor the executor running the chunk parsers
+     * @return the resulting {@code Optional<IniConf>} or {@code Optional.empty()}
+     * @throws NullPointerException if {@code path} or {@code executor} is {@code null}
+     * @throws IniConfFormatException if the file contains invalid INI content
+     */
+    public static Optional<IniConf> readParallel(Path path, Executor executor) {
+        return readParallel(path, executor, Runtime.getRuntime().availableProcessors());
+    }
+
+    private static Optional<IniConf> readParallel(Path path, Executor executor, int parallelism) {
+        Objects.requireNonNull(executor, "executor must not be null");
+        return readString(path).map(input -> {
+            IniConf result = new IniConf();
+            IniConfParallelParser.parseInto(input, result, executor, parallelism);
+            return result;
+        });
+    }
+
+    /**
+     * Reads the specified UTF-8 encoded file into memory and parses it without decoding property values, as
+     * {@link IniConf#parseLazily(String)} does. Each value is decoded the first time it is read, and malformed values
+     * are reported by the methods reading them.
+     * @param path path of the UTF-8 encoded input file
+     * @return the resulting {@code Optional<IniConf>} or {@code Optional.empty()}
+     * @throws NullPointerException if {@code path} is {@code null}
+     * @throws IniConfFormatException if the file contains a malformed line or section header
+     */
+    public static Optional<IniConf> readLazily(Path path) {
+        return readLazily(path, false);
+    }
+
+    /**
+     * Reads the specified UTF-8 encoded file into memory and parses it without decoding property values, as
+     * {@link IniConf#parseLazily(String, boolean)} does.
+     * @param path path of the UTF-8 encoded input file
+     * @param validate whether property values are validated while parsing
+     * @return the resulting {@code Optional<IniConf>} or {@code Optional.empty()}
+     * @throws NullPointerException if {@code path} is {@code null}
+     * @throws IniConfFormatException if the file contains a malformed line or section header, or, if
+     * {@code validate} is {@code true}, a malformed property value
+     */
+    public static Optional<IniConf> readLazily(Path path, boolean validate) {
+        return readString(path).map(input -> IniConf.parseLazily(input, validate));
+    }
+
+    /**
+     * Reads a whole UTF-8 encoded file and removes a leading byte-order mark.
+     */
+    private static Optional<String> readString(Path path) {
+        Objects.requireNonNull(path, "path must not be null");
+        String input;
         try {
-            String input = Files.readString(Path.of(filename), StandardCharsets.UTF_8);
-            if (!input.isEmpty() && input.charAt(0) == BYTE_ORDER_MARK) {
-                input = input.substring(1);
-            }
-            return Optional.of(new IniConf(input));
+            input = Files.readString(path, StandardCharsets.UTF_8);
         } catch (IOException e) {
             return Optional.empty();
         }
+        if (!input.isEmpty() && input.charAt(0) == BYTE_ORDER_MARK) {
+            input = input.substring(1);
+        }
+        return Optional.of(input);
+    }
+
+    /**
+     * Reads UTF-8 encoded INI content from the specified stream until the end of the stream is reached.
+     * The stream is not closed. Returns {@code Optional.empty()} if an {@link IOException} occurs while reading
+     * the stream or if the stream contains malformed UTF-8.
+     * @param input the stream to read from
+     * @return the resulting {@code Optional<IniConf>} or {@code Optional.empty()}
+     * @throws NullPointerException if {@code input} is {@code null}
+     * @throws IniConfFormatException if the stream contains invalid INI content
+     */
+    public static Optional<IniConf> read(InputStream input) {
+        IniConf result = new IniConf();
+        return parse(input, IniConfParser.into(result)) ? Optional.of(result) : Optional.empty();
+    }
+
+    /**
+     * Reads INI content from the specified character stream until the end of the stream is reached. A leading
+     * byte-order mark is skipped. The reader is not closed. Returns {@code Optional.empty()} if an
+     * {@link IOException} occurs while reading.
+     * @param reader the character stream to read from
+     * @return the resulting {@code Optional<IniConf>} or {@code Optional.empty()}
+     * @throws NullPointerException if {@code reader} is {@code null}
+     * @throws IniConfFormatException if the stream contains invalid INI content
+     */
+    public static Optional<IniConf> read(Reader reader) {
+        IniConf result = new IniConf();
+        return parse(reader, IniConfParser.into(result)) ? Optional.of(result) : Optional.empty();
+    }
+
+    /**
+     * Parses the specified UTF-8 encoded file and reports its content to {@code handler} without building an
+     * {@link IniConf}. Events already delivered when an error occurs are not retracted.
+     * @param path path of the UTF-8 encoded input file
+     * @param handler the handler receiving the parsed content
+     * @return {@code true} if the file was parsed, or {@code false} if an I/O error occurred or the file contains
+     * malformed UTF-8
+     * @throws NullPointerException if {@code path} or {@code handler} is {@code null}
+     * @throws IniConfFormatException if the file contains invalid INI content
+     */
+    public static boolean parse(Path path, IniConfHandler handler) {
+        return parse(path, new IniConfParser(Objects.requireNonNull(handler, "handler must not be null"), true));
+    }
+
+    /**
+     * Memory-maps the specified UTF-8 encoded file and reports its content to {@code handler} without building an
+     * {@link IniConf}, as {@link #readMapped(Path)} does.
+     * @param path path of the UTF-8 encoded input file
+     * @param handler the handler receiving the parsed content
+     * @return {@code true} if the file was parsed, or {@code false} if an I/O error occurred or the file contains
+     * malformed UTF-8
+     * @throws NullPointerException if {@code path} or {@code handler} is {@code null}
+     * @throws IniConfFormatException if the file contains invalid INI content
+     */
+    public static boolean parseMapped(Path path, IniConfHandler handler) {
+        return parseMapped(path,
+                new IniConfParser(Objects.requireNonNull(handler, "handler must not be null"), true));
+    }
+
+    /**
+     * Parses UTF-8 encoded INI content from the specified stream and reports it to {@code handler}. The stream is
+     * not closed.
+     * @param input the stream to read from
+     * @param handler the handler receiving the parsed content
+     * @return {@code true} if the stream was parsed, or {@code false} if an I/O error occurred or the stream contains
+     * malformed UTF-8
+     * @throws NullPointerException if {@code input} or {@code handler} is {@code null}
+     * @throws IniConfFormatException if the stream contains invalid INI content
+     */
+    public static boolean parse(InputStream input, IniConfHandler handler) {
+        return parse(input, new IniConfParser(Objects.requireNonNull(handler, "handler must not be null"), true));
+    }
+
+    /**
+     * Parses INI content from the specified character stream and reports it to {@code handler}. A leading
+     * byte-order mark is skipped. The reader is not closed.
+     * @param reader the character stream to read from
+     * @param handler the handler receiving the parsed content
+     * @return {@code true} if the stream was parsed, or {@code false} if an I/O error occurred
+     * @throws NullPointerException if {@code reader} or {@code handler} is {@code null}
+     * @throws IniConfFormatException if the stream contains invalid INI content
+     */
+    public static boolean parse(Reader reader, IniConfHandler handler) {
+        return parse(reader, new IniConfParser(Objects.requireNonNull(handler, "handler must not be null"), true));
+    }
+
+    private static boolean parse(Path path, IniConfParser parser) {
+        Objects.requireNonNull(path, "path must not be null");
+        IniConfInstrumentation.ReadEvent event = new IniConfInstrumentation.ReadEvent();
+        event.begin();
+        long startTime = IniConfInstrumentation.startTime();
+        try (InputStream input = Files.newInputStream(path)) {
+            parseStream(input, parser);
+        } catch (IOException e) {
+            return false;
+        }
+        IniConfInstrumentation.read(event, startTime, path, () -> fileSize(path), parser);
+        return true;
+    }
+
+    private static boolean parseMapped(Path path, IniConfParser parser) {
+        Objects.requireNonNull(path, "path must not be null");
+        IniConfInstrumentation.ReadEvent event = new IniConfInstrumentation.ReadEvent();
+        event.begin();
+        long startTime = IniConfInstrumentation.startTime();
+        long size;
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            IniConfMappedParser.parse(channel, parser);
+            size = channel.size();
+        } catch (IOException e) {
+            return false;
+        }
+        IniConfInstrumentation.read(event, startTime, path, () -> size, parser);
+        return true;
+    }
+
+    private static long fileSize(Path path) {
+        try {
+            return Files.size(path);
+        } catch (IOException e) {
+            return -1;
+        }
+    }
+
+    private static boolean parse(InputStream input, IniConfParser parser) {
+        Objects.requireNonNull(input, "input must not be null");
+        try {
+            parseStream(input, parser);
+            return true;
+        } catch (IOException e) {
+            return false;
+        }
+    }
+
+    private static boolean parse(Reader reader, IniConfParser parser) {
+        Objects.requireNonNull(reader, "reader must not be null");
+        try {
+            parseReader(reader, parser);
+            return true;
+        } catch (IOException e) {
+            return false;
+        }
+    }
+
+    static void parseStream(InputStream input, IniConfParser parser) throws IOException {
+        parseReader(new InputStreamReader(input, StandardCharsets.UTF_8.newDecoder()), parser);
+    }
+
+    private static void parseReader(Reader reader, IniConfParser parser) throws IOException {
+        PushbackReader pushbackReader = new PushbackReader(reader, 1);
+        int first = pushbackReader.read();
+        if (first >= 0 && first != BYTE_ORDER_MARK) {
+            pushbackReader.unread(first);
+        }
+        parser.parse(pushbackReader);
     }
 
 }
@@ -0,0 +1,257 @@
+package net.prsv.iniconf;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.ClosedWatchServiceException;
+import java.nio.file.FileSystems;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardWatchEventKinds;
+import java.nio.file.WatchEvent;
+import java.nio.file.WatchKey;
+import java.nio.file.WatchService;
+import java.time.Duration;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Keeps an up-to-date {@link IniConf} for a UTF-8 encoded INI file by watching the file for changes.
+ * The file is watched with a {@link WatchService} on a background daemon thread. Bursts of change events are
+ * debounced, so a file that is rewritten in several steps is parsed once, after no further event has arrived for the
+ * debounce interval. Each successfully parsed configuration is published atomically and reported to the registered
+ * listeners. If a reload fails because the file cannot be read or contains invalid INI content, the last good
+ * configuration stays current and the failure is reported to the listeners instead.
+ * {@link #get()} never blocks, not even while a reload is in progress. The published configurations must be treated as
+ * read-only, because they are shared between all readers.
+ */
+public final class IniConfReloader implements AutoCloseable {
+
+    /** The debounce interval used by {@link #IniConfReloader(Path)}. */
+    public static final Duration DEFAULT_DEBOUNCE = Duration.ofMillis(200);
+
+    /**
+     * Receives the outcome of reloads. All methods do nothing by default and are called on the watching thread.
+     * Exceptions thrown by a listener are ignored.
+     */
+    public interface Listener {
+
+        /**
+         * Called after a changed configuration has been published.
+         * @param config the new current configuration
+         */
+        default void onReload(IniConf config) {
+        }
+
+        /**
+         * Called when a reload fails. The previous configuration remains current.
+         * @param cause the {@link IOException} or {@link IniConfFormatException} that caused the failure, or any
+         * other {@link RuntimeException} thrown by a reload started by a change event
+         */
+        default void onReloadFailed(Exception cause) {
+        }
+    }
+
+    private final Path path;
+    private final long debounceNanos;
+    private final AtomicReference<IniConf> current = new AtomicReference<>();
+    private final List<Listener> listeners = new CopyOnWriteArrayList<>();
+    private final WatchService watchService;
+    private final Thread watcher;
+    /** Set by {@link #close()}; guarded by {@code this}, like reloads. */
+    private boolean closed;
+
+    /**
+     * Reads the specified file and starts watching it, using {@link #DEFAULT_DEBOUNCE} as the debounce interval.
+     * @param path path of the UTF-8 encoded INI file
+     * @throws NullPointerException if {@code path} is {@code null}
+     * @throws IOException if the file cannot be read or its directory cannot be watched
+     * @throws IniConfFormatException if the file contains invalid INI content
+     */
+    public IniConfReloader(Path path) throws IOException {
+        this(path, DEFAULT_DEBOUNCE);
+    }
+
+    /**
+     * Reads the specified file and starts watching it.
+     * @param path path of the UTF-8 encoded INI file
+     * @param debounce how long the file must stay unchanged before it is reloaded
+     * @throws NullPointerException if {@code path} or {@code debounce} is {@code null}
+     * @throws IllegalArgumentException if {@code debounce} is negative
+     * @throws IOException if the file cannot be read or its directory cannot be watched
+     * @throws IniConfFormatException if the file contains invalid INI content
+     */
+    public IniConfReloader(Path path, Duration debounce) throws IOException {
+        Objects.requireNonNull(path, "path must not be null");
+        Objects.requireNonNull(debounce, "debounce must not be null");
+        if (debounce.isNegative()) {
+            throw new IllegalArgumentException("debounce must not be negative");
+        }
+        this.path = path.toAbsolutePath();
+        this.debounceNanos = debounce.toNanos();
+        current.set(load());
+        watchService = FileSystems.getDefault().newWatchService();
+        try {
+            this.path.getParent().register(watchService, StandardWatchEventKinds.ENTRY_CREATE,
+                    StandardWatchEventKinds.ENTRY_MODIFY, StandardWatchEventKinds.OVERFLOW);
+        } catch (IOException | RuntimeException e) {
+            watchService.close();
+            throw e;
+        }
+        watcher = new Thread(this::watch, "IniConfReloader-" + this.path.getFileName());
+        watcher.setDaemon(true);
+        watcher.start();
+    }
+
+    /**
+     * Returns the most recently loaded configuration. This method never blocks.
+     * @return the current configuration
+     */
+    public IniConf get() {
+        return current.get();
+    }
+
+    /**
+     * Registers a listener for reload outcomes.
+     * @param listener the listener to be added
+     * @throws NullPointerException if {@code listener} is {@code null}
+     */
+    public void addListener(Listener listener) {
+        listeners.add(Objects.requireNonNull(listener, "listener must not be null"));
+    }
+
+    /**
+     * Removes a previously registered listener.
+     * @param listener the listener to be removed
+     * @return {@code true} if the listener was registered
+     */
+    public boolean removeListener(Listener listener) {
+        return listeners.remove(listener);
+    }
+
+    /**
+     * Reloads the file immediately on the calling thread. Listeners are notified only if the configuration has
+     * changed or the reload fails. Explicit reloads remain possible after {@link #close()}.
+     * @return {@code true} if the file was parsed successfully, or {@code false} if the last good configuration was
+     * kept
+     */
+    public synchronized boolean reload() {
+        IniConf loaded;
+        try {
+            loaded = load();
+        } catch (IOException | IniConfFormatException e) {
+            reportFailure(e);
+            return false;
+        }
+        if (!loaded.equals(current.getAndSet(loaded))) {
+            for (Listener listener : listeners) {
+                try {
+                    listener.onReload(loaded);
+                } catch (RuntimeException ignored) {
+                    // a failing listener must not prevent the others from being notified
+                }
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Stops watching the file. A reload started by a change event finishes before this method returns, and no
+     * further reloads are started by change events, so listeners are not called for them afterwards. The last
+     * loaded configuration remains available through {@link #get()}.
+     * @throws IOException if the watch service cannot be closed
+     */
+    @Override
+    public void close() throws IOException {
+        synchronized (this) {
+            closed = true;
+        }
+        try {
+            watchService.close();
+        } finally {
+            watcher.interrupt();
+            if (Thread.currentThread() != watcher) {
+                try {
+                    watcher.join();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            }
+        }
+    }
+
+    /**
+     * Reloads the file in response to change events, unless the reloader has been closed.
+     */
+    private synchronized void reloadIfOpen() {
+        if (!closed) {
+            reload();
+        }
+    }
+
+    private void reportFailure(Exception cause) {
+        for (Listener listener : listeners) {
+            try {
+                listener.onReloadFailed(cause);
+            } catch (RuntimeException ignored) {
+                // a failing listener must not prevent the others from being notified
+            }
+        }
+    }
+
+    private IniConf load() throws IOException {
+        IniConf result = new IniConf();
+        try (InputStream input = Files.newInputStream(path)) {
+            IniConfReader.parseStream(input, IniConfParser.into(result));
+        }
+        return result;
+    }
+
+    /**
+     * Waits for change events and reloads the file once no event has arrived for the debounce interval. Runs until
+     * the reloader is closed; failed reloads are reported to the listeners.
+     */
+    private void watch() {
+        long deadline = 0;
+        boolean pending = false;
+        try {
+            while (true) {
+                WatchKey key;
+                if (pending) {
+                    key = watchService.poll(Math.max(0, deadline - System.nanoTime()), TimeUnit.NANOSECONDS);
+                } else {
+                    key = watchService.take();
+                }
+                if (key != null) {
+                    if (concernsFile(key)) {
+                        pending = true;
+                        deadline = System.nanoTime() + debounceNanos;
+                    }
+                    key.reset();
+                } else if (pending && System.nanoTime() - deadline >= 0) {
+                    pending = false;
+                    try {
+                        reloadIfOpen();
+                    } catch (RuntimeException e) {
+                        // an unexpected failure must not stop the watching thread, or get() would go stale silently
+                        reportFailure(e);
+                    }
+                }
+            }
+        } catch (ClosedWatchServiceException | InterruptedException e) {
+            // the reloader has been closed
+        }
+    }
+
+    private boolean concernsFile(WatchKey key) {
+        boolean relevant = false;
+        for (WatchEvent<?> event : key.pollEvents()) {
+            if (event.kind() == StandardWatchEventKinds.OVERFLOW || path.getFileName().equals(event.context())) {
+                relevant = true;
+            }
+        }
+        return relevant;
+    }
+}
@@ -0,0 +1,125 @@
+package net.prsv.iniconf;
+
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * A bounded pool of strings shared by the keys, values, and section names of one or more configurations.
+ * Configurations created with a pool, such as {@link IniConf#IniConf(IniConfStringPool)}, replace every stored
+ * string by the equal string already in the pool, so that identical keys and values in different sections share one
+ * instance. Once the pool holds {@link #maxSize()} strings, new strings are stored as they are.
+ * A pool can be shared between configurations and threads. It keeps its strings reachable for as long as the pool
+ * itself is reachable, so a pool used for a single document should be discarded together with the document.
+ */
+public final class IniConfStringPool {
+
+    /** The maximum number of strings held by a pool created with {@link #IniConfStringPool()}. */
+    public static final int DEFAULT_MAX_SIZE = 1 << 16;
+
+    /** Estimated size of a {@code String} object, excluding its character array. */
+    private static final int STRING_OVERHEAD = 24;
+    /** Estimated size of an array header. */
+    private static final int ARRAY_OVERHEAD = 16;
+
+    private final ConcurrentHashMap<String, String> strings = new ConcurrentHashMap<>();
+    private final int maxSize;
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder savedBytes = new LongAdder();
+
+    /**
+     * Creates a pool that holds at most {@link #DEFAULT_MAX_SIZE} strings.
+     */
+    public IniConfStringPool() {
+        this(DEFAULT_MAX_SIZE);
+    }
+
+    /**
+     * Creates a pool that holds at most the specified number of strings.
+     * @param maxSize the maximum number of strings held by the pool
+     * @throws IllegalArgumentException if {@code maxSize} is negative
+     */
+    public IniConfStringPool(int maxSize) {
+        if (maxSize < 0) {
+            throw new IllegalArgumentException("maxSize must not be negative");
+        }
+        this.maxSize = maxSize;
+    }
+
+    /**
+     * Returns the pooled string equal to {@code value}. If the pool contains no such string and is not full,
+     * {@code value} is added to the pool and returned.
+     * @param value the string to be deduplicated
+     * @return a string equal to {@code value}, shared with earlier calls where possible
+     * @throws NullPointerException if {@code value} is {@code null}
+     */
+    public String intern(String value) {
+        Objects.requireNonNull(value, "value must not be null");
+        String pooled = strings.get(value);
+        if (pooled == null) {
+            if (strings.size() >= maxSize) {
+                return value;
+            }
+            pooled = strings.putIfAbsent(value, value);
+            if (pooled == null) {
+                return value;
+            }
+        }
+        if (pooled != value) {
+            hits.increment();
+            savedBytes.add(estimateSize(value));
+        }
+        return pooled;
+    }
+
+    /**
+     * Returns the number of strings held by the pool.
+     * @return the number of pooled strings
+     */
+    public int size() {
+        return strings.size();
+    }
+
+    /**
+     * Returns the maximum number of strings held by the pool.
+     * @return the maximum number of pooled strings
+     */
+    public int maxSize() {
+        return maxSize;
+    }
+
+    /**
+     * Returns how many strings have been replaced by an equal pooled instance.
+     * @return the number of deduplicated strings
+     */
+    public long hits() {
+        return hits.sum();
+    }
+
+    /**
+     * Returns an estimate of the heap memory saved by deduplication, in bytes: the sum of the sizes of all strings
+     * that were replaced by a pooled instance. Sizes are estimated for a 64-bit JVM with compressed references and
+     * compact strings.
+     * @return the estimated number of bytes saved
+     */
+    public long savedBytes() {
+        return savedBytes.sum();
+    }
+
+    private static long estimateSize(String value) {
+        int bytesPerChar = 1;
+        for (int index = 0; index < value.length(); index++) {
+            if (value.charAt(index) > 0xff) {
+                bytesPerChar = 2;
+                break;
+            }
+        }
+        long arraySize = ARRAY_OVERHEAD + (long) value.length() * bytesPerChar;
+        return STRING_OVERHEAD + ((arraySize + 7) & ~7L);
+    }
+
+    @Override
+    public String toString() {
+        return "IniConfStringPool[size=" + size() + ", hits=" + hits() + ", savedBytes=" + savedBytes() + "]";
+    }
+}
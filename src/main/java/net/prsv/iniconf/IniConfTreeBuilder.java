@@ -0,0 +1,36 @@
+package net.prsv.iniconf;
+
+/**
+ * Builds an {@link IniConf} tree from parser events.
+ */
+final class IniConfTreeBuilder implements IniConfHandler {
+
+    private final IniConf destination;
+    private IniConf currentSection;
+
+    IniConfTreeBuilder(IniConf destination) {
+        this.destination = destination;
+        this.currentSection = destination;
+    }
+
+    @Override
+    public void onSection(String path) {
+        currentSection = destination.getOrCreateSection(path);
+    }
+
+    /**
+     * Adds a property to the current section. The parser reports keys that are valid and normalized and values that
+     * are validated, stripped, and free of line terminators, so they are stored without being checked again.
+     */
+    @Override
+    public void onProperty(String key, String value) {
+        currentSection.putNormalized(key, value);
+    }
+
+    /**
+     * Adds a lazily decoded property with a valid, normalized key to the current section.
+     */
+    void onLazyProperty(String key, IniConfLazyValue value) {
+        currentSection.putSlot(key, value);
+    }
+}
@@ -0,0 +1,182 @@
+package net.prsv.iniconf;
+
+import java.time.Duration;
+import java.time.format.DateTimeParseException;
+import java.util.Locale;
+
+/**
+ * The typed values parsed from a stored property value. An {@link IniConf} creates an instance of this class the
+ * first time a typed getter is called for a key and keeps it next to the property map, so later calls return the
+ * cached result without parsing or boxing. An instance belongs to the property slot it was created from, and storing
+ * a new value for the key discards it.
+ * Each typed result is written before the bit recording it in {@link #parsed}, and {@code parsed} is volatile, so
+ * threads that only read a configuration never observe a partially cached result.
+ */
+final class IniConfValue {
+
+    private static final int INT = 1;
+    private static final int LONG = 1 << 1;
+    private static final int DOUBLE = 1 << 2;
+    private static final int BOOLEAN = 1 << 3;
+    private static final int DURATION = 1 << 4;
+    private static final int BYTE_SIZE = 1 << 5;
+
+    /** The property slot this instance was created from, a {@link String} or an {@link IniConfLazyValue}. */
+    private final Object slot;
+    private final String text;
+    private volatile int parsed;
+    private int intValue;
+    private long longValue;
+    private double doubleValue;
+    private boolean booleanValue;
+    private Duration durationValue;
+    private long byteSizeValue;
+
+    IniConfValue(Object slot, String text) {
+        this.slot = slot;
+        this.text = text;
+    }
+
+    /**
+     * Checks whether this instance was created from the specified property slot.
+     */
+    boolean isFor(Object slot) {
+        return this.slot == slot;
+    }
+
+    String text() {
+        return text;
+    }
+
+    int asInt(String key) {
+        if ((parsed & INT) == 0) {
+            try {
+                intValue = Integer.parseInt(text());
+            } catch (NumberFormatException e) {
+                throw invalid(key, "an int");
+            }
+            parsed |= INT;
+        }
+        return intValue;
+    }
+
+    long asLong(String key) {
+        if ((parsed & LONG) == 0) {
+            try {
+                longValue = Long.parseLong(text());
+            } catch (NumberFormatException e) {
+                throw invalid(key, "a long");
+            }
+            parsed |= LONG;
+        }
+        return longValue;
+    }
+
+    double asDouble(String key) {
+        if ((parsed & DOUBLE) == 0) {
+            try {
+                doubleValue = Double.parseDouble(text());
+            } catch (NumberFormatException e) {
+                throw invalid(key, "a double");
+            }
+            parsed |= DOUBLE;
+        }
+        return doubleValue;
+    }
+
+    boolean asBoolean(String key) {
+        if ((parsed & BOOLEAN) == 0) {
+            switch (text().toLowerCase(Locale.ROOT)) {
+                case "true", "yes", "on", "1" -> booleanValue = true;
+                case "false", "no", "off", "0" -> booleanValue = false;
+                default -> throw invalid(key, "a boolean");
+            }
+            parsed |= BOOLEAN;
+        }
+        return booleanValue;
+    }
+
+    Duration asDuration(String key) {
+        if ((parsed & DURATION) == 0) {
+            durationValue = parseDuration(key);
+            parsed |= DURATION;
+        }
+        return durationValue;
+    }
+
+    long asByteSize(String key) {
+        if ((parsed & BYTE_SIZE) == 0) {
+            byteSizeValue = parseByteSize(key);
+            parsed |= BYTE_SIZE;
+        }
+        return byteSizeValue;
+    }
+
+    /**
+     * Parses an ISO-8601 duration such as {@code PT1M30S}, or an integer followed by one of the units {@code ns},
+     * {@code us}, {@code ms}, {@code s}, {@code m}, {@code h}, and {@code d}.
+     */
+    private Duration parseDuration(String key) {
+        String lowercase = text().toLowerCase(Locale.ROOT);
+        try {
+            if (lowercase.startsWith("p") || lowercase.startsWith("-p") || lowercase.startsWith("+p")) {
+                return Duration.parse(lowercase);
+            }
+            int unitStart = numberEnd(lowercase);
+            long amount = Long.parseLong(lowercase.substring(0, unitStart));
+            return switch (lowercase.substring(unitStart).strip()) {
+                case "ns" -> Duration.ofNanos(amount);
+                case "us" -> Duration.ofNanos(Math.multiplyExact(amount, 1_000L));
+                case "ms" -> Duration.ofMillis(amount);
+                case "s" -> Duration.ofSeconds(amount);
+                case "m" -> Duration.ofMinutes(amount);
+                case "h" -> Duration.ofHours(amount);
+                case "d" -> Duration.ofDays(amount);
+                default -> throw invalid(key, "a duration");
+            };
+        } catch (DateTimeParseException | ArithmeticException | NumberFormatException e) {
+            throw invalid(key, "a duration");
+        }
+    }
+
+    /**
+     * Parses a non-negative integer optionally followed by a binary unit: {@code b}, {@code k}, {@code m}, {@code g},
+     * or {@code t}, each optionally followed by {@code b} or {@code ib}. Units are case-insensitive.
+     */
+    private long parseByteSize(String key) {
+        String lowercase = text().toLowerCase(Locale.ROOT);
+        try {
+            int unitStart = numberEnd(lowercase);
+            long amount = Long.parseLong(lowercase.substring(0, unitStart));
+            if (amount < 0) {
+                throw invalid(key, "a byte size");
+            }
+            int shift = switch (lowercase.substring(unitStart).strip()) {
+                case "", "b" -> 0;
+                case "k", "kb", "kib" -> 10;
+                case "m", "mb", "mib" -> 20;
+                case "g", "gb", "gib" -> 30;
+                case "t", "tb", "tib" -> 40;
+                default -> throw invalid(key, "a byte size");
+            };
+            return Math.multiplyExact(amount, 1L << shift);
+        } catch (ArithmeticException | NumberFormatException e) {
+            throw invalid(key, "a byte size");
+        }
+    }
+
+    private static int numberEnd(String value) {
+        int index = 0;
+        if (index < value.length() && (value.charAt(index) == '-' || value.charAt(index) == '+')) {
+            index++;
+        }
+        while (index < value.length() && value.charAt(index) >= '0' && value.charAt(index) <= '9') {
+            index++;
+        }
+        return index;
+    }
+
+    private IllegalArgumentException invalid(String key, String type) {
+        return new IllegalArgumentException(String.format("Value of key '%s' is not %s: '%s'", key, type, text()));
+    }
+}
@@ -1,16 +1,45 @@
 package net.prsv.iniconf;
 
 import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.CharBuffer;
 import java.nio.charset.StandardCharsets;
 import java.nio.file.Files;
 import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
 import java.util.Objects;
 
 /**
- * Writes INI configurations to UTF-8 encoded files.
+ * Writes INI configurations to UTF-8 encoded files, byte streams, and character streams.
+ * The section tree is walked once and escaped output is emitted through a fixed-size character buffer, so neither
+ * the whole document nor individual encoded values are built as intermediate strings.
  */
 public final class IniConfWriter {
 
+    private static final int BUFFER_SIZE = 8192;
+
+    /**
+     * Receives blocks of serialized characters.
+     */
+    private interface CharSink {
+        void write(char[] chars, int length) throws IOException;
+    }
+
+    private record Frame(IniConf section, String name, int parentPathLength) {
+    }
+
+    /**
+     * The amount of serialized output, reported to {@link IniConfInstrumentation}.
+     */
+    private record Written(int sections, long characters) {
+    }
+
     // do not instantiate
     private IniConfWriter() {}
 
@@ -23,12 +52,252 @@ public final class IniConfWriter {
      */
     public static boolean write(String filename, IniConf dict) {
         Objects.requireNonNull(dict, "dict must not be null");
+        return write(Path.of(filename), dict);
+    }
+
+    /**
+     * Writes the specified configuration to a UTF-8 encoded file. If an I/O error occurs, the file may be left
+     * incomplete.
+     * @param path path of the output file
+     * @param dict configuration to be written
+     * @return {@code true} if the configuration was written successfully, or {@code false} if an I/O error occurred
+     * @throws NullPointerException if {@code path} or {@code dict} is {@code null}
+     */
+    public static boolean write(Path path, IniConf dict) {
+        Objects.requireNonNull(path, "path must not be null");
+        Objects.requireNonNull(dict, "dict must not be null");
+        IniConfInstrumentation.WriteEvent event = new IniConfInstrumentation.WriteEvent();
+        event.begin();
+        long startTime = IniConfInstrumentation.startTime();
+        Written written;
+        try (OutputStream output = Files.newOutputStream(path);
+             Writer writer = new OutputStreamWriter(output, StandardCharsets.UTF_8.newEncoder())) {
+            written = serialize(dict, (chars, length) -> writer.write(chars, 0, length));
+        } catch (IOException e) {
+            return false;
+        }
+        IniConfInstrumentation.written(event, startTime, path, written.characters(), written.sections());
+        return true;
+    }
+
+    /**
+     * Writes the specified configuration to a byte stream as UTF-8. The stream is flushed but not closed.
+     * @param output the stream to write to
+     * @param dict configuration to be written
+     * @return {@code true} if the configuration was written successfully, or {@code false} if an I/O error occurred
+     * @throws NullPointerException if {@code output} or {@code dict} is {@code null}
+     */
+    public static boolean write(OutputStream output, IniConf dict) {
+        Objects.requireNonNull(output, "output must not be null");
+        Objects.requireNonNull(dict, "dict must not be null");
+        IniConfInstrumentation.WriteEvent event = new IniConfInstrumentation.WriteEvent();
+        event.begin();
+        long startTime = IniConfInstrumentation.startTime();
+        Written written;
+        try {
+            Writer writer = new OutputStreamWriter(output, StandardCharsets.UTF_8.newEncoder());
+            written = serialize(dict, (chars, length) -> writer.write(chars, 0, length));
+            writer.flush();
+        } catch (IOException e) {
+            return false;
+        }
+        IniConfInstrumentation.written(event, startTime, null, written.characters(), written.sections());
+        return true;
+    }
+
+    /**
+     * Writes the specified configuration to a character stream. The writer is flushed but not closed.
+     * @param writer the character stream to write to
+     * @param dict configuration to be written
+     * @return {@code true} if the configuration was written successfully, or {@code false} if an I/O error occurred
+     * @throws NullPointerException if {@code writer} or {@code dict} is {@code null}
+     */
+    public static boolean write(Writer writer, IniConf dict) {
+        Objects.requireNonNull(writer, "writer must not be null");
+        Objects.requireNonNull(dict, "dict must not be null");
+        IniConfInstrumentation.WriteEvent event = new IniConfInstrumentation.WriteEvent();
+        event.begin();
+        long startTime = IniConfInstrumentation.startTime();
+        Written written;
+        try {
+            written = serialize(dict, (chars, length) -> writer.write(chars, 0, length));
+            writer.flush();
+        } catch (IOException e) {
+            return false;
+        }
+        IniConfInstrumentation.written(event, startTime, null, written.characters(), written.sections());
+        return true;
+    }
+
+    /**
+     * Appends the serialized configuration to the specified {@link Appendable}, such as a {@link StringBuilder}.
+     * This method is not an overload of {@code write} because classes such as {@link java.io.PrintStream} are both
+     * byte streams and {@code Appendable}s.
+     * @param output the destination of the serialized configuration
+     * @param dict configuration to be written
+     * @return {@code true} if the configuration was written successfully, or {@code false} if an I/O error occurred
+     * @throws NullPointerException if {@code output} or {@code dict} is {@code null}
+     */
+    public static boolean append(Appendable output, IniConf dict) {
+        Objects.requireNonNull(output, "output must not be null");
+        Objects.requireNonNull(dict, "dict must not be null");
+        IniConfInstrumentation.WriteEvent event = new IniConfInstrumentation.WriteEvent();
+        event.begin();
+        long startTime = IniConfInstrumentation.startTime();
+        Written written;
         try {
-            Files.writeString(Path.of(filename), dict.toString(), StandardCharsets.UTF_8);
+            written = serialize(dict, (chars, length) -> output.append(CharBuffer.wrap(chars, 0, length)));
         } catch (IOException e) {
             return false;
         }
+        IniConfInstrumentation.written(event, startTime, null, written.characters(), written.sections());
         return true;
     }
 
+    static String serialize(IniConf dict) {
+        StringBuilder output = new StringBuilder();
+        try {
+            serialize(dict, (chars, length) -> output.append(chars, 0, length));
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return output.toString();
+    }
+
+    private static Written serialize(IniConf dict, CharSink sink) throws IOException {
+        Output output = new Output(sink);
+        StringBuilder path = new StringBuilder();
+        List<Frame> pending = new ArrayList<>();
+        pending.add(new Frame(dict, null, 0));
+        int written = 0;
+
+        while (!pending.isEmpty()) {
+            Frame current = pending.remove(pending.size() - 1);
+            written++;
+            path.setLength(current.parentPathLength());
+            if (current.name() != null) {
+                if (path.length() > 0) {
+                    path.append('.');
+                }
+                path.append(current.name());
+                output.append('[').append(path).append(']').append('\n');
+            }
+            Map<String, String> properties = current.section().getProperties();
+            if (!properties.isEmpty()) {
+                for (Map.Entry<String, String> property : properties.entrySet()) {
+                    output.append(property.getKey()).append(" = ").appendValue(property.getValue()).append('\n');
+                }
+                output.append('\n');
+            }
+            Map<String, IniConf> sections = current.section().getSections();
+            int firstChild = pending.size();
+            for (Map.Entry<String, IniConf> section : sections.entrySet()) {
+                pending.add(new Frame(section.getValue(), section.getKey(), path.length()));
+            }
+            Collections.reverse(pending.subList(firstChild, pending.size()));
+        }
+        output.flush();
+        return new Written(written, output.written);
+    }
+
+    /**
+     * Buffers serialized characters and hands them to a {@link CharSink} in blocks.
+     */
+    private static final class Output {
+
+        private final CharSink sink;
+        private final char[] buffer = new char[BUFFER_SIZE];
+        private int length;
+        /** The number of characters handed to the sink. */
+        private long written;
+
+        Output(CharSink sink) {
+            this.sink = sink;
+        }
+
+        Output append(char c) throws IOException {
+            if (length == buffer.length) {
+                flush();
+            }
+            buffer[length++] = c;
+            return this;
+        }
+
+        Output append(String s) throws IOException {
+            return append(s, 0, s.length());
+        }
+
+        Output append(StringBuilder s) throws IOException {
+            int start = 0;
+            while (start < s.length()) {
+                if (length == buffer.length) {
+                    flush();
+                }
+                int count = Math.min(buffer.length - length, s.length() - start);
+                s.getChars(start, start + count, buffer, length);
+                length += count;
+                start += count;
+            }
+            return this;
+        }
+
+        Output append(String s, int start, int end) throws IOException {
+            while (start < end) {
+                if (length == buffer.length) {
+                    flush();
+                }
+                int count = Math.min(buffer.length - length, end - start);
+                s.getChars(start, start + count, buffer, length);
+                length += count;
+                start += count;
+            }
+            return this;
+        }
+
+        /**
+         * Appends a value in its canonical encoding: quoted if it is empty or contains whitespace, with {@code "}
+         * and {@code \} escaped.
+         */
+        Output appendValue(String value) throws IOException {
+            boolean requiresQuotes = value.isEmpty() || containsWhitespace(value);
+            if (requiresQuotes) {
+                append('"');
+            }
+            int runStart = 0;
+            for (int index = 0; index < value.length(); index++) {
+                char current = value.charAt(index);
+                if (current == '\\' || current == '"') {
+                    append(value, runStart, index).append('\\').append(current);
+                    runStart = index + 1;
+                }
+            }
+            append(value, runStart, value.length());
+            if (requiresQuotes) {
+                append('"');
+            }
+            return this;
+        }
+
+        void flush() throws IOException {
+            if (length > 0) {
+                sink.write(buffer, length);
+                written += length;
+                length = 0;
+            }
+        }
+
+        /**
+         * Checks for whitespace code points. No supplementary code point is whitespace, so the check can be made on
+         * individual {@code char} values.
+         */
+        private static boolean containsWhitespace(String value) {
+            for (int index = 0; index < value.length(); index++) {
+                if (Character.isWhitespace(value.charAt(index))) {
+                    return true;
+                }
+            }
+            return false;
+        }
+    }
+
 }
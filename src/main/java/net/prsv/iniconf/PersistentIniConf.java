@@ -0,0 +1,416 @@
+package net.prsv.iniconf;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+
+/**
+ * An immutable configuration whose modifying methods return a new version instead of changing the existing one.
+ * Properties and subsections are stored in hash array mapped tries, and a new version shares every section and trie
+ * node that the modification does not touch with its predecessor. Keeping a version is therefore free, and an
+ * update allocates memory proportional to the depth of the modified section and the logarithm of the number of
+ * entries along the way, which makes it cheap to hold many versions of a large configuration at once.
+ * <p>
+ * Keys, section names, and values follow the same rules as in {@link IniConf}. The iteration order of properties and
+ * sections is unspecified. Instances can be shared between threads without synchronization.
+ */
+public final class PersistentIniConf {
+
+    private static final PersistentIniConf EMPTY =
+            new PersistentIniConf(IniConfHashTrie.empty(), IniConfHashTrie.empty());
+
+    private final IniConfHashTrie<String> properties;
+    private final IniConfHashTrie<PersistentIniConf> sections;
+    /** Cached hash code, or 0 if it has not been computed yet. */
+    private int hash;
+
+    private PersistentIniConf(IniConfHashTrie<String> properties, IniConfHashTrie<PersistentIniConf> sections) {
+        this.properties = properties;
+        this.sections = sections;
+    }
+
+    /**
+     * Returns the empty configuration.
+     * @return an empty PersistentIniConf
+     */
+    public static PersistentIniConf empty() {
+        return EMPTY;
+    }
+
+    /**
+     * Returns a persistent copy of the specified configuration.
+     * @param source the configuration to be copied
+     * @return a PersistentIniConf with the same content as {@code source}
+     * @throws NullPointerException if {@code source} is {@code null}
+     */
+    public static PersistentIniConf of(IniConf source) {
+        Objects.requireNonNull(source, "source must not be null");
+        // sections are converted in reverse pre-order, so that every section is converted after its subsections
+        List<IniConf> preOrder = new ArrayList<>();
+        Deque<IniConf> pending = new ArrayDeque<>();
+        pending.push(source);
+        while (!pending.isEmpty()) {
+            IniConf current = pending.pop();
+            preOrder.add(current);
+            for (IniConf child : current.getSections().values()) {
+                pending.push(child);
+            }
+        }
+        Map<IniConf, PersistentIniConf> converted = new IdentityHashMap<>();
+        for (int index = preOrder.size() - 1; index >= 0; index--) {
+            IniConf current = preOrder.get(index);
+            IniConfHashTrie<String> properties = IniConfHashTrie.empty();
+            for (Map.Entry<String, String> property : current.getProperties().entrySet()) {
+                properties = properties.put(property.getKey(), property.getValue());
+            }
+            IniConfHashTrie<PersistentIniConf> sections = IniConfHashTrie.empty();
+            for (Map.Entry<String, IniConf> section : current.getSections().entrySet()) {
+                sections = sections.put(section.getKey(), converted.get(section.getValue()));
+            }
+            converted.put(current, of(properties, sections));
+        }
+        return converted.get(source);
+    }
+
+    private static PersistentIniConf of(IniConfHashTrie<String> properties,
+                                        IniConfHashTrie<PersistentIniConf> sections) {
+        return properties.isEmpty() && sections.isEmpty() ? EMPTY : new PersistentIniConf(properties, sections);
+    }
+
+    /**
+     * Checks whether this configuration is empty.
+     * @return {@code true} if this configuration contains no properties and no sections
+     */
+    public boolean isEmpty() {
+        return properties.isEmpty() && sections.isEmpty();
+    }
+
+    /**
+     * Returns a version of this configuration in which the specified key is associated with the specified value.
+     * @param key key with which the specified value is to be associated
+     * @param value value to be associated with the specified key; leading and trailing whitespace is removed before
+     *              the value is stored
+     * @return the new version, or this configuration if the key already has the specified value
+     * @throws NullPointerException if {@code key} or {@code value} is {@code null}
+     * @throws IllegalArgumentException if {@code key} is invalid, or if {@code value} contains a line terminator or
+     *                                  the NUL character
+     */
+    public PersistentIniConf put(String key, String value) {
+        IniConf.validateKey(key);
+        return withProperty(IniConf.normalizeIdentifier(key), IniConf.normalizeValue(value));
+    }
+
+    /**
+     * Returns a version of this configuration in which the specified key in the specified subsection is associated
+     * with the specified value. Missing sections on the path are created.
+     * @param subsection path of the subsection that will contain the key
+     * @param key key with which the specified value is to be associated
+     * @param value value to be associated with the specified key; leading and trailing whitespace is removed before
+     *              the value is stored
+     * @return the new version, or this configuration if the key already has the specified value
+     * @throws NullPointerException if any of the parameters is {@code null}
+     * @throws IllegalArgumentException if {@code subsection} or {@code key} is invalid, or if {@code value} contains
+     *                                  a line terminator or the NUL character
+     */
+    public PersistentIniConf put(String subsection, String key, String value) {
+        List<String> sectionPath = IniConf.normalizeSectionPath(subsection);
+        IniConf.validateKey(key);
+        String normalizedKey = IniConf.normalizeIdentifier(key);
+        String normalizedValue = IniConf.normalizeValue(value);
+        PersistentIniConf[] path = resolvePath(sectionPath, sectionPath.size());
+        PersistentIniConf updated = path[sectionPath.size()].withProperty(normalizedKey, normalizedValue);
+        return rebuildPath(sectionPath, path, sectionPath.size(), updated);
+    }
+
+    /**
+     * Returns a version of this configuration in which the specified section is associated with the specified name,
+     * replacing any section with the same name. Missing sections on the path are created. The section is shared, not
+     * copied, and can also be part of other configurations.
+     * @param name the path of the section to be added
+     * @param section the section to be associated with the specified name
+     * @return the new version, or this configuration if it already contains {@code section} under {@code name}
+     * @throws NullPointerException if {@code name} or {@code section} is {@code null}
+     * @throws IllegalArgumentException if {@code name} is invalid
+     */
+    public PersistentIniConf addSection(String name, PersistentIniConf section) {
+        Objects.requireNonNull(section, "section must not be null");
+        List<String> sectionPath = IniConf.normalizeSectionPath(name);
+        int last = sectionPath.size() - 1;
+        PersistentIniConf[] path = resolvePath(sectionPath, last);
+        return rebuildPath(sectionPath, path, last, path[last].withSection(sectionPath.get(last), section));
+    }
+
+    private PersistentIniConf withProperty(String key, String value) {
+        return value.equals(properties.get(key)) ? this : new PersistentIniConf(properties.put(key, value), sections);
+    }
+
+    private PersistentIniConf withSection(String name, PersistentIniConf section) {
+        IniConfHashTrie<PersistentIniConf> updated = sections.put(name, section);
+        return updated == sections ? this : new PersistentIniConf(properties, updated);
+    }
+
+    /**
+     * Returns this section followed by the sections on the path, using empty sections where sections are missing.
+     */
+    private PersistentIniConf[] resolvePath(List<String> sectionPath, int componentCount) {
+        PersistentIniConf[] path = new PersistentIniConf[componentCount + 1];
+        path[0] = this;
+        for (int index = 0; index < componentCount; index++) {
+            PersistentIniConf child = path[index].sections.get(sectionPath.get(index));
+            path[index + 1] = child == null ? EMPTY : child;
+        }
+        return path;
+    }
+
+    /**
+     * Replaces the last section of a resolved path with {@code updated} and copies the sections above it.
+     */
+    private static PersistentIniConf rebuildPath(List<String> sectionPath, PersistentIniConf[] path,
+                                                 int componentCount, PersistentIniConf updated) {
+        for (int index = componentCount - 1; index >= 0; index--) {
+            updated = path[index].withSection(sectionPath.get(index), updated);
+        }
+        return updated;
+    }
+
+    /**
+     * Returns the value associated with the specified key, or {@code null} if no such value exists.
+     * @param key the key whose associated value is to be returned
+     * @return value associated with the specified key, or {@code null} if no such value exists
+     * @throws NullPointerException if {@code key} is {@code null}
+     */
+    public String get(String key) {
+        if (key == null) {
+            throw new NullPointerException("get(): key cannot be null");
+        }
+        return properties.get(IniConf.normalizeIdentifier(key));
+    }
+
+    /**
+     * Returns the value associated with the specified key in the specified subsection, or {@code null} if no such
+     * value exists.
+     * @param subsection path of the subsection containing the key
+     * @param key the key whose associated value is to be returned
+     * @return the value associated with the specified key, or {@code null} if no such value exists
+     * @throws NullPointerException if {@code subsection} or {@code key} is {@code null}
+     * @throws IllegalArgumentException if {@code subsection} is invalid
+     */
+    public String get(String subsection, String key) {
+        if (key == null) {
+            throw new NullPointerException("get(): key cannot be null");
+        }
+        PersistentIniConf section = getSection(subsection);
+        return section == null ? null : section.get(key);
+    }
+
+    /**
+     * Returns the value associated with the specified key, or {@code defaultValue} if no such value exists.
+     * @param key the key whose associated value is to be returned
+     * @param defaultValue the default value to be returned if there is no value associated with the specified key
+     * @return the value associated with the specified key, or {@code defaultValue} if no such value exists
+     * @throws NullPointerException if {@code key} is {@code null}
+     */
+    public String getOrDefault(String key, String defaultValue) {
+        String value = get(key);
+        return value == null ? defaultValue : value;
+    }
+
+    /**
+     * Returns the value associated with the specified key in the specified subsection, or {@code defaultValue} if no
+     * such value exists.
+     * @param subsection path of the subsection containing the key
+     * @param key the key whose associated value is to be returned
+     * @param defaultValue the default value to be returned if there is no value associated with the specified key
+     * @return the value associated with the specified key, or {@code defaultValue} if no such value exists
+     * @throws NullPointerException if {@code subsection} or {@code key} is {@code null}
+     * @throws IllegalArgumentException if {@code subsection} is invalid
+     */
+    public String getOrDefault(String subsection, String key, String defaultValue) {
+        String value = get(subsection, key);
+        return value == null ? defaultValue : value;
+    }
+
+    /**
+     * Checks whether this configuration contains the specified key.
+     * @param key the key to be checked
+     * @return {@code true} if this configuration contains the key, {@code false} otherwise
+     * @throws NullPointerException if {@code key} is {@code null}
+     */
+    public boolean isKey(String key) {
+        return get(key) != null;
+    }
+
+    /**
+     * Checks whether the specified subsection contains the specified key.
+     * @param subsection path of the subsection to be checked
+     * @param key the key to be checked
+     * @return {@code true} if the subsection exists and contains the key, {@code false} otherwise
+     * @throws NullPointerException if {@code subsection} or {@code key} is {@code null}
+     * @throws IllegalArgumentException if {@code subsection} is invalid
+     */
+    public boolean isKey(String subsection, String key) {
+        return get(subsection, key) != null;
+    }
+
+    /**
+     * Checks whether this configuration contains a subsection with the specified name.
+     * @param sectionName section name to be checked
+     * @return {@code true} if the subsection exists, {@code false} otherwise
+     * @throws NullPointerException if {@code sectionName} is {@code null}
+     * @throws IllegalArgumentException if {@code sectionName} is invalid
+     */
+    public boolean isSection(String sectionName) {
+        return getSection(sectionName) != null;
+    }
+
+    /**
+     * Returns the subsection with the specified name, or {@code null} if no such subsection exists.
+     * @param name the name of the subsection to be returned
+     * @return the subsection with the specified name, or {@code null} if no such subsection exists
+     * @throws NullPointerException if {@code name} is {@code null}
+     * @throws IllegalArgumentException if {@code name} is invalid
+     */
+    public PersistentIniConf getSection(String name) {
+        PersistentIniConf current = this;
+        for (String component : IniConf.normalizeSectionPath(name)) {
+            current = current.sections.get(component);
+            if (current == null) {
+                return null;
+            }
+        }
+        return current;
+    }
+
+    /**
+     * Returns an unmodifiable {@link Map} view of the properties of this configuration.
+     * @return an unmodifiable Map view of the properties
+     */
+    public Map<String, String> getProperties() {
+        return properties.asMap();
+    }
+
+    /**
+     * Returns an unmodifiable {@link Map} view of the subsections of this configuration.
+     * @return an unmodifiable Map view of the subsections
+     */
+    public Map<String, PersistentIniConf> getSections() {
+        return sections.asMap();
+    }
+
+    /**
+     * Returns a mutable copy of this configuration.
+     * @return a new IniConf with the same content
+     */
+    public IniConf toIniConf() {
+        IniConf result = new IniConf();
+        Deque<Copy> pending = new ArrayDeque<>();
+        pending.push(new Copy(result, this));
+        while (!pending.isEmpty()) {
+            Copy pair = pending.pop();
+            for (Map.Entry<String, String> property : pair.source().getProperties().entrySet()) {
+                pair.target().putNormalized(property.getKey(), property.getValue());
+            }
+            for (Map.Entry<String, PersistentIniConf> section : pair.source().getSections().entrySet()) {
+                pending.push(new Copy(pair.target().createChild(section.getKey()), section.getValue()));
+            }
+        }
+        return result;
+    }
+
+    private record Copy(IniConf target, PersistentIniConf source) {
+    }
+
+    /**
+     * Returns the INI representation of this configuration.
+     * @return a string representation of this configuration
+     */
+    @Override
+    public String toString() {
+        return toIniConf().toString();
+    }
+
+    /**
+     * Compares this configuration with another one. Sections shared by both are recognized by identity, so comparing
+     * two versions of a configuration only visits the sections in which they differ.
+     * @param other the object to be compared
+     * @return {@code true} if {@code other} is a PersistentIniConf with the same content
+     */
+    @Override
+    public boolean equals(Object other) {
+        if (!(other instanceof PersistentIniConf)) {
+            return false;
+        }
+        Deque<PersistentIniConf> pending = new ArrayDeque<>();
+        pending.push(this);
+        pending.push((PersistentIniConf) other);
+        while (!pending.isEmpty()) {
+            PersistentIniConf right = pending.pop();
+            PersistentIniConf left = pending.pop();
+            if (left == right) {
+                continue;
+            }
+            int leftHash = left.hash;
+            int rightHash = right.hash;
+            if (leftHash != 0 && rightHash != 0 && leftHash != rightHash
+                    || left.properties.size() != right.properties.size()
+                    || left.sections.size() != right.sections.size()
+                    || !left.getProperties().equals(right.getProperties())) {
+                return false;
+            }
+            for (Map.Entry<String, PersistentIniConf> section : left.getSections().entrySet()) {
+                PersistentIniConf rightChild = right.sections.get(section.getKey());
+                if (rightChild == null) {
+                    return false;
+                }
+                pending.push(section.getValue());
+                pending.push(rightChild);
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Returns the hash code of this configuration, which is the sum of the hash codes of the
+     * {@link #getProperties()} and {@link #getSections()} maps, as for {@link IniConf#hashCode()}. Hash codes are
+     * cached, so only sections that are new since the last call are visited.
+     * @return the hash code of this configuration
+     */
+    @Override
+    public int hashCode() {
+        int result = hash;
+        if (result == 0) {
+            // children are pushed after their parents, so the reversed visiting order computes them first
+            List<PersistentIniConf> uncached = new ArrayList<>();
+            Deque<PersistentIniConf> pending = new ArrayDeque<>();
+            pending.push(this);
+            while (!pending.isEmpty()) {
+                PersistentIniConf current = pending.pop();
+                uncached.add(current);
+                for (PersistentIniConf section : current.getSections().values()) {
+                    if (section.hash == 0) {
+                        pending.push(section);
+                    }
+                }
+            }
+            // each cached hash code is read once: a second read of a field shared with other threads may see 0
+            for (int index = uncached.size() - 1; index >= 0; index--) {
+                PersistentIniConf current = uncached.get(index);
+                result = current.getProperties().hashCode();
+                for (Map.Entry<String, PersistentIniConf> section : current.getSections().entrySet()) {
+                    int childHash = section.getValue().hash;
+                    if (childHash == 0) {
+                        childHash = section.getValue().hashCode();
+                    }
+                    result += section.getKey().hashCode() ^ childHash;
+                }
+                current.hash = result;
+            }
+        }
+        return result;
+    }
+
+}
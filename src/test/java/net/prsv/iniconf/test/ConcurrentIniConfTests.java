@@ -0,0 +1,129 @@
+package net.prsv.iniconf.test;
+
+import net.prsv.iniconf.ConcurrentIniConf;
+import net.prsv.iniconf.IniConf;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class ConcurrentIniConfTests {
+
+    @Test
+    void supportsTheIniConfApi() {
+        ConcurrentIniConf iniConf = new ConcurrentIniConf("name = root\n[server]\nhost = localhost\n");
+
+        assertEquals("root", iniConf.get("NAME"));
+        assertEquals("localhost", iniConf.get("Server", "host"));
+        assertNull(iniConf.put("server.tls", "enabled", " true "));
+        assertEquals("true", iniConf.put("server.tls", "enabled", "false"));
+        assertTrue(iniConf.isSection("server.tls"));
+        assertTrue(iniConf.isKey("server.tls", "enabled"));
+        assertEquals("none", iniConf.getOrDefault("server", "user", "none"));
+        assertThrows(IllegalArgumentException.class, () -> iniConf.put("bad key", "value"));
+        assertThrows(IllegalArgumentException.class, () -> iniConf.put("key", "a\nb"));
+
+        IniConf expected = new IniConf("name = root\n[server]\nhost = localhost\n[server.tls]\nenabled = false\n");
+        assertEquals(expected, iniConf.toIniConf());
+        assertEquals(expected.toString(), iniConf.toString());
+        assertEquals(expected.freeze(), iniConf.freeze());
+    }
+
+    @Test
+    void equalsAndHashCodeCompareContent() {
+        String input = "name = root\n[server]\nhost = localhost\n[server.tls]\nenabled = true\n";
+        ConcurrentIniConf first = new ConcurrentIniConf(input);
+        ConcurrentIniConf second = new ConcurrentIniConf(input);
+
+        assertEquals(first, second);
+        assertEquals(first.hashCode(), second.hashCode());
+        second.put("server.tls", "enabled", "false");
+        assertNotEquals(first, second);
+        second.put("server.tls", "enabled", "true");
+        assertEquals(first, second);
+        second.addSection("server.empty", new IniConf());
+        assertNotEquals(first, second);
+        assertNotEquals(first, first.toIniConf());
+    }
+
+    @Test
+    void addSectionCopiesTheSource() {
+        ConcurrentIniConf iniConf = new ConcurrentIniConf();
+        IniConf section = new IniConf("key = value\n[child]\nnested = 1\n");
+        iniConf.addSection("a.b", section);
+        section.put("key", "changed");
+
+        assertEquals("value", iniConf.get("a.b", "key"));
+        assertEquals("1", iniConf.get("a.b.child", "nested"));
+        assertFalse(iniConf.addSection("a.b", new IniConf()).isEmpty());
+        assertTrue(iniConf.getSection("a.b").isEmpty());
+    }
+
+    @Test
+    void viewsAreStableWhileWritesAreInProgress() {
+        ConcurrentIniConf iniConf = new ConcurrentIniConf();
+        iniConf.put("first", "1");
+        Map<String, String> properties = iniConf.getProperties();
+        for (String key : properties.keySet()) {
+            iniConf.put(key + "_copy", "2");
+        }
+
+        assertEquals(Map.of("first", "1"), properties);
+        assertEquals(List.of("first", "first_copy"), List.copyOf(iniConf.getProperties().keySet()));
+        assertThrows(UnsupportedOperationException.class, () -> iniConf.getSections().put("section", null));
+    }
+
+    @Test
+    void concurrentWritersDoNotLoseUpdates() throws Exception {
+        ConcurrentIniConf iniConf = new ConcurrentIniConf();
+        int threads = 4;
+        int writes = 500;
+        ExecutorService executor = Executors.newFixedThreadPool(threads * 2);
+        try {
+            List<Future<?>> futures = new ArrayList<>();
+            for (int thread = 0; thread < threads; thread++) {
+                String section = "section" + (thread % 2) + ".nested";
+                String prefix = "t" + thread + "_";
+                futures.add(executor.submit(() -> {
+                    for (int index = 0; index < writes; index++) {
+                        iniConf.put(section, prefix + index, Integer.toString(index));
+                    }
+                }));
+                futures.add(executor.submit(() -> {
+                    for (int index = 0; index < writes; index++) {
+                        ConcurrentIniConf current = iniConf.getSection(section);
+                        if (current != null) {
+                            Map<String, String> snapshot = current.getProperties();
+                            int size = 0;
+                            for (String ignored : snapshot.keySet()) {
+                                size++;
+                            }
+                            assertEquals(snapshot.size(), size);
+                        }
+                    }
+                }));
+            }
+            for (Future<?> future : futures) {
+                future.get();
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+
+        assertEquals(threads / 2 * writes, iniConf.getSection("section0.nested").getProperties().size());
+        assertEquals(threads / 2 * writes, iniConf.getSection("section1.nested").getProperties().size());
+        assertEquals(Integer.toString(writes - 1), iniConf.get("section1.nested", "t3_" + (writes - 1)));
+    }
+
+}
@@ -0,0 +1,109 @@
+package net.prsv.iniconf.test;
+
+import net.prsv.iniconf.FrozenIniConf;
+import net.prsv.iniconf.IniConf;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class FrozenIniConfTests {
+
+    private static final String INPUT = """
+            name = root
+            Mode = fast
+            [server]
+            host = localhost
+            port = 8080
+            [server.tls]
+            enabled = true
+            [client]
+            retries = 3
+            """;
+
+    @Test
+    void snapshotKeepsTheReadApi() {
+        FrozenIniConf frozen = new IniConf(INPUT).freeze();
+
+        assertEquals("root", frozen.get("NAME"));
+        assertEquals("fast", frozen.get("mode"));
+        assertEquals("localhost", frozen.get("server", "host"));
+        assertEquals("true", frozen.get("Server.TLS", "enabled"));
+        assertNull(frozen.get("missing"));
+        assertNull(frozen.get("missing", "host"));
+        assertEquals("none", frozen.getOrDefault("server", "user", "none"));
+        assertTrue(frozen.isKey("client", "retries"));
+        assertTrue(frozen.isSection("server.tls"));
+        assertFalse(frozen.isSection("server.missing"));
+        assertEquals("8080", frozen.getSection("server").get("port"));
+        assertThrows(NullPointerException.class, () -> frozen.get(null));
+        assertThrows(IllegalArgumentException.class, () -> frozen.getSection("bad section"));
+    }
+
+    @Test
+    void snapshotLooksUpNamesIgnoringCase() {
+        FrozenIniConf frozen = new IniConf(INPUT).freeze();
+
+        assertEquals(frozen.getSection("server.tls"), frozen.getSection("SERVER.Tls"));
+        assertEquals("8080", frozen.get("SeRvEr", "PoRt"));
+        assertNull(frozen.get("NAMÉ"));
+        assertNull(frozen.get("nam"));
+        assertNull(frozen.getSection("server.tl"));
+        assertThrows(IllegalArgumentException.class, () -> frozen.getSection("server."));
+    }
+
+    @Test
+    void snapshotPreservesInsertionOrder() {
+        IniConf iniConf = new IniConf();
+        List<String> keys = List.of("zeta", "alpha", "mid", "beta", "omega", "gamma", "delta", "kappa", "eta");
+        for (String key : keys) {
+            iniConf.put(key, key.toUpperCase());
+            iniConf.put(key + ".child", "key", key);
+        }
+        FrozenIniConf frozen = iniConf.freeze();
+
+        assertEquals(keys, List.copyOf(frozen.getProperties().keySet()));
+        assertEquals(keys, List.copyOf(frozen.getSections().keySet()));
+        for (String key : keys) {
+            assertEquals(key.toUpperCase(), frozen.get(key));
+            assertEquals(key, frozen.get(key + ".child", "key"));
+        }
+        assertEquals(iniConf.toString(), frozen.toString());
+    }
+
+    @Test
+    void snapshotIsIsolatedFromLaterChanges() {
+        IniConf iniConf = new IniConf(INPUT);
+        FrozenIniConf frozen = iniConf.freeze();
+        iniConf.put("server", "host", "example.com");
+        iniConf.put("added", "key", "value");
+
+        assertEquals("localhost", frozen.get("server", "host"));
+        assertFalse(frozen.isSection("added"));
+        Map<String, String> properties = frozen.getProperties();
+        assertThrows(UnsupportedOperationException.class, () -> properties.put("name", "other"));
+        assertThrows(UnsupportedOperationException.class, () -> frozen.getSections().clear());
+    }
+
+    @Test
+    void snapshotsCompareByContent() {
+        FrozenIniConf first = new IniConf(INPUT).freeze();
+        FrozenIniConf second = new IniConf(INPUT).freeze();
+        IniConf changed = new IniConf(INPUT);
+        changed.put("server.tls", "enabled", "false");
+
+        assertEquals(first, second);
+        assertEquals(first.hashCode(), second.hashCode());
+        assertNotEquals(first, changed.freeze());
+        assertEquals(new IniConf(INPUT), first.toIniConf());
+        assertTrue(new IniConf().freeze().isEmpty());
+    }
+
+}
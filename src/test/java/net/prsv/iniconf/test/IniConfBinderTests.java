@@ -0,0 +1,180 @@
+package net.prsv.iniconf.test;
+
+import net.prsv.iniconf.IniConf;
+import net.prsv.iniconf.IniConfBinder;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class IniConfBinderTests {
+
+    record Tls(boolean enabled, Optional<String> certificate) {
+    }
+
+    record Server(String host, int port, long maxBytes, double ratio, Duration timeout, Tls tls,
+                  Optional<Integer> backlog) {
+    }
+
+    interface Client {
+        String getName();
+
+        int retries();
+
+        boolean isVerbose();
+
+        default String describe() {
+            return getName() + "/" + retries();
+        }
+    }
+
+    interface ServerView {
+        String host();
+
+        int port();
+
+        long maxBytes();
+
+        double ratio();
+
+        Duration timeout();
+
+        Tls tls();
+
+        Optional<Integer> backlog();
+    }
+
+    interface Address {
+        String host();
+    }
+
+    interface Endpoint {
+        Address address();
+    }
+
+    interface SecureAddress extends Address {
+        int port();
+    }
+
+    interface SecureEndpoint extends Endpoint {
+        @Override
+        SecureAddress address();
+    }
+
+    interface SecureAddressHolder {
+        SecureAddress address();
+    }
+
+    interface MergedEndpoint extends Endpoint, SecureAddressHolder {
+    }
+
+    record Node(Node next) {
+    }
+
+    record Unsupported(List<String> values) {
+    }
+
+    private static final String INPUT = """
+            [server]
+            host = localhost
+            port = 8080
+            max_bytes = 1048576
+            ratio = 0.5
+            timeout = 30s
+            [server.tls]
+            enabled = yes
+            [client]
+            name = worker
+            retries = 3
+            verbose = off
+            """;
+
+    @Test
+    void bindsRecords() {
+        IniConfBinder<Server> binder = IniConfBinder.of(Server.class);
+        Server server = binder.bind(new IniConf(INPUT).getSection("server"));
+
+        assertEquals(new Server("localhost", 8080, 1_048_576L, 0.5, Duration.ofSeconds(30),
+                new Tls(true, Optional.empty()), Optional.empty()), server);
+    }
+
+    @Test
+    void bindsInterfaces() {
+        Client client = IniConfBinder.of(Client.class).bind(new IniConf(INPUT).getSection("client"));
+
+        assertEquals("worker", client.getName());
+        assertEquals(3, client.retries());
+        assertEquals(false, client.isVerbose());
+        assertEquals("worker/3", client.describe());
+        assertTrue(client.toString().contains("retries=3"));
+    }
+
+    @Test
+    void bindsInterfacesWithEverySupportedType() {
+        ServerView server = IniConfBinder.of(ServerView.class).bind(new IniConf(INPUT).getSection("server"));
+
+        assertEquals("localhost", server.host());
+        assertEquals(8080, server.port());
+        assertEquals(1_048_576L, server.maxBytes());
+        assertEquals(0.5, server.ratio());
+        assertEquals(Duration.ofSeconds(30), server.timeout());
+        assertEquals(new Tls(true, Optional.empty()), server.tls());
+        assertEquals(Optional.empty(), server.backlog());
+    }
+
+    @Test
+    void bindsCovariantOverridesWithTheNarrowestType() {
+        SecureEndpoint endpoint = IniConfBinder.of(SecureEndpoint.class)
+                .bind(new IniConf("[address]\nhost = localhost\nport = 8443\n"));
+        Endpoint base = endpoint;
+
+        assertEquals(8443, endpoint.address().port());
+        assertEquals("localhost", base.address().host());
+        assertEquals(endpoint.address(), base.address());
+        assertTrue(endpoint.toString().contains("port=8443"), endpoint.toString());
+        assertEquals(endpoint, endpoint);
+        assertEquals(System.identityHashCode(endpoint), endpoint.hashCode());
+
+        MergedEndpoint merged = IniConfBinder.of(MergedEndpoint.class)
+                .bind(new IniConf("[address]\nhost = localhost\nport = 8443\n"));
+        assertEquals(8443, ((SecureAddressHolder) merged).address().port());
+        assertEquals("localhost", ((Endpoint) merged).address().host());
+    }
+
+    @Test
+    void binderIsReusableAcrossConfigurations() {
+        IniConfBinder<Client> binder = IniConfBinder.of(Client.class);
+        IniConf first = new IniConf(INPUT);
+        IniConf second = new IniConf(INPUT);
+        second.put("client", "retries", "5");
+
+        assertEquals(3, binder.bind(first.getSection("client")).retries());
+        assertEquals(5, binder.bind(second.getSection("client")).retries());
+    }
+
+    @Test
+    void reportsEveryProblemAtBindTime() {
+        IniConf iniConf = new IniConf("[server]\nport = http\ntimeout = soon\n");
+        IllegalArgumentException exception = assertThrows(IllegalArgumentException.class,
+                () -> IniConfBinder.of(Server.class).bind(iniConf.getSection("server")));
+
+        String message = exception.getMessage();
+        assertTrue(message.contains("missing key 'host'"), message);
+        assertTrue(message.contains("'port'"), message);
+        assertTrue(message.contains("'timeout'"), message);
+        assertTrue(message.contains("missing section 'tls'"), message);
+    }
+
+    @Test
+    void rejectsUnsupportedTypes() {
+        assertThrows(IllegalArgumentException.class, () -> IniConfBinder.of(Unsupported.class));
+        assertThrows(IllegalArgumentException.class, () -> IniConfBinder.of(Node.class));
+        assertThrows(IllegalArgumentException.class, () -> IniConfBinder.of(String.class));
+    }
+
+}
@@ -0,0 +1,104 @@
+package net.prsv.iniconf.test;
+
+import net.prsv.iniconf.CompiledIniConf;
+import net.prsv.iniconf.IniConf;
+import net.prsv.iniconf.IniConfCompiler;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class IniConfCompilerTests {
+
+    private static final String INPUT = """
+            root = "two words"
+            [server]
+            host = localhost
+            [server.http]
+            port = 8080
+            path = C:\\\\config
+            [server.empty]
+            [logging]
+            level = info
+            host = localhost
+            """;
+
+    @TempDir
+    Path tempDir;
+
+    @Test
+    void compiledConfigurationMatchesSource() {
+        IniConf source = new IniConf(INPUT);
+        Path compiled = tempDir.resolve("app.inic");
+
+        assertTrue(IniConfCompiler.compile(source, compiled));
+        CompiledIniConf loaded = IniConfCompiler.load(compiled).orElseThrow();
+
+        assertEquals("8080", loaded.get("SERVER.HTTP", "PORT"));
+        assertEquals("C:\\config", loaded.get("server.http", "path"));
+        assertEquals("two words", loaded.get("root"));
+        assertEquals("fallback", loaded.getOrDefault("server", "port", "fallback"));
+        assertNull(loaded.getSection("missing"));
+        assertTrue(loaded.getSection("server.empty").isEmpty());
+        assertTrue(loaded.isKey("logging", "level"));
+        assertEquals(List.of("host"), List.copyOf(loaded.getSection("server").getProperties().keySet()));
+        assertEquals(List.of("http", "empty"), List.copyOf(loaded.getSection("server").getSections().keySet()));
+        assertEquals(Map.of("level", "info", "host", "localhost"), loaded.getSection("logging").getProperties());
+        assertEquals(source, loaded.toIniConf());
+        assertEquals(source.toString(), loaded.toString());
+    }
+
+    @Test
+    void rejectsCorruptAndForeignFiles() throws IOException {
+        Path compiled = tempDir.resolve("app.inic");
+        assertTrue(IniConfCompiler.compile(new IniConf(INPUT), compiled));
+        byte[] bytes = Files.readAllBytes(compiled);
+
+        bytes[bytes.length - 1] ^= 1;
+        Files.write(compiled, bytes);
+        assertTrue(IniConfCompiler.load(compiled).isEmpty());
+
+        Files.write(compiled, Arrays.copyOf(bytes, bytes.length - 4));
+        assertTrue(IniConfCompiler.load(compiled).isEmpty());
+
+        Files.writeString(compiled, INPUT);
+        assertTrue(IniConfCompiler.load(compiled).isEmpty());
+        assertTrue(IniConfCompiler.load(tempDir.resolve("missing.inic")).isEmpty());
+    }
+
+    @Test
+    void fallsBackToStaleOrCorruptSource() throws IOException {
+        Path source = tempDir.resolve("app.ini");
+        Path compiled = tempDir.resolve("app.inic");
+        Files.writeString(source, INPUT);
+
+        assertEquals("8080", IniConfCompiler.load(compiled, source).orElseThrow().get("server.http", "port"));
+        assertTrue(Files.exists(compiled));
+        assertEquals("8080", IniConfCompiler.load(compiled).orElseThrow().get("server.http", "port"));
+
+        Files.writeString(source, INPUT.replace("8080", "9090"));
+        Files.setLastModifiedTime(source, FileTime.fromMillis(Files.getLastModifiedTime(source).toMillis() + 5000));
+        assertEquals("9090", IniConfCompiler.load(compiled, source).orElseThrow().get("server.http", "port"));
+        assertEquals("9090", IniConfCompiler.load(compiled).orElseThrow().get("server.http", "port"));
+
+        Files.writeString(compiled, "garbage");
+        assertEquals("9090", IniConfCompiler.load(compiled, source).orElseThrow().get("server.http", "port"));
+
+        Files.delete(source);
+        assertEquals("9090", IniConfCompiler.load(compiled, source).orElseThrow().get("server.http", "port"));
+        Files.delete(compiled);
+        assertFalse(IniConfCompiler.load(compiled, source).isPresent());
+    }
+
+}
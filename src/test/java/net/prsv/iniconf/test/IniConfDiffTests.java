@@ -0,0 +1,116 @@
+package net.prsv.iniconf.test;
+
+import net.prsv.iniconf.IniConf;
+import net.prsv.iniconf.IniConfDiff;
+import net.prsv.iniconf.IniConfDiff.Change;
+import net.prsv.iniconf.IniConfDiff.Kind;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class IniConfDiffTests {
+
+    private static final String BEFORE = """
+            root = one
+            gone = yes
+            [server]
+            host = localhost
+            [server.http]
+            port = 8080
+            [server.old]
+            key = value
+            [unchanged.deep]
+            key = value
+            """;
+
+    private static final String AFTER = """
+            root = two
+            [server]
+            host = localhost
+            [server.http]
+            port = 8080
+            timeout = 30s
+            [unchanged.deep]
+            key = value
+            [added.child]
+            key = new
+            """;
+
+    @Test
+    void reportsChangesInSectionOrder() {
+        IniConfDiff diff = new IniConf(BEFORE).diff(new IniConf(AFTER));
+
+        assertEquals(List.of(
+                new Change(Kind.CHANGED, "", "root", "one", "two"),
+                new Change(Kind.REMOVED, "", "gone", "yes", null),
+                new Change(Kind.REMOVED, "server.old", null, null, null),
+                new Change(Kind.ADDED, "server.http", "timeout", null, "30s"),
+                new Change(Kind.ADDED, "added", null, null, null),
+                new Change(Kind.ADDED, "added.child", null, null, null),
+                new Change(Kind.ADDED, "added.child", "key", null, "new")), diff.changes());
+        assertTrue(diff.changes().get(2).isSectionChange());
+        assertEquals("~ root = one -> two\n", diff.changes().get(0) + "\n");
+        assertEquals("+ server.http.timeout = 30s", diff.changes().get(3).toString());
+    }
+
+    @Test
+    void applyReplaysChanges() {
+        IniConf before = new IniConf(BEFORE);
+        IniConf after = new IniConf(AFTER);
+        IniConf target = new IniConf(BEFORE);
+
+        target.apply(before.diff(after));
+
+        assertEquals(after, target);
+        assertEquals(after.toString(), target.toString());
+        assertEquals(after.getFlatProperties(), target.getFlatProperties());
+        assertTrue(target.diff(after).isEmpty());
+        assertNull(target.getSection("server.old"));
+
+        target.apply(after.diff(before));
+        assertEquals(before, target);
+    }
+
+    @Test
+    void equalConfigurationsHaveEmptyDiff() {
+        IniConf iniConf = new IniConf(BEFORE);
+
+        assertTrue(iniConf.diff(new IniConf(BEFORE)).isEmpty());
+        assertTrue(iniConf.diff(iniConf).isEmpty());
+        assertEquals("", iniConf.diff(iniConf).toString());
+        assertThrows(NullPointerException.class, () -> iniConf.diff(null));
+        assertThrows(NullPointerException.class, () -> iniConf.apply(null));
+    }
+
+    @Test
+    void diffFindsChangesHiddenByEqualHashCodes() {
+        IniConf before = new IniConf("[section]\nkey = Aa\n");
+        IniConf after = new IniConf("[section]\nkey = BB\n");
+        IniConf target = new IniConf("[section]\nkey = Aa\n");
+
+        assertEquals(before.getSection("section").hashCode(), after.getSection("section").hashCode());
+        assertEquals(List.of(new Change(Kind.CHANGED, "section", "key", "Aa", "BB")), before.diff(after).changes());
+        target.apply(before.diff(after));
+        assertEquals(after, target);
+        assertTrue(before.diff(new IniConf("[section]\nkey = Aa\n")).isEmpty());
+        assertTrue(before.diffTrustingHashCodes(after).isEmpty());
+    }
+
+    @Test
+    void applyToDivergedConfigurationIgnoresMissingTargets() {
+        IniConf target = new IniConf("[other]\nkey = value\n");
+
+        target.apply(new IniConf(BEFORE).diff(new IniConf(AFTER)));
+
+        assertEquals("two", target.get("root"));
+        assertEquals("30s", target.get("server.http", "timeout"));
+        assertEquals("new", target.get("added.child", "key"));
+        assertEquals("value", target.get("other", "key"));
+    }
+
+}
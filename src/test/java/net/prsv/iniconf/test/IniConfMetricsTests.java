@@ -0,0 +1,141 @@
+package net.prsv.iniconf.test;
+
+import jdk.jfr.Recording;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordingFile;
+import net.prsv.iniconf.IniConf;
+import net.prsv.iniconf.IniConfMetrics;
+import net.prsv.iniconf.IniConfReader;
+import net.prsv.iniconf.IniConfWriter;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.io.StringWriter;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class IniConfMetricsTests {
+
+    private static final String INPUT = """
+            root = value
+            [server]
+            host = localhost
+            [server.http]
+            port = 8080
+            """;
+
+    @TempDir
+    Path tempDir;
+
+    @AfterEach
+    void unregister() {
+        IniConfMetrics.unregister();
+    }
+
+    @Test
+    void listenerReceivesLookupsParsesAndWrites() throws IOException {
+        List<Boolean> lookups = new ArrayList<>();
+        List<String> operations = new ArrayList<>();
+        IniConfMetrics.register(new IniConfMetrics() {
+            @Override
+            public void onLookup(boolean found) {
+                lookups.add(found);
+            }
+
+            @Override
+            public void onParse(Path path, int lines, int sections, long nanos) {
+                operations.add("parse " + (path == null ? "string" : path.getFileName()) + " " + lines + " "
+                        + sections);
+                assertTrue(nanos >= 0);
+            }
+
+            @Override
+            public void onWrite(Path path, long characters, int sections, long nanos) {
+                operations.add("write " + (path == null ? "stream" : path.getFileName()) + " " + characters + " "
+                        + sections);
+            }
+        });
+
+        IniConf conf = new IniConf(INPUT);
+        conf.get("root");
+        conf.get("server.http", "port");
+        conf.get("missing", "port");
+        conf.getOrDefault("server", "missing", "default");
+        conf.getQualified("server.host");
+        IniConf.path("server.http").key("port").get(conf);
+        Path file = tempDir.resolve("app.ini");
+        IniConfWriter.write(file, conf);
+        IniConfReader.read(file).orElseThrow();
+        IniConfReader.readMapped(file).orElseThrow();
+        IniConfWriter.write(new StringWriter(), conf);
+
+        assertEquals(List.of(true, true, false, false, true, true), lookups);
+        int characters = conf.toString().length();
+        assertEquals(List.of(
+                "parse string 6 2",
+                "write app.ini " + characters + " 3",
+                "parse app.ini 9 2",
+                "parse app.ini 9 2",
+                "write stream " + characters + " 3"), operations);
+        assertThrows(NullPointerException.class, () -> IniConfMetrics.register(null));
+    }
+
+    @Test
+    void unregisteredListenerReceivesNothing() {
+        List<Boolean> lookups = new ArrayList<>();
+        IniConfMetrics.register(new IniConfMetrics() {
+            @Override
+            public void onLookup(boolean found) {
+                lookups.add(found);
+            }
+        });
+        IniConfMetrics.unregister();
+
+        assertNull(new IniConf(INPUT).get("missing"));
+        assertTrue(lookups.isEmpty());
+    }
+
+    @Test
+    void flightRecorderEventsDescribeReadsAndWrites() throws IOException {
+        Path file = tempDir.resolve("app.ini");
+        Path dump = tempDir.resolve("events.jfr");
+        try (Recording recording = new Recording()) {
+            recording.enable("net.prsv.iniconf.Parse");
+            recording.enable("net.prsv.iniconf.Read");
+            recording.enable("net.prsv.iniconf.Write");
+            recording.start();
+            IniConf conf = new IniConf(INPUT);
+            IniConfWriter.write(file, conf);
+            IniConfReader.read(file).orElseThrow();
+            recording.stop();
+            recording.dump(dump);
+        }
+
+        Map<String, RecordedEvent> events = RecordingFile.readAllEvents(dump).stream()
+                .collect(Collectors.toMap(event -> event.getEventType().getName(), Function.identity()));
+        RecordedEvent parse = events.get("net.prsv.iniconf.Parse");
+        assertEquals(INPUT.length(), parse.getLong("characters"));
+        assertEquals(2, parse.getInt("sections"));
+        RecordedEvent write = events.get("net.prsv.iniconf.Write");
+        assertEquals(file.toString(), write.getString("path"));
+        assertEquals(3, write.getInt("sections"));
+        RecordedEvent read = events.get("net.prsv.iniconf.Read");
+        assertEquals(file.toString(), read.getString("path"));
+        assertEquals(Files.size(file), read.getLong("bytes"));
+        assertEquals(9, read.getInt("lines"));
+        assertEquals(2, read.getInt("sections"));
+    }
+
+}
@@ -0,0 +1,135 @@
+package net.prsv.iniconf.test;
+
+import net.prsv.iniconf.IniConf;
+import net.prsv.iniconf.IniConfOverlay;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class IniConfOverlayTests {
+
+    private final IniConf defaults = new IniConf("""
+            name = app
+            [server.http]
+            port = 8080
+            host = localhost
+            [logging]
+            level = info
+            """);
+    private final IniConf site = new IniConf("""
+            [server.http]
+            port = 9090
+            """);
+    private final IniConf overrides = new IniConf();
+
+    @Test
+    void highestLayerWins() {
+        IniConfOverlay overlay = new IniConfOverlay(defaults, site, overrides);
+
+        assertEquals("9090", overlay.get("server.http", "port"));
+        assertEquals("9090", overlay.get("SERVER.HTTP", "PORT"));
+        assertEquals("localhost", overlay.get("server.http", "host"));
+        assertEquals("app", overlay.get("name"));
+        assertNull(overlay.get("server.http", "missing"));
+        assertNull(overlay.get("missing"));
+        assertEquals("fallback", overlay.getOrDefault("logging", "file", "fallback"));
+        assertTrue(overlay.isKey("logging", "level"));
+        assertFalse(overlay.isKey("server", "port"));
+        assertTrue(overlay.isSection("server"));
+        assertFalse(overlay.isSection("missing"));
+        assertEquals(List.of(defaults, site, overrides), overlay.getLayers());
+    }
+
+    @Test
+    void cachedLookupsFollowChangesInAnyLayer() {
+        IniConfOverlay overlay = new IniConfOverlay(defaults, site, overrides);
+        assertEquals("9090", overlay.get("server.http", "port"));
+        assertNull(overlay.get("logging", "file"));
+
+        overrides.put("server.http", "port", "7070");
+        assertEquals("7070", overlay.get("server.http", "port"));
+
+        defaults.getSection("logging").put("file", "app.log");
+        assertEquals("app.log", overlay.get("logging", "file"));
+
+        IniConf http = new IniConf();
+        http.put("port", "6060");
+        overrides.addSection("server.http", http);
+        assertEquals("6060", overlay.get("server.http", "port"));
+        http.put("port", "5050");
+        assertEquals("5050", overlay.get("server.http", "port"));
+    }
+
+    @Test
+    void concurrentReadersShareTheCache() throws Exception {
+        for (int index = 0; index < 5000; index++) {
+            defaults.put("section" + index % 50, "key" + index, Integer.toString(index));
+        }
+        IniConfOverlay overlay = new IniConfOverlay(defaults, site, overrides);
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+        try {
+            List<Future<?>> futures = new ArrayList<>();
+            for (int thread = 0; thread < 4; thread++) {
+                boolean upperCase = thread % 2 == 0;
+                futures.add(executor.submit(() -> {
+                    for (int index = 0; index < 5000; index++) {
+                        String section = "section" + index % 50;
+                        String key = "key" + index;
+                        assertEquals(Integer.toString(index), upperCase
+                                ? overlay.get(section.toUpperCase(), key.toUpperCase())
+                                : overlay.get(section, key));
+                        assertNull(overlay.get(section, "missing" + index));
+                        assertEquals("9090", overlay.get("Server.HTTP", "port"));
+                    }
+                }));
+            }
+            for (Future<?> future : futures) {
+                future.get();
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    void materializeFlattensLayers() {
+        overrides.put("logging", "level", "debug");
+        IniConfOverlay overlay = new IniConfOverlay(defaults, site, overrides);
+
+        IniConf flattened = overlay.materialize();
+
+        assertEquals(new IniConf("""
+                name = app
+                [server.http]
+                port = 9090
+                host = localhost
+                [logging]
+                level = debug
+                """), flattened);
+        flattened.put("name", "changed");
+        assertEquals("app", defaults.get("name"));
+        assertEquals("app", overlay.get("name"));
+    }
+
+    @Test
+    void rejectsInvalidArguments() {
+        IniConfOverlay overlay = new IniConfOverlay(defaults);
+
+        assertThrows(NullPointerException.class, () -> new IniConfOverlay(defaults, null));
+        assertThrows(NullPointerException.class, () -> overlay.get(null));
+        assertThrows(NullPointerException.class, () -> overlay.get("server", null));
+        assertThrows(IllegalArgumentException.class, () -> overlay.get("", "port"));
+        assertThrows(IllegalArgumentException.class, () -> overlay.get("server..http", "port"));
+    }
+
+}
@@ -0,0 +1,74 @@
+package net.prsv.iniconf.test;
+
+import net.prsv.iniconf.IniConf;
+import net.prsv.iniconf.IniConfKey;
+import net.prsv.iniconf.IniConfPath;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class IniConfPathTests {
+
+    @Test
+    void handlesMatchStringLookups() {
+        IniConf iniConf = new IniConf("name = root\n[db.primary]\nport = 5432\n");
+        IniConfKey port = IniConf.path("DB.Primary").key("PORT");
+        IniConfKey name = IniConf.key("Name");
+
+        assertEquals("5432", port.get(iniConf));
+        assertEquals("root", name.get(iniConf));
+        assertTrue(port.isKey(iniConf));
+        assertEquals("none", IniConf.path("db.replica").key("port").getOrDefault(iniConf, "none"));
+        assertSame(iniConf.getSection("db.primary"), port.path().getSection(iniConf));
+        assertEquals("db.primary.port", port.toString());
+        assertThrows(IllegalArgumentException.class, () -> IniConf.path("db..primary"));
+        assertThrows(IllegalArgumentException.class, () -> IniConf.path("db").key("bad key"));
+        assertThrows(NullPointerException.class, () -> port.get(null));
+    }
+
+    @Test
+    void handlesFollowTreeChanges() {
+        IniConf iniConf = new IniConf("[a.b.c]\nkey = old\n");
+        IniConfKey key = IniConf.path("a.b.c").key("key");
+        assertEquals("old", key.get(iniConf));
+
+        iniConf.getSection("a").addSection("b", new IniConf("[c]\nkey = new\n"));
+        assertEquals("new", key.get(iniConf));
+
+        iniConf.addSection("a", new IniConf());
+        assertNull(key.get(iniConf));
+        assertFalse(key.path().isSection(iniConf));
+
+        iniConf.put("a.b.c", "key", "created");
+        assertEquals("created", key.get(iniConf));
+    }
+
+    @Test
+    void handlesWorkAcrossConfigurations() {
+        IniConfPath path = IniConf.path("server");
+        IniConf first = new IniConf("[server]\nhost = first\n");
+        IniConf second = new IniConf("[server]\nhost = second\n");
+        IniConfKey host = path.key("host");
+
+        assertEquals("first", host.get(first));
+        assertEquals("second", host.get(second));
+        assertEquals("first", host.get(first));
+    }
+
+    @Test
+    void putCreatesMissingSections() {
+        IniConf iniConf = new IniConf();
+        IniConfKey key = IniConf.path("x.y").key("Key");
+
+        assertNull(key.put(iniConf, "  value  "));
+        assertEquals("value", iniConf.get("x.y", "key"));
+        assertEquals("value", key.put(iniConf, "other"));
+        assertThrows(IllegalArgumentException.class, () -> key.put(iniConf, "a\nb"));
+    }
+
+}
@@ -1,17 +1,29 @@
 package net.prsv.iniconf.test;
 
 import net.prsv.iniconf.IniConf;
+import net.prsv.iniconf.IniConfFormatException;
+import net.prsv.iniconf.IniConfHandler;
 import net.prsv.iniconf.IniConfReader;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.io.TempDir;
 
+import java.io.ByteArrayInputStream;
+import java.io.FilterReader;
 import java.io.IOException;
+import java.io.Reader;
+import java.io.StringReader;
 import java.nio.charset.StandardCharsets;
 import java.nio.file.Files;
 import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
 import java.util.Optional;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 
 class IniConfReaderTests {
@@ -80,4 +92,218 @@ class IniConfReaderTests {
 
         assertTrue(IniConfReader.read(malformedFile.toString()).isEmpty());
     }
+
+    @Test
+    void readsPath() throws IOException {
+        Path file = tempDir.resolve("path.ini");
+        Files.writeString(file, "[section]\nkey = value\n", StandardCharsets.UTF_8);
+
+        Optional<IniConf> result = IniConfReader.read(file);
+
+        assertTrue(result.isPresent());
+        assertEquals("value", result.orElseThrow().get("section", "key"));
+    }
+
+    @Test
+    void readsInputStreamAndStripsByteOrderMark() {
+        byte[] input = "\ufeffkey = Zażółć 😀\n".getBytes(StandardCharsets.UTF_8);
+
+        Optional<IniConf> result = IniConfReader.read(new ByteArrayInputStream(input));
+
+        assertTrue(result.isPresent());
+        assertEquals("Zażółć 😀", result.orElseThrow().get("key"));
+    }
+
+    @Test
+    void rejectsMalformedUtf8Stream() {
+        byte[] input = {'k', ' ', '=', ' ', (byte) 0xc3, 0x28};
+
+        assertTrue(IniConfReader.read(new ByteArrayInputStream(input)).isEmpty());
+    }
+
+    @Test
+    void readerMatchesStringParsingWhenInputArrivesOneCharacterAtATime() {
+        String input = "root = 1\r\n[a]\r\nkey = \"quoted value\"\r\r\n[a.b]\u2028deep = x" + "y".repeat(40000) + "\n";
+
+        Optional<IniConf> result = IniConfReader.read(new OneCharacterReader(new StringReader(input)));
+
+        assertTrue(result.isPresent());
+        assertEquals(new IniConf(input), result.orElseThrow());
+    }
+
+    @Test
+    void readerReportsLineNumbersAcrossBufferBoundaries() {
+        String input = "key = value\r\n".repeat(5000) + "invalid line\n";
+
+        IniConfFormatException exception = assertThrows(IniConfFormatException.class,
+                () -> IniConfReader.read(new StringReader(input)));
+
+        assertEquals(5001, exception.getLineNumber());
+    }
+
+    @Test
+    void mappedReadMatchesStreamingRead() throws IOException {
+        Path file = tempDir.resolve("mapped.ini");
+        StringBuilder input = new StringBuilder("\ufeff; generated\r\nroot = Zażółć 😀\r\n");
+        for (int section = 0; section < 2000; section++) {
+            input.append("[section_").append(section).append(".child]\u2028")
+                    .append("key = \"quoted \\\"value\\\"\"\n")
+                    .append("other = ").append(section).append('\n');
+        }
+        Files.writeString(file, input, StandardCharsets.UTF_8);
+
+        Optional<IniConf> mapped = IniConfReader.readMapped(file);
+
+        assertTrue(mapped.isPresent());
+        assertEquals(IniConfReader.read(file).orElseThrow(), mapped.orElseThrow());
+        assertEquals("quoted \"value\"", mapped.orElseThrow().get("section_1999.child", "key"));
+    }
+
+    @Test
+    void mappedReadRejectsMalformedUtf8Input() throws IOException {
+        Path malformedFile = tempDir.resolve("malformed.ini");
+        Files.write(malformedFile, new byte[] {'k', ' ', '=', ' ', (byte) 0xed, (byte) 0xa0, (byte) 0x80});
+
+        assertTrue(IniConfReader.readMapped(malformedFile).isEmpty());
+    }
+
+    @Test
+    void mappedReadReportsLineNumbers() throws IOException {
+        Path file = tempDir.resolve("invalid.ini");
+        Files.writeString(file, "key = value\r\n[section]\r\n[section name]\r\n", StandardCharsets.UTF_8);
+
+        IniConfFormatException exception = assertThrows(IniConfFormatException.class,
+                () -> IniConfReader.readMapped(file));
+
+        assertEquals(3, exception.getLineNumber());
+    }
+
+    @Test
+    void handlerReceivesEventsInInputOrder() {
+        String input = "; leading comment\nRoot_Key = \"  padded  \"\n[Server.HTTP]\n  # nested comment\nPort = 8080\n";
+        List<String> events = new ArrayList<>();
+
+        assertTrue(IniConfReader.parse(new StringReader(input), new RecordingHandler(events)));
+
+        assertEquals(List.of(
+                "comment: leading comment",
+                "property: root_key=padded",
+                "section: server.http",
+                "comment: nested comment",
+                "property: port=8080"), events);
+    }
+
+    @Test
+    void mappedHandlerParsingMatchesStreamingHandlerParsing() throws IOException {
+        Path file = tempDir.resolve("events.ini");
+        Files.writeString(file, "\ufeff#c\r\nkey = a\\\\b\r\n[s]\r\n;d\r\nother = Zażółć\r\n", StandardCharsets.UTF_8);
+        List<String> streamed = new ArrayList<>();
+        List<String> mapped = new ArrayList<>();
+
+        assertTrue(IniConfReader.parse(file, new RecordingHandler(streamed)));
+        assertTrue(IniConfReader.parseMapped(file, new RecordingHandler(mapped)));
+
+        assertEquals(List.of("comment: c", "property: key=a\\b", "section: s", "comment: d",
+                "property: other=Zażółć"), streamed);
+        assertEquals(streamed, mapped);
+    }
+
+    @Test
+    void handlerParsingReturnsFalseForMissingFile() {
+        assertFalse(IniConfReader.parse(tempDir.resolve("missing.ini"), new IniConfHandler() { }));
+    }
+
+    @Test
+    void parallelReadMatchesSequentialRead() throws IOException {
+        Path file = tempDir.resolve("large.ini");
+        Files.writeString(file, generateLargeInput(""), StandardCharsets.UTF_8);
+
+        Optional<IniConf> sequential = IniConfReader.read(file);
+        Optional<IniConf> parallel = IniConfReader.readParallel(file);
+
+        assertTrue(parallel.isPresent());
+        assertEquals(sequential.orElseThrow().toString(), parallel.orElseThrow().toString());
+        assertEquals("last", parallel.orElseThrow().get("shared", "key"));
+    }
+
+    @Test
+    void parallelReadReportsGlobalLineNumbers() throws IOException {
+        Path file = tempDir.resolve("invalid.ini");
+        String input = generateLargeInput("invalid line\n");
+        Files.writeString(file, input, StandardCharsets.UTF_8);
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+        try {
+            IniConfFormatException expected = assertThrows(IniConfFormatException.class, () -> new IniConf(input));
+            IniConfFormatException actual = assertThrows(IniConfFormatException.class,
+                    () -> IniConfReader.readParallel(file, executor));
+
+            assertEquals(expected.getLineNumber(), actual.getLineNumber());
+            assertEquals(expected.getMessage(), actual.getMessage());
+        } finally {
+            executor.shutdown();
+        }
+    }
+
+    @Test
+    void lazyReadMatchesSequentialRead() throws IOException {
+        Path file = tempDir.resolve("large.ini");
+        Files.writeString(file, "\uFEFF" + generateLargeInput(""), StandardCharsets.UTF_8);
+
+        Optional<IniConf> sequential = IniConfReader.read(file);
+        Optional<IniConf> lazy = IniConfReader.readLazily(file, true);
+
+        assertEquals(sequential, lazy);
+        assertEquals("last", lazy.orElseThrow().get("shared", "key"));
+        assertTrue(IniConfReader.readLazily(tempDir.resolve("missing.ini")).isEmpty());
+    }
+
+    private static String generateLargeInput(String trailer) {
+        StringBuilder input = new StringBuilder("root = value\r\n");
+        for (int section = 0; section < 40000; section++) {
+            input.append("[shard_").append(section % 5000).append(".node]\r\n")
+                    .append("key = \"value ").append(section).append("\"\n")
+                    .append("; comment\n")
+                    .append("[shared]\nkey = ").append(section == 39999 ? "last" : "v" + section).append('\n');
+            if (section == 30000) {
+                input.append(trailer);
+            }
+        }
+        return input.toString();
+    }
+
+    private static final class RecordingHandler implements IniConfHandler {
+
+        private final List<String> events;
+
+        RecordingHandler(List<String> events) {
+            this.events = events;
+        }
+
+        @Override
+        public void onSection(String path) {
+            events.add("section: " + path);
+        }
+
+        @Override
+        public void onProperty(String key, String value) {
+            events.add("property: " + key + "=" + value);
+        }
+
+        @Override
+        public void onComment(String comment) {
+            events.add("comment: " + comment.strip());
+        }
+    }
+
+    private static final class OneCharacterReader extends FilterReader {
+
+        OneCharacterReader(Reader in) {
+            super(in);
+        }
+
+        @Override
+        public int read(char[] buffer, int offset, int length) throws IOException {
+            return super.read(buffer, offset, Math.min(length, 1));
+        }
+    }
 }
@@ -0,0 +1,139 @@
+package net.prsv.iniconf.test;
+
+import net.prsv.iniconf.IniConf;
+import net.prsv.iniconf.IniConfFormatException;
+import net.prsv.iniconf.IniConfReloader;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.time.Duration;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class IniConfReloaderTests {
+
+    @TempDir
+    Path tempDir;
+
+    private static final class QueueListener implements IniConfReloader.Listener {
+        final BlockingQueue<IniConf> reloads = new LinkedBlockingQueue<>();
+        final BlockingQueue<Exception> failures = new LinkedBlockingQueue<>();
+
+        @Override
+        public void onReload(IniConf config) {
+            reloads.add(config);
+        }
+
+        @Override
+        public void onReloadFailed(Exception cause) {
+            failures.add(cause);
+        }
+    }
+
+    private void replace(Path file, String content) throws IOException {
+        Path staging = tempDir.resolve("staging.tmp");
+        Files.writeString(staging, content);
+        Files.move(staging, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    @Test
+    void publishesChangedFiles() throws Exception {
+        Path file = tempDir.resolve("app.ini");
+        Files.writeString(file, "[server]\nport = 8080\n");
+        QueueListener listener = new QueueListener();
+        try (IniConfReloader reloader = new IniConfReloader(file, Duration.ofMillis(20))) {
+            reloader.addListener(listener);
+            assertEquals("8080", reloader.get().get("server", "port"));
+
+            replace(file, "[server]\nport = 9090\n");
+            IniConf reloaded = listener.reloads.poll(10, TimeUnit.SECONDS);
+
+            assertNotNull(reloaded);
+            assertEquals("9090", reloaded.get("server", "port"));
+            assertSame(reloaded, reloader.get());
+        }
+    }
+
+    @Test
+    void closeStopsTheWatchingThread() throws Exception {
+        Path file = tempDir.resolve("closed.ini");
+        Files.writeString(file, "key = value\n");
+        QueueListener listener = new QueueListener();
+        IniConfReloader reloader = new IniConfReloader(file, Duration.ZERO);
+        reloader.addListener(listener);
+        reloader.close();
+
+        assertTrue(Thread.getAllStackTraces().keySet().stream()
+                .noneMatch(thread -> thread.getName().equals("IniConfReloader-closed.ini")));
+        replace(file, "key = changed\n");
+        assertNull(listener.reloads.poll(200, TimeUnit.MILLISECONDS));
+        assertEquals("value", reloader.get().get("key"));
+    }
+
+    @Test
+    void keepsTheLastGoodConfigurationWhenReloadFails() throws Exception {
+        Path file = tempDir.resolve("app.ini");
+        Files.writeString(file, "key = good\n");
+        QueueListener listener = new QueueListener();
+        try (IniConfReloader reloader = new IniConfReloader(file, Duration.ZERO)) {
+            reloader.close();
+            reloader.addListener(listener);
+            IniConf good = reloader.get();
+
+            Files.writeString(file, "key = good\n[broken\n");
+            assertFalse(reloader.reload());
+            assertInstanceOf(IniConfFormatException.class, listener.failures.poll());
+
+            Files.delete(file);
+            assertFalse(reloader.reload());
+            assertInstanceOf(NoSuchFileException.class, listener.failures.poll());
+            assertSame(good, reloader.get());
+            assertTrue(listener.reloads.isEmpty());
+        }
+    }
+
+    @Test
+    void unchangedContentIsNotReported() throws Exception {
+        Path file = tempDir.resolve("app.ini");
+        Files.writeString(file, "key = value\n");
+        QueueListener listener = new QueueListener();
+        try (IniConfReloader reloader = new IniConfReloader(file)) {
+            reloader.close();
+            reloader.addListener(listener);
+
+            Files.writeString(file, "; a comment\nKEY =   value\n");
+            assertTrue(reloader.reload());
+            assertNull(listener.reloads.poll());
+
+            Files.writeString(file, "key = other\n");
+            assertTrue(reloader.reload());
+            assertEquals("other", listener.reloads.poll().get("key"));
+        }
+    }
+
+    @Test
+    void constructorRejectsUnreadableOrInvalidFiles() throws IOException {
+        Path invalid = tempDir.resolve("invalid.ini");
+        Files.writeString(invalid, "not a property\n");
+
+        assertThrows(NoSuchFileException.class, () -> new IniConfReloader(tempDir.resolve("missing.ini")));
+        assertThrows(IniConfFormatException.class, () -> new IniConfReloader(invalid));
+        assertThrows(IllegalArgumentException.class, () -> new IniConfReloader(invalid, Duration.ofMillis(-1)));
+    }
+
+}
@@ -0,0 +1,96 @@
+package net.prsv.iniconf.test;
+
+import net.prsv.iniconf.IniConf;
+import net.prsv.iniconf.IniConfReader;
+import net.prsv.iniconf.IniConfStringPool;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class IniConfStringPoolTests {
+
+    @TempDir
+    Path tempDir;
+
+    private static String shards(int count) {
+        StringBuilder input = new StringBuilder();
+        for (int shard = 0; shard < count; shard++) {
+            input.append("[shard_").append(shard).append("]\n")
+                    .append("Host = db.internal\n")
+                    .append("replicas = 3\n");
+        }
+        return input.toString();
+    }
+
+    private static String keyInstance(IniConf section, String key) {
+        for (Map.Entry<String, String> entry : section.getProperties().entrySet()) {
+            if (entry.getKey().equals(key)) {
+                return entry.getKey();
+            }
+        }
+        throw new AssertionError(key);
+    }
+
+    @Test
+    void parsedKeysAndValuesShareInstances() {
+        IniConfStringPool pool = new IniConfStringPool();
+        IniConf iniConf = new IniConf(shards(100), pool);
+        IniConf first = iniConf.getSection("shard_0");
+        IniConf last = iniConf.getSection("shard_99");
+
+        assertEquals(new IniConf(shards(100)), iniConf);
+        assertSame(first.get("host"), last.get("host"));
+        assertSame(keyInstance(first, "host"), keyInstance(last, "host"));
+        assertSame(first.get("replicas"), last.get("replicas"));
+        assertEquals(4 + 100, pool.size());
+        assertTrue(pool.hits() >= 99 * 4, pool.toString());
+        assertTrue(pool.savedBytes() > 0);
+    }
+
+    @Test
+    void putAndSectionCreationUseThePool() {
+        IniConfStringPool pool = new IniConfStringPool();
+        IniConf iniConf = new IniConf(pool);
+        iniConf.put("a.x", "key", new String("value"));
+        iniConf.put("b.x", "KEY", new String("value"));
+
+        assertSame(iniConf.get("a.x", "key"), iniConf.get("b.x", "key"));
+        assertSame(pool.intern("x"), iniConf.getSection("b").getSections().keySet().iterator().next());
+    }
+
+    @Test
+    void fullPoolStoresStringsAsTheyAre() {
+        IniConfStringPool pool = new IniConfStringPool(1);
+        String first = pool.intern(new String("first"));
+
+        assertSame(first, pool.intern(new String("first")));
+        String second = new String("second");
+        assertSame(second, pool.intern(second));
+        assertNotSame(second, pool.intern(new String("second")));
+        assertEquals(1, pool.size());
+        assertThrows(IllegalArgumentException.class, () -> new IniConfStringPool(-1));
+    }
+
+    @Test
+    void readersShareAPool() throws IOException {
+        Path file = tempDir.resolve("shards.ini");
+        Files.writeString(file, shards(10));
+        IniConfStringPool pool = new IniConfStringPool();
+
+        IniConf first = IniConfReader.read(file, pool).orElseThrow();
+        IniConf second = IniConfReader.read(file, pool).orElseThrow();
+
+        assertSame(first.get("shard_3", "host"), second.get("shard_7", "host"));
+    }
+
+}
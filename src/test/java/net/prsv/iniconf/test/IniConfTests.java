@@ -9,6 +9,9 @@ import org.junit.jupiter.params.provider.ValueSource;
 import java.net.URISyntaxException;
 import java.net.URL;
 import java.nio.file.Path;
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 
 import static org.junit.jupiter.api.Assertions.*;
@@ -83,6 +86,16 @@ public class IniConfTests {
         assertEquals("value", iniConf.get("key"));
     }
 
+    @ParameterizedTest
+    @ValueSource(strings = {"\n", "\r", "\r\n", "\u000B", "\u000C", "\u0085", "\u2028", "\u2029"})
+    void constructorCountsEveryLineTerminator(String terminator) {
+        String input = String.join(terminator, "key = value", "", "[section]", "other = value", "invalid line");
+
+        IniConfFormatException exception = assertThrows(IniConfFormatException.class, () -> new IniConf(input));
+
+        assertEquals(5, exception.getLineNumber());
+    }
+
     @ParameterizedTest
     @ValueSource(strings = {
             "section",
@@ -309,6 +322,81 @@ public class IniConfTests {
         );
     }
 
+    @Test
+    void caseInsensitiveLookupsSurviveGrowthAndRemoval() {
+        IniConf iniConf = new IniConf();
+        IniConf evenKeys = new IniConf();
+        for (int index = 0; index < 1000; index++) {
+            iniConf.put("Key_" + index, "value" + index);
+            if (index % 2 == 0) {
+                evenKeys.put("key_" + index, "value" + index);
+            }
+        }
+        iniConf.put("Server.HTTP", "Port", "8080");
+        evenKeys.put("server.http", "port", "8080");
+
+        iniConf.apply(iniConf.diff(evenKeys));
+
+        assertEquals(evenKeys, iniConf);
+        assertEquals(List.copyOf(evenKeys.getProperties().keySet()), List.copyOf(iniConf.getProperties().keySet()));
+        assertEquals("value998", iniConf.get("KEY_998"));
+        assertNull(iniConf.get("key_999"));
+        assertFalse(iniConf.isKey("KEY_1"));
+        // the Kelvin sign is not ASCII and converts to a lowercase 'k'
+        assertEquals("value0", iniConf.get("\u212Aey_0"));
+        assertEquals("8080", iniConf.getOrDefault("SERVER.Http", "PORT", "default"));
+        assertNull(iniConf.getSection("server.https"));
+        assertThrows(IllegalArgumentException.class, () -> iniConf.get("server..http", "port"));
+        assertThrows(IllegalArgumentException.class, () -> iniConf.isSection("server."));
+        assertThrows(IllegalArgumentException.class, () -> iniConf.getSection("missing section"));
+
+        iniConf.put("KEY_1", "again");
+        assertEquals("key_1", List.copyOf(iniConf.getProperties().keySet()).get(500));
+    }
+
+    @Test
+    void builderAssemblesTheSameTreeAsPut() {
+        IniConf expected = new IniConf();
+        expected.put("root", "value");
+        expected.put("server.http", "port", "9090");
+        expected.put("server.http", "host", "localhost");
+        expected.put("logging", "level", "info");
+        expected.addSection("empty.child", new IniConf());
+
+        IniConf.Builder builder = new IniConf.Builder()
+                .put("Root", "  value  ")
+                .put("Server.HTTP", "Port", "8080")
+                .putAll("server.http", Map.of("HOST", "localhost"))
+                .put("SERVER.http", "port", "9090")
+                .putAll("logging", Map.of("level", "info"))
+                .addSection("empty.child");
+        IniConf built = builder.build();
+
+        assertEquals(expected, built);
+        assertEquals(expected.toString(), built.toString());
+        assertEquals(List.of("port", "host"), List.copyOf(built.getSection("server.http").getProperties().keySet()));
+        assertTrue(builder.build().isEmpty());
+        built.put("root", "changed");
+        assertEquals("changed", built.get("ROOT"));
+        assertNotEquals(expected.hashCode(), built.hashCode());
+    }
+
+    @Test
+    void builderValidatesLikePut() {
+        IniConf.Builder builder = new IniConf.Builder();
+
+        assertThrows(IllegalArgumentException.class, () -> builder.put("invalid key", "value"));
+        assertThrows(IllegalArgumentException.class, () -> builder.put("", "value"));
+        assertThrows(IllegalArgumentException.class, () -> builder.put("key", "line\u2028break"));
+        assertThrows(IllegalArgumentException.class, () -> builder.put("key", "nul\0"));
+        assertThrows(IllegalArgumentException.class, () -> builder.put("a..b", "key", "value"));
+        assertThrows(IllegalArgumentException.class, () -> builder.putAll(Map.of("kéy", "value")));
+        assertThrows(NullPointerException.class, () -> builder.put(null, "value"));
+        assertThrows(NullPointerException.class, () -> builder.put("key", null));
+        assertThrows(NullPointerException.class, () -> builder.addSection(null));
+        assertTrue(builder.build().isEmpty());
+    }
+
     @Test
     void mixedCaseProgrammaticConfigurationRoundTripsInLowercase() {
         IniConf original = new IniConf();
@@ -497,6 +585,20 @@ public class IniConfTests {
         assertThrows(IllegalArgumentException.class, () -> child.addSection("parent", root));
     }
 
+    @Test
+    void addSectionFollowsParentLinksAfterDetaching() {
+        IniConf root = new IniConf();
+        IniConf child = new IniConf();
+        root.addSection("a.b", child);
+        IniConf intermediate = root.getSection("a");
+
+        assertThrows(IllegalArgumentException.class, () -> child.addSection("c.root", root));
+        assertThrows(IllegalArgumentException.class, () -> child.addSection("c", intermediate));
+        assertSame(child, root.addSection("a.b", new IniConf()));
+        assertNull(root.addSection("other", child));
+        assertThrows(IllegalArgumentException.class, () -> child.addSection("c", root));
+    }
+
     @Test
     void addSectionAllowsDistinctEqualSection() {
         IniConf root = new IniConf();
@@ -520,4 +622,210 @@ public class IniConfTests {
                 "key12", "default"));
     }
 
+    @Test
+    void addSectionAllowsSharingASectionBetweenConfigurations() {
+        IniConf first = new IniConf("[a]\nkey = first\n");
+        IniConf second = new IniConf();
+        IniConf shared = new IniConf("key = old\n");
+        first.addSection("a.shared", shared);
+        second.addSection("b", shared);
+        Map<String, String> firstFlat = first.getFlatProperties();
+        Map<String, String> secondFlat = second.getFlatProperties();
+        int firstHash = first.hashCode();
+        int secondHash = second.hashCode();
+
+        shared.put("key", "new");
+        assertSame(shared, first.getSection("a.shared"));
+        assertSame(shared, second.getSection("b"));
+        assertEquals("new", firstFlat.get("a.shared.key"));
+        assertEquals("new", secondFlat.get("b.key"));
+        assertEquals(new IniConf("[a]\nkey = first\n[a.shared]\nkey = new\n"), first);
+        assertEquals(new IniConf("[b]\nkey = new\n").hashCode(), second.hashCode());
+        assertNotEquals(firstHash, first.hashCode());
+        assertNotEquals(secondHash, second.hashCode());
+
+        first.addSection("a.shared", new IniConf());
+        shared.put("key", "detached");
+        assertNull(first.get("a.shared", "key"));
+        assertEquals("detached", secondFlat.get("b.key"));
+        assertThrows(IllegalArgumentException.class, () -> shared.addSection("loop", second));
+    }
+
+    @Test
+    void flatPropertiesFollowTheSerializedOrder() {
+        IniConf iniConf = new IniConf("root = 1\n[a]\nx = 2\n[a.b.c]\ny = 3\n[d]\nz = 4\n");
+
+        assertEquals(List.of("root", "a.x", "a.b.c.y", "d.z"),
+                List.copyOf(iniConf.getFlatProperties().keySet()));
+        assertEquals("3", iniConf.getQualified("A.B.C.Y"));
+        assertEquals("1", iniConf.getQualified("root"));
+        assertNull(iniConf.getQualified("a.b.c"));
+        assertNull(iniConf.getQualified("not a key"));
+        assertEquals(Map.of("c.y", "3"), iniConf.getSection("a.b").getFlatProperties());
+        assertThrows(UnsupportedOperationException.class, () -> iniConf.getFlatProperties().put("k", "v"));
+    }
+
+    @Test
+    void flatPropertiesTrackChanges() {
+        IniConf iniConf = new IniConf("[a.b]\nkey = old\n");
+        Map<String, String> flat = iniConf.getFlatProperties();
+        assertEquals("old", flat.get("a.b.key"));
+
+        iniConf.getSection("a.b").put("key", "new");
+        assertEquals("new", flat.get("a.b.key"));
+
+        iniConf.getSection("a").put("added", "1");
+        assertEquals("1", flat.get("a.added"));
+
+        IniConf replacement = new IniConf("[c]\nkey = replaced\n");
+        IniConf detached = iniConf.addSection("a.b", replacement);
+        assertNull(flat.get("a.b.key"));
+        assertEquals("replaced", iniConf.getQualified("a.b.c.key"));
+
+        detached.put("key", "ignored");
+        assertEquals("replaced", iniConf.getQualified("a.b.c.key"));
+        assertEquals(iniConf.getFlatProperties(), flat);
+        assertEquals(2, flat.size());
+    }
+
+    @Test
+    void typedGettersParseValues() {
+        IniConf iniConf = new IniConf("""
+                port = 8080
+                big = 9000000000
+                ratio = 0.75
+                enabled = Yes
+                [limits]
+                timeout = 1500ms
+                window = PT1M
+                buffer = 64KiB
+                max = 2g
+                """);
+
+        assertEquals(8080, iniConf.getInt("port", 0));
+        assertEquals(9_000_000_000L, iniConf.getLong("big", 0));
+        assertEquals(0.75, iniConf.getDouble("ratio", 0));
+        assertTrue(iniConf.getBoolean("enabled", false));
+        assertEquals(Duration.ofMillis(1500), iniConf.getDuration("limits", "timeout", null));
+        assertEquals(Duration.ofMinutes(1), iniConf.getDuration("limits", "window", null));
+        assertEquals(65_536, iniConf.getByteSize("limits", "buffer", 0));
+        assertEquals(2L << 30, iniConf.getByteSize("limits", "max", 0));
+        assertEquals(7, iniConf.getInt("missing", "port", 7));
+        assertEquals(-1, iniConf.getInt("missing", -1));
+        assertThrows(IllegalArgumentException.class, () -> iniConf.getInt("big", 0));
+        assertThrows(IllegalArgumentException.class, () -> iniConf.getBoolean("port", false));
+        assertThrows(IllegalArgumentException.class, () -> iniConf.getDuration("limits", "buffer", null));
+        assertThrows(IllegalArgumentException.class, () -> iniConf.getByteSize("ratio", 0));
+        assertThrows(NullPointerException.class, () -> iniConf.getInt(null, 0));
+    }
+
+    @Test
+    void typedGettersSeeReplacedValues() {
+        IniConf iniConf = new IniConf("port = 8080\n");
+        IniConf copy = new IniConf("port = 8080\n");
+
+        assertEquals(8080, iniConf.getInt("port", 0));
+        assertEquals(8080, iniConf.getInt("port", 0));
+        assertEquals("8080", iniConf.get("port"));
+        assertEquals(copy, iniConf);
+        assertEquals(copy.hashCode(), iniConf.hashCode());
+        assertEquals(copy.toString(), iniConf.toString());
+
+        assertEquals("8080", iniConf.put("port", "9090"));
+        assertEquals(9090, iniConf.getInt("port", 0));
+        assertEquals(Map.of("port", "9090"), iniConf.getProperties());
+    }
+
+    @Test
+    void lazyParseMatchesEagerParse() {
+        String input = "root = \"two words\"\n[server.http]\nPort = 8080 \npath = C:\\\\config\nquote = \"say \\\"hi\\\"\"\n"
+                + "empty = \"\"\n[server]\nname = main\n";
+        IniConf eager = new IniConf(input);
+        IniConf lazy = IniConf.parseLazily(input);
+
+        assertEquals("two words", lazy.get("root"));
+        assertEquals("C:\\config", lazy.get("server.http", "path"));
+        assertEquals("say \"hi\"", lazy.get("server.http", "quote"));
+        assertEquals(8080, lazy.getInt("server.http", "port", 0));
+        assertEquals(eager, lazy);
+        assertEquals(eager.hashCode(), lazy.hashCode());
+        assertEquals(eager.toString(), lazy.toString());
+        assertEquals(eager.getFlatProperties(), lazy.getFlatProperties());
+    }
+
+    @Test
+    void lazyParseReportsMalformedValuesWhenRead() {
+        String input = "good = value\n\n[section]\nbad = \"unterminated\n";
+        IniConf lazy = IniConf.parseLazily(input);
+
+        assertEquals("value", lazy.get("good"));
+        assertTrue(lazy.isKey("section", "bad"));
+        IniConfFormatException expected = assertThrows(IniConfFormatException.class, () -> new IniConf(input));
+        IniConfFormatException actual = assertThrows(IniConfFormatException.class, () -> lazy.get("section", "bad"));
+        assertEquals(expected.getLineNumber(), actual.getLineNumber());
+        assertEquals(expected.getMessage(), actual.getMessage());
+
+        IniConfFormatException validated = assertThrows(IniConfFormatException.class,
+                () -> IniConf.parseLazily(input, true));
+        assertEquals(4, validated.getLineNumber());
+        assertThrows(IniConfFormatException.class, () -> IniConf.parseLazily("a = b\\c\n", true));
+        assertEquals("b\\c", IniConf.parseLazily("a = b\\\\c\n", true).get("a"));
+        assertThrows(IniConfFormatException.class, () -> IniConf.parseLazily("a = b\n[s]\nc = d\0e\n", true));
+    }
+
+    @Test
+    void validatedLazyParseOfLargeInputTakesLinearTime() {
+        StringBuilder input = new StringBuilder();
+        for (int line = 0; line < 200_000; line++) {
+            input.append("key").append(line).append(" = value").append(line).append('\n');
+        }
+        input.append("last = \"end\"\n");
+
+        IniConf lazy = assertTimeout(Duration.ofSeconds(5), () -> IniConf.parseLazily(input.toString(), true));
+        assertEquals("value199999", lazy.get("key199999"));
+        assertEquals("end", lazy.get("last"));
+    }
+
+    @Test
+    void malformedLazyValuesCanBeReplacedAndCompared() {
+        IniConf lazy = IniConf.parseLazily("key = \"abc\nother = 1\n");
+        IniConf same = IniConf.parseLazily("key = \"abc\nother = 1\n");
+
+        assertEquals(same, lazy);
+        assertEquals(same.hashCode(), lazy.hashCode());
+        assertThrows(IniConfFormatException.class, lazy::toString);
+        assertEquals("\"abc", lazy.put("key", "fixed"));
+        assertEquals("fixed", lazy.get("key"));
+        assertEquals(new IniConf("key = fixed\nother = 1\n"), lazy);
+        assertEquals("key = fixed\nother = 1\n\n", lazy.toString());
+    }
+
+    @Test
+    void cachedHashCodeFollowsNestedChanges() {
+        IniConf iniConf = new IniConf("root = value\n[a.b.c]\nkey = one\n[d]\nkey = two\n");
+        IniConf copy = new IniConf(iniConf.toString());
+        int initial = iniConf.hashCode();
+
+        assertEquals(initial, copy.hashCode());
+        assertEquals(iniConf.getProperties().hashCode() + iniConf.getSections().hashCode(), initial);
+
+        iniConf.put("a.b.c", "key", "changed");
+        assertNotEquals(initial, iniConf.hashCode());
+        assertNotEquals(copy, iniConf);
+        iniConf.put("a.b.c", "key", "one");
+        assertEquals(initial, iniConf.hashCode());
+        assertEquals(copy, iniConf);
+
+        IniConf section = iniConf.getSection("a.b");
+        section.addSection("e", new IniConf("key = three\n"));
+        copy.put("a.b.e", "key", "three");
+        assertEquals(copy.hashCode(), iniConf.hashCode());
+        assertEquals(copy, iniConf);
+
+        IniConf replaced = iniConf.addSection("d", new IniConf());
+        replaced.put("other", "four");
+        assertEquals(new IniConf("key = two\nother = four\n").hashCode(), replaced.hashCode());
+        assertEquals(new IniConf(iniConf.toString()).hashCode(), iniConf.hashCode());
+    }
+
 }
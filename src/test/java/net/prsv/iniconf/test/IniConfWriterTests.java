@@ -6,13 +6,16 @@ import net.prsv.iniconf.IniConfWriter;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.io.TempDir;
 
+import java.io.ByteArrayOutputStream;
 import java.io.IOException;
+import java.io.StringWriter;
 import java.nio.charset.StandardCharsets;
 import java.nio.file.Files;
 import java.nio.file.Path;
 
 import static org.junit.jupiter.api.Assertions.assertArrayEquals;
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 
 class IniConfWriterTests {
@@ -30,4 +33,60 @@ class IniConfWriterTests {
         assertArrayEquals(iniConf.toString().getBytes(StandardCharsets.UTF_8), Files.readAllBytes(outputFile));
         assertEquals(iniConf, IniConfReader.read(outputFile.toString()).orElseThrow());
     }
+
+    @Test
+    void everyOutputReceivesTheSerializedConfiguration() throws IOException {
+        IniConf iniConf = largeConfiguration();
+        String expected = iniConf.toString();
+        Path outputFile = tempDir.resolve("large.ini");
+        ByteArrayOutputStream stream = new ByteArrayOutputStream();
+        StringWriter writer = new StringWriter();
+        StringBuilder builder = new StringBuilder("prefix\n");
+
+        assertTrue(IniConfWriter.write(outputFile, iniConf));
+        assertTrue(IniConfWriter.write(stream, iniConf));
+        assertTrue(IniConfWriter.write(writer, iniConf));
+        assertTrue(IniConfWriter.append(builder, iniConf));
+
+        assertEquals(expected, Files.readString(outputFile, StandardCharsets.UTF_8));
+        assertEquals(expected, stream.toString(StandardCharsets.UTF_8));
+        assertEquals(expected, writer.toString());
+        assertEquals("prefix\n" + expected, builder.toString());
+        assertEquals(iniConf, new IniConf(expected));
+    }
+
+    @Test
+    void serializesNestedSectionPathsInInsertionOrder() {
+        IniConf iniConf = new IniConf();
+        iniConf.put("b.inner", "key", "value with \"quotes\"");
+        iniConf.put("a", "key", "C:\\dir");
+        iniConf.put("b", "key", "");
+
+        assertEquals("[b]\n"
+                + "key = \"\"\n\n"
+                + "[b.inner]\n"
+                + "key = \"value with \\\"quotes\\\"\"\n\n"
+                + "[a]\n"
+                + "key = C:\\\\dir\n\n", iniConf.toString());
+    }
+
+    @Test
+    void reportsUnencodableContent() {
+        IniConf iniConf = new IniConf();
+        iniConf.put("key", "lone \ud800 surrogate");
+
+        assertFalse(IniConfWriter.write(new ByteArrayOutputStream(), iniConf));
+        assertFalse(IniConfWriter.write(tempDir.resolve("surrogate.ini"), iniConf));
+    }
+
+    private static IniConf largeConfiguration() {
+        IniConf iniConf = new IniConf();
+        for (int section = 0; section < 500; section++) {
+            String path = "section_" + section + ".child_" + section % 7;
+            iniConf.put(path, "plain", "value_" + section);
+            iniConf.put(path, "spaced", "Zażółć gęślą jaźń 😀 " + "x".repeat(section * 20));
+            iniConf.put(path, "escaped", "C:\\directory\\\"quoted\"");
+        }
+        return iniConf;
+    }
 }
@@ -0,0 +1,100 @@
+package net.prsv.iniconf.test;
+
+import net.prsv.iniconf.IniConf;
+import net.prsv.iniconf.PersistentIniConf;
+import org.junit.jupiter.api.Test;
+
+import java.util.HashMap;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class PersistentIniConfTests {
+
+    @Test
+    void updatesReturnNewVersionsAndShareUntouchedSections() {
+        PersistentIniConf first = PersistentIniConf.of(new IniConf("""
+                root = value
+                [server.http]
+                port = 8080
+                [logging]
+                level = info
+                """));
+
+        PersistentIniConf second = first.put("Server.HTTP", "Port", "9090");
+
+        assertEquals("8080", first.get("server.http", "port"));
+        assertEquals("9090", second.get("server.http", "port"));
+        assertSame(first.getSection("logging"), second.getSection("logging"));
+        assertSame(first, first.put("root", " value "));
+        assertNotEquals(first, second);
+        assertEquals(first, second.put("server.http", "port", "8080"));
+        assertEquals(first.hashCode(), second.put("server.http", "port", "8080").hashCode());
+    }
+
+    @Test
+    void addSectionSharesTheSection() {
+        PersistentIniConf shared = PersistentIniConf.empty().put("key", "value");
+
+        PersistentIniConf conf = PersistentIniConf.empty()
+                .addSection("a.b", shared)
+                .addSection("c", shared);
+
+        assertSame(shared, conf.getSection("a.b"));
+        assertSame(shared, conf.getSection("c"));
+        assertTrue(conf.isSection("a"));
+        assertFalse(conf.isSection("b"));
+        assertTrue(conf.isKey("a.b", "key"));
+        assertEquals("fallback", conf.getOrDefault("a", "key", "fallback"));
+        assertThrows(NullPointerException.class, () -> conf.addSection("d", null));
+        assertThrows(IllegalArgumentException.class, () -> conf.put("a..b", "key", "value"));
+        assertThrows(IllegalArgumentException.class, () -> conf.put("key", "line\nbreak"));
+        assertThrows(NullPointerException.class, () -> conf.get(null));
+    }
+
+    @Test
+    void convertsToAndFromIniConf() {
+        IniConf source = new IniConf("""
+                root = "two words"
+                [a.b.c]
+                key = value
+                [d]
+                """);
+
+        PersistentIniConf persistent = PersistentIniConf.of(source);
+
+        assertEquals(source, persistent.toIniConf());
+        assertEquals(source.hashCode(), persistent.hashCode());
+        assertEquals(new IniConf(source.toString()), new IniConf(persistent.toString()));
+        assertTrue(persistent.getSection("d").isEmpty());
+        assertTrue(PersistentIniConf.of(new IniConf()).isEmpty());
+    }
+
+    @Test
+    void manyKeysAndHashCollisions() {
+        PersistentIniConf conf = PersistentIniConf.empty();
+        Map<String, String> expected = new HashMap<>();
+        for (int index = 0; index < 5000; index++) {
+            conf = conf.put("key" + index, "value" + index);
+            expected.put("key" + index, "value" + index);
+        }
+        // "aan" and "ac0" have the same String hash code
+        conf = conf.put("aan", "first").put("ac0", "second").put("aan", "third");
+        expected.put("aan", "third");
+        expected.put("ac0", "second");
+
+        assertEquals(expected, conf.getProperties());
+        assertEquals(expected, new HashMap<>(conf.getProperties()));
+        assertEquals("value4321", conf.get("KEY4321"));
+        assertEquals("third", conf.get("aan"));
+        assertEquals("second", conf.get("ac0"));
+        assertNull(conf.get("key5000"));
+    }
+
+}